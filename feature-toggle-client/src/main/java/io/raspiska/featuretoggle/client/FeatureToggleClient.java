@@ -10,6 +10,7 @@ import org.springframework.lang.Nullable;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -252,7 +253,7 @@ public class FeatureToggleClient implements MessageListener {
 
     @Override
     public void onMessage(Message message, byte[] pattern) {
-        String featureName = new String(message.getBody());
+        String featureName = parseFeatureName(message.getBody());
         log.debug("Received cache invalidation for feature: {}", featureName);
 
         if ("*".equals(featureName)) {
@@ -262,6 +263,22 @@ public class FeatureToggleClient implements MessageListener {
         }
     }
 
+    /**
+     * The service publishes {@code FEATURE_NAME:version} through a JSON serializer, so the
+     * payload arrives quoted. Only the feature name is needed to evict.
+     */
+    static String parseFeatureName(byte[] body) {
+        String payload = new String(body, StandardCharsets.UTF_8).trim();
+        if (payload.length() >= 2 && payload.startsWith("\"") && payload.endsWith("\"")) {
+            payload = payload.substring(1, payload.length() - 1);
+        }
+        int separator = payload.lastIndexOf(':');
+        if (separator > 0 && payload.substring(separator + 1).chars().allMatch(Character::isDigit)) {
+            return payload.substring(0, separator);
+        }
+        return payload;
+    }
+
     private static class CachedResult {
         final String featureName;
         final boolean enabled;
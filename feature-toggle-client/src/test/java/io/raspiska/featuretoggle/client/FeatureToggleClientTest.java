@@ -428,6 +428,29 @@ class FeatureToggleClientTest {
             verify(restTemplate, times(2)).getForEntity(anyString(), eq(FeatureCheckResult.class));
         }
 
+        @Test
+        @DisplayName("onMessage should evict cache for a quoted versioned message")
+        void onMessage_shouldEvictCache_forQuotedVersionedMessage() {
+            // Given
+            FeatureCheckResult serviceResult = FeatureCheckResult.builder()
+                    .featureName("TEST_FEATURE")
+                    .enabled(true)
+                    .status("ENABLED")
+                    .reason("Feature is enabled globally")
+                    .build();
+            when(restTemplate.getForEntity(anyString(), eq(FeatureCheckResult.class)))
+                    .thenReturn(ResponseEntity.ok(serviceResult));
+
+            client.check("TEST_FEATURE");
+
+            // When - payload as published by the service through the JSON serializer
+            client.onMessage(new TestMessage("\"TEST_FEATURE:1767225600000\"".getBytes()), null);
+            client.check("TEST_FEATURE");
+
+            // Then
+            verify(restTemplate, times(2)).getForEntity(anyString(), eq(FeatureCheckResult.class));
+        }
+
         @Test
         @DisplayName("onMessage with * should evict all cache")
         void onMessage_withWildcard_shouldEvictAllCache() {
@@ -11,11 +11,67 @@ public class ApplicationProperties {
 
     private Cache cache = new Cache();
     private Redis redis = new Redis();
+    private Stream stream = new Stream();
+    private Changes changes = new Changes();
+    private ListImport listImport = new ListImport();
+    private Purge purge = new Purge();
+    private Audit audit = new Audit();
+    private Leader leader = new Leader();
+    private Schedules schedules = new Schedules();
 
     @Getter
     @Setter
     public static class Cache {
         private long ttlSeconds = 30;
+        private Snapshot snapshot = new Snapshot();
+        private Negative negative = new Negative();
+        private RefreshAhead refreshAhead = new RefreshAhead();
+        private MembershipIndex membershipIndex = new MembershipIndex();
+        private ListScript listScript = new ListScript();
+        private WarmUp warmUp = new WarmUp();
+    }
+
+    @Getter
+    @Setter
+    public static class Snapshot {
+        private boolean enabled = false;
+        private long fullReloadSeconds = 300;
+    }
+
+    @Getter
+    @Setter
+    public static class Negative {
+        private int maxSize = 10000;
+        private long ttlSeconds = 10;
+    }
+
+    @Getter
+    @Setter
+    public static class WarmUp {
+        private boolean enabled = true;
+        private boolean loadLists = false;
+        private int redisBatchSize = 500;
+    }
+
+    @Getter
+    @Setter
+    public static class ListScript {
+        private boolean enabled = true;
+    }
+
+    @Getter
+    @Setter
+    public static class RefreshAhead {
+        private boolean enabled = false;
+        private double fraction = 0.8;
+        private long maxStaleSeconds = 120;
+    }
+
+    @Getter
+    @Setter
+    public static class MembershipIndex {
+        private boolean enabled = true;
+        private long ttlSeconds = 300;
     }
 
     @Getter
@@ -24,4 +80,64 @@ public class ApplicationProperties {
         private boolean enabled = true;
         private String channel = "feature-toggle-updates";
     }
+
+    @Getter
+    @Setter
+    public static class Stream {
+        private int replaySize = 1000;
+        private long timeoutSeconds = 1800;
+        private long heartbeatSeconds = 30;
+        private int maxPendingEvents = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Changes {
+        private long maxWaitSeconds = 60;
+        private int maxLimit = 1000;
+        private long pollIntervalMs = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class ListImport {
+        private int chunkSize = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Purge {
+        private int chunkSize = 5000;
+        private long intervalMs = 5000;
+    }
+
+    @Getter
+    @Setter
+    public static class Audit {
+        private int queueCapacity = 10000;
+        private int batchSize = 500;
+        private long flushIntervalMs = 200;
+        // How long a caller waits for queue space before the entry is dropped
+        private long enqueueTimeoutMs = 50;
+        // Entries older than this many days are archived and deleted; 0 keeps everything
+        private int retentionDays = 0;
+        private String archiveDir = "./data/audit-archive";
+        private int archiveChunkSize = 5000;
+        private long archiveIntervalMs = 3600000;
+    }
+
+    @Getter
+    @Setter
+    public static class Leader {
+        private long leaseMs = 10000;
+        private long renewIntervalMs = 3000;
+        // Blank uses the host name plus a random suffix
+        private String nodeId = "";
+    }
+
+    @Getter
+    @Setter
+    public static class Schedules {
+        private long reconcileIntervalMs = 60000;
+    }
 }
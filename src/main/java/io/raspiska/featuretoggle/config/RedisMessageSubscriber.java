@@ -1,6 +1,7 @@
 package io.raspiska.featuretoggle.config;
 
 import io.raspiska.featuretoggle.service.FeatureToggleCacheService;
+import io.raspiska.featuretoggle.service.InvalidationMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.connection.Message;
@@ -16,13 +17,20 @@ public class RedisMessageSubscriber implements MessageListener {
 
     @Override
     public void onMessage(Message message, byte[] pattern) {
-        String featureName = new String(message.getBody());
-        log.info("Received cache invalidation for feature: {}", featureName);
+        InvalidationMessage invalidation = InvalidationMessage.parse(message.getBody());
+        if (cacheService.getInstanceId().equals(invalidation.origin())) {
+            // Applied locally before publishing; evicting again would drop patched list entries
+            return;
+        }
+        log.info("Received cache invalidation for feature: {} at version {}",
+                invalidation.featureName(), invalidation.version());
         
-        if ("*".equals(featureName)) {
+        if (invalidation.isWildcard()) {
             cacheService.evictAllFromLocalCache();
+        } else if (invalidation.isVersioned()) {
+            cacheService.evictFromLocalCache(invalidation.featureName(), invalidation.version());
         } else {
-            cacheService.evictFromLocalCache(featureName);
+            cacheService.evictFromLocalCache(invalidation.featureName());
         }
     }
 }
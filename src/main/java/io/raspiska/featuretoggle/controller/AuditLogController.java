@@ -1,14 +1,28 @@
 package io.raspiska.featuretoggle.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.raspiska.featuretoggle.dto.AuditLogDto;
+import io.raspiska.featuretoggle.dto.AuditLogSlice;
+import io.raspiska.featuretoggle.dto.AuditRollupDto;
+import io.raspiska.featuretoggle.service.AuditArchiveService;
 import io.raspiska.featuretoggle.service.AuditLogService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/audit")
@@ -16,6 +30,8 @@ import org.springframework.web.bind.annotation.*;
 public class AuditLogController {
 
     private final AuditLogService auditLogService;
+    private final AuditArchiveService archiveService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public ResponseEntity<Page<AuditLogDto>> getAuditLogs(
@@ -24,4 +40,41 @@ public class AuditLogController {
             @PageableDefault(size = 20, sort = "timestamp", direction = Sort.Direction.DESC) Pageable pageable) {
         return ResponseEntity.ok(auditLogService.getAuditLogs(featureName, actor, pageable));
     }
+
+    @GetMapping("/scan")
+    public ResponseEntity<AuditLogSlice> scanAuditLogs(
+            @RequestParam(required = false) String featureName,
+            @RequestParam(required = false) String actor,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(auditLogService.scanAuditLogs(featureName, actor, from, to, cursor, size));
+    }
+
+    @GetMapping(path = "/archive", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamArchive(
+            @RequestParam(required = false) String featureName,
+            @RequestParam(required = false) String actor,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+        ObjectWriter writer = objectMapper.writerFor(AuditLogDto.class);
+        StreamingResponseBody body = outputStream -> archiveService.streamArchived(featureName, actor, from, to, entry -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(entry));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/rollups")
+    public ResponseEntity<List<AuditRollupDto>> getRollups(
+            @RequestParam(required = false) String featureName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(archiveService.getRollups(featureName, from, to));
+    }
 }
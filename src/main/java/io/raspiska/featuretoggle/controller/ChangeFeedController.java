@@ -0,0 +1,30 @@
+package io.raspiska.featuretoggle.controller;
+
+import io.raspiska.featuretoggle.dto.ChangeFeedResponse;
+import io.raspiska.featuretoggle.service.ChangeFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.temporal.ChronoUnit;
+
+@RestController
+@RequestMapping("/api/v1/changes")
+@RequiredArgsConstructor
+public class ChangeFeedController {
+
+    private final ChangeFeedService changeFeedService;
+
+    @GetMapping
+    public DeferredResult<ChangeFeedResponse> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "0s") String wait,
+            @RequestParam(defaultValue = "500") int limit) {
+        // Accepts both "30s" and ISO-8601 durations; bare numbers are seconds
+        return changeFeedService.getChanges(since, DurationStyle.detectAndParse(wait, ChronoUnit.SECONDS), limit);
+    }
+}
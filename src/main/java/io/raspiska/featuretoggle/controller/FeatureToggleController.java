@@ -1,15 +1,27 @@
 package io.raspiska.featuretoggle.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.raspiska.featuretoggle.dto.*;
+import io.raspiska.featuretoggle.entity.FeatureToggleUser.ListType;
 import io.raspiska.featuretoggle.service.FeatureToggleService;
+import io.raspiska.featuretoggle.service.ToggleChangeStream;
+import io.raspiska.featuretoggle.service.UserListImportService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -17,7 +29,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FeatureToggleController {
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final FeatureToggleService toggleService;
+    private final ToggleChangeStream changeStream;
+    private final UserListImportService importService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public ResponseEntity<List<FeatureToggleDto>> getAllToggles(
@@ -28,6 +45,27 @@ public class FeatureToggleController {
         return ResponseEntity.ok(toggleService.getAllToggles());
     }
 
+    @GetMapping(params = "page")
+    public ResponseEntity<Page<FeatureToggleDto>> getTogglesPage(
+            @RequestParam(required = false) String group,
+            @PageableDefault(size = 100, sort = "featureName") Pageable pageable) {
+        return ResponseEntity.ok(toggleService.getToggles(group, pageable));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamToggles(@RequestParam(required = false) String group) {
+        ObjectWriter writer = objectMapper.writerFor(FeatureToggleDto.class);
+        StreamingResponseBody body = outputStream -> toggleService.streamToggles(group, toggle -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(toggle));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{featureName}")
     public ResponseEntity<FeatureToggleDto> getToggle(@PathVariable String featureName) {
         return ResponseEntity.ok(toggleService.getToggle(featureName));
@@ -63,6 +101,16 @@ public class FeatureToggleController {
         return ResponseEntity.ok(toggleService.checkFeature(featureName, userId));
     }
 
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return changeStream.subscribe(lastEventId);
+    }
+
+    @PostMapping("/check")
+    public ResponseEntity<BatchCheckResponse> checkFeatures(@Valid @RequestBody BatchCheckRequest request) {
+        return ResponseEntity.ok(toggleService.checkFeatures(request.getFeatureNames(), request.getUserId()));
+    }
+
     @PostMapping("/{featureName}/whitelist")
     public ResponseEntity<Void> addToWhitelist(
             @PathVariable String featureName,
@@ -97,6 +145,14 @@ public class FeatureToggleController {
         return ResponseEntity.ok(toggleService.getWhitelistedUsers(featureName, pageable));
     }
 
+    @GetMapping("/{featureName}/whitelist/scan")
+    public ResponseEntity<UserListSlice> scanWhitelist(
+            @PathVariable String featureName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int size) {
+        return ResponseEntity.ok(toggleService.scanWhitelistedUsers(featureName, cursor, size));
+    }
+
     @PostMapping("/{featureName}/blacklist")
     public ResponseEntity<Void> addToBlacklist(
             @PathVariable String featureName,
@@ -131,6 +187,48 @@ public class FeatureToggleController {
         return ResponseEntity.ok(toggleService.getBlacklistedUsers(featureName, pageable));
     }
 
+    @GetMapping("/{featureName}/blacklist/scan")
+    public ResponseEntity<UserListSlice> scanBlacklist(
+            @PathVariable String featureName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int size) {
+        return ResponseEntity.ok(toggleService.scanBlacklistedUsers(featureName, cursor, size));
+    }
+
+    @PostMapping(path = "/{featureName}/whitelist/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<StreamingResponseBody> importWhitelist(
+            @PathVariable String featureName,
+            HttpServletRequest request,
+            @RequestHeader(value = "X-Actor", required = false) String actor) {
+        return importUsers(featureName, ListType.WHITELIST, request, actor);
+    }
+
+    @PostMapping(path = "/{featureName}/blacklist/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<StreamingResponseBody> importBlacklist(
+            @PathVariable String featureName,
+            HttpServletRequest request,
+            @RequestHeader(value = "X-Actor", required = false) String actor) {
+        return importUsers(featureName, ListType.BLACKLIST, request, actor);
+    }
+
+    @PutMapping(path = "/{featureName}/whitelist", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<UserListReplaceResponse> replaceWhitelist(
+            @PathVariable String featureName,
+            HttpServletRequest request,
+            @RequestHeader(value = "X-Actor", required = false) String actor) throws IOException {
+        return ResponseEntity.ok(importService.replaceUsers(featureName, ListType.WHITELIST, formatOf(request),
+                request.getReader(), actor));
+    }
+
+    @PutMapping(path = "/{featureName}/blacklist", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<UserListReplaceResponse> replaceBlacklist(
+            @PathVariable String featureName,
+            HttpServletRequest request,
+            @RequestHeader(value = "X-Actor", required = false) String actor) throws IOException {
+        return ResponseEntity.ok(importService.replaceUsers(featureName, ListType.BLACKLIST, formatOf(request),
+                request.getReader(), actor));
+    }
+
     @PostMapping("/{featureName}/schedule")
     public ResponseEntity<FeatureToggleDto> scheduleToggle(
             @PathVariable String featureName,
@@ -146,4 +244,45 @@ public class FeatureToggleController {
             @RequestHeader(value = "X-Actor", required = false) String actor) {
         return ResponseEntity.ok(toggleService.cancelSchedule(featureName, actor));
     }
+
+    @GetMapping("/{featureName}/schedules")
+    public ResponseEntity<List<ToggleScheduleDto>> getSchedules(@PathVariable String featureName) {
+        return ResponseEntity.ok(toggleService.getSchedules(featureName));
+    }
+
+    @DeleteMapping("/{featureName}/schedules/{scheduleId}")
+    public ResponseEntity<FeatureToggleDto> cancelScheduleEntry(
+            @PathVariable String featureName,
+            @PathVariable long scheduleId,
+            @RequestHeader(value = "X-Actor", required = false) String actor) {
+        return ResponseEntity.ok(toggleService.cancelScheduleEntry(featureName, scheduleId, actor));
+    }
+
+    /**
+     * Reads the upload while the response is streamed, writing one progress line per committed chunk.
+     */
+    private ResponseEntity<StreamingResponseBody> importUsers(String featureName, ListType listType,
+                                                              HttpServletRequest request, String actor) {
+        importService.requireFeatureId(featureName);
+        UserListImportService.Format format = formatOf(request);
+        ObjectWriter writer = objectMapper.writerFor(UserListImportProgress.class);
+        StreamingResponseBody body = outputStream -> importService.importUsers(featureName, listType, format,
+                request.getReader(), actor, progress -> {
+                    try {
+                        outputStream.write(writer.writeValueAsBytes(progress));
+                        outputStream.write('\n');
+                        outputStream.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private static UserListImportService.Format formatOf(HttpServletRequest request) {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        return MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? UserListImportService.Format.NDJSON
+                : UserListImportService.Format.CSV;
+    }
 }
@@ -0,0 +1,31 @@
+package io.raspiska.featuretoggle.controller;
+
+import io.raspiska.featuretoggle.dto.ListPurgeDto;
+import io.raspiska.featuretoggle.service.ListPurgeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/purges")
+@RequiredArgsConstructor
+public class ListPurgeController {
+
+    private final ListPurgeService purgeService;
+
+    @GetMapping
+    public ResponseEntity<Page<ListPurgeDto>> getPurges(
+            @RequestParam(required = false) String featureName,
+            @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        return ResponseEntity.ok(purgeService.getPurges(featureName, pageable));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ListPurgeDto> getPurge(@PathVariable long id) {
+        return ResponseEntity.ok(purgeService.getPurge(id));
+    }
+}
@@ -0,0 +1,36 @@
+package io.raspiska.featuretoggle.controller;
+
+import io.raspiska.featuretoggle.dto.UserFlagsResponse;
+import io.raspiska.featuretoggle.service.FeatureToggleCacheService.UserFlags;
+import io.raspiska.featuretoggle.service.FeatureToggleService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+@RestController
+@RequestMapping("/api/v1/users")
+@RequiredArgsConstructor
+public class UserFlagsController {
+
+    private final FeatureToggleService toggleService;
+
+    @GetMapping("/{userId}/flags")
+    public ResponseEntity<UserFlagsResponse> getUserFlags(@PathVariable String userId, WebRequest request) {
+        UserFlags userFlags = toggleService.getUserFlags(userId);
+        // Checked before the map is built, a matching If-None-Match skips evaluation entirely
+        if (request.checkNotModified(userFlags.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(userFlags.etag()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(userFlags.etag())
+                .body(UserFlagsResponse.builder()
+                        .userId(userId)
+                        .flags(userFlags.flags())
+                        .build());
+    }
+}
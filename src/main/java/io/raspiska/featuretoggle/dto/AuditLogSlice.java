@@ -0,0 +1,17 @@
+package io.raspiska.featuretoggle.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+@Value
+@Builder
+@Jacksonized
+public class AuditLogSlice {
+
+    List<AuditLogDto> entries;
+    // Opaque token for the next (older) slice, null once the range is exhausted
+    String nextCursor;
+}
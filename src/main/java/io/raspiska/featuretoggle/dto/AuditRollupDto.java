@@ -0,0 +1,21 @@
+package io.raspiska.featuretoggle.dto;
+
+import io.raspiska.featuretoggle.entity.AuditLog.AuditAction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditRollupDto {
+
+    private LocalDate day;
+    private String featureName;
+    private AuditAction action;
+    private long count;
+}
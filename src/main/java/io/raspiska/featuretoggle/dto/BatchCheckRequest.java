@@ -0,0 +1,24 @@
+package io.raspiska.featuretoggle.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCheckRequest {
+
+    private String userId;
+
+    @NotEmpty(message = "Feature names list cannot be empty")
+    @Size(max = 200, message = "At most 200 features can be checked in one request")
+    private List<@NotBlank(message = "Feature names cannot be blank") String> featureNames;
+}
@@ -0,0 +1,17 @@
+package io.raspiska.featuretoggle.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.Map;
+
+@Value
+@Builder
+@Jacksonized
+public class BatchCheckResponse {
+
+    String userId;
+    // Keyed by feature name, in request order
+    Map<String, FeatureCheckResponse> results;
+}
@@ -0,0 +1,21 @@
+package io.raspiska.featuretoggle.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedResponse {
+
+    // Pass as `since` on the next request
+    private long version;
+    private List<FeatureToggleChangeDto> changes;
+    // More changes are available right away
+    private boolean hasMore;
+}
@@ -1,19 +1,20 @@
 package io.raspiska.featuretoggle.dto;
 
 import io.raspiska.featuretoggle.entity.ToggleStatus;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
-@Data
+/**
+ * Immutable so that instances can be built once per cached toggle and shared across checks.
+ */
+@Value
 @Builder
-@NoArgsConstructor
-@AllArgsConstructor
+@Jacksonized
 public class FeatureCheckResponse {
 
-    private String featureName;
-    private boolean enabled;
-    private ToggleStatus status;
-    private String reason;
+    String featureName;
+    boolean enabled;
+    ToggleStatus status;
+    String reason;
 }
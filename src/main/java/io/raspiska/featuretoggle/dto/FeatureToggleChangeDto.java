@@ -0,0 +1,24 @@
+package io.raspiska.featuretoggle.dto;
+
+import io.raspiska.featuretoggle.entity.FeatureToggleChange.ChangeType;
+import io.raspiska.featuretoggle.entity.ToggleStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeatureToggleChangeDto {
+
+    private long version;
+    private String featureName;
+    private ChangeType changeType;
+    private ToggleStatus status;
+    private long toggleVersion;
+    private Instant changedAt;
+}
@@ -0,0 +1,24 @@
+package io.raspiska.featuretoggle.dto;
+
+import io.raspiska.featuretoggle.entity.ListPurge.Status;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListPurgeDto {
+
+    private Long id;
+    private String featureName;
+    private Status status;
+    private long totalRows;
+    private long purgedRows;
+    private Instant createdAt;
+    private Instant completedAt;
+}
@@ -0,0 +1,18 @@
+package io.raspiska.featuretoggle.dto;
+
+import io.raspiska.featuretoggle.entity.ToggleStatus;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Builder
+@Jacksonized
+public class ToggleChangeEvent {
+
+    String featureName;
+    // Null when the toggle was deleted
+    ToggleStatus status;
+    long version;
+    boolean deleted;
+}
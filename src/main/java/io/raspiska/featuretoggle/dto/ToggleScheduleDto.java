@@ -0,0 +1,22 @@
+package io.raspiska.featuretoggle.dto;
+
+import io.raspiska.featuretoggle.entity.ToggleStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ToggleScheduleDto {
+
+    private Long id;
+    private ToggleStatus scheduledStatus;
+    private Instant scheduledAt;
+    private String createdBy;
+    private Instant createdAt;
+}
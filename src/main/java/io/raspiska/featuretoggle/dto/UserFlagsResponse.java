@@ -0,0 +1,16 @@
+package io.raspiska.featuretoggle.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.Map;
+
+@Value
+@Builder
+@Jacksonized
+public class UserFlagsResponse {
+
+    String userId;
+    Map<String, Boolean> flags;
+}
@@ -0,0 +1,20 @@
+package io.raspiska.featuretoggle.dto;
+
+import io.raspiska.featuretoggle.entity.FeatureToggleUser.ListType;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Builder
+@Jacksonized
+public class UserListImportProgress {
+
+    String featureName;
+    ListType listType;
+    // User IDs read from the upload so far, including ones already on the list
+    long received;
+    // User IDs committed to the list so far
+    long added;
+    boolean done;
+}
@@ -0,0 +1,19 @@
+package io.raspiska.featuretoggle.dto;
+
+import io.raspiska.featuretoggle.entity.FeatureToggleUser.ListType;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Builder
+@Jacksonized
+public class UserListReplaceResponse {
+
+    String featureName;
+    ListType listType;
+    // User IDs read from the upload, including duplicates
+    long received;
+    long added;
+    long removed;
+}
@@ -0,0 +1,17 @@
+package io.raspiska.featuretoggle.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+@Value
+@Builder
+@Jacksonized
+public class UserListSlice {
+
+    List<String> userIds;
+    // Opaque token for the next slice, null once the list is exhausted
+    String nextCursor;
+}
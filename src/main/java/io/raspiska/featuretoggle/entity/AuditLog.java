@@ -10,8 +10,8 @@ import java.time.Instant;
 
 @Entity
 @Table(name = "audit_logs", indexes = {
-        @Index(name = "idx_audit_feature_name", columnList = "feature_name"),
-        @Index(name = "idx_audit_actor", columnList = "actor"),
+        @Index(name = "idx_audit_feature_timestamp", columnList = "feature_name, timestamp"),
+        @Index(name = "idx_audit_actor_timestamp", columnList = "actor, timestamp"),
         @Index(name = "idx_audit_action", columnList = "action"),
         @Index(name = "idx_audit_timestamp", columnList = "timestamp")
 })
@@ -43,7 +43,9 @@ public class AuditLog {
 
     @PrePersist
     protected void onCreate() {
-        timestamp = Instant.now();
+        if (timestamp == null) {
+            timestamp = Instant.now();
+        }
     }
 
     public enum AuditAction {
@@ -54,6 +56,8 @@ public class AuditLog {
         REMOVE_FROM_WHITELIST,
         ADD_TO_BLACKLIST,
         REMOVE_FROM_BLACKLIST,
+        REPLACE_WHITELIST,
+        REPLACE_BLACKLIST,
         SCHEDULE,
         SCHEDULE_APPLIED
     }
@@ -0,0 +1,43 @@
+package io.raspiska.featuretoggle.entity;
+
+import io.raspiska.featuretoggle.entity.AuditLog.AuditAction;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Number of archived audit entries per UTC day, feature and action. Counts are added when
+ * entries are moved out of {@code audit_logs}, so history stays countable after retention.
+ */
+@Entity
+@Table(name = "audit_rollups", indexes = {
+        @Index(name = "uk_audit_rollup", columnList = "feature_name, day, action", unique = true),
+        @Index(name = "idx_audit_rollup_day", columnList = "day")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(name = "feature_name", nullable = false)
+    private String featureName;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private AuditAction action;
+
+    @Column(name = "entry_count", nullable = false)
+    private long entryCount;
+}
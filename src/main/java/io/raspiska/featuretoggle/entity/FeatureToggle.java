@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.Instant;
 
@@ -15,6 +17,8 @@ import java.time.Instant;
         @Index(name = "idx_status", columnList = "status"),
         @Index(name = "idx_scheduled_at", columnList = "scheduled_at")
 })
+// Deleted toggles stay behind as tombstones until their list entries are purged
+@SQLRestriction("deleted_at IS NULL")
 @Data
 @Builder
 @NoArgsConstructor
@@ -52,14 +56,27 @@ public class FeatureToggle {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
+    /**
+     * Increases on every change and is seeded from the clock, so a re-created toggle
+     * also gets a higher version than the one that was deleted before it.
+     */
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long version;
+
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
     @PrePersist
     protected void onCreate() {
         createdAt = Instant.now();
         updatedAt = Instant.now();
+        version = Math.max(version + 1, updatedAt.toEpochMilli());
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = Instant.now();
+        version = Math.max(version + 1, updatedAt.toEpochMilli());
     }
 }
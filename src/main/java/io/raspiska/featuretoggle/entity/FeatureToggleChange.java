@@ -0,0 +1,58 @@
+package io.raspiska.featuretoggle.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One committed toggle mutation. The generated id is the global change-feed version: rows are
+ * written inside the mutating transaction and SQLite serializes writers, so ids become visible
+ * in increasing order.
+ */
+@Entity
+@Table(name = "feature_toggle_changes", indexes = {
+        @Index(name = "idx_change_feature_name", columnList = "feature_name")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeatureToggleChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "feature_name", nullable = false)
+    private String featureName;
+
+    @Column(name = "change_type", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ChangeType changeType;
+
+    // Null for deletions
+    @Column
+    @Enumerated(EnumType.STRING)
+    private ToggleStatus status;
+
+    @Column(name = "toggle_version", nullable = false)
+    private long toggleVersion;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        changedAt = Instant.now();
+    }
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -11,7 +11,8 @@ import java.time.Instant;
 @Entity
 @Table(name = "feature_toggle_users", indexes = {
         @Index(name = "idx_feature_user", columnList = "feature_id, user_id"),
-        @Index(name = "idx_feature_list_type", columnList = "feature_id, list_type")
+        @Index(name = "idx_feature_list_type", columnList = "feature_id, list_type"),
+        @Index(name = "uk_feature_list_user", columnList = "feature_id, list_type, user_id", unique = true)
 })
 @Data
 @Builder
@@ -0,0 +1,29 @@
+package io.raspiska.featuretoggle.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lease row used for leader election when Redis is disabled.
+ */
+@Entity
+@Table(name = "leader_leases")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderLease {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private String holder;
+
+    // Epoch milliseconds, compared against the clock of the node taking over
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+}
@@ -0,0 +1,63 @@
+package io.raspiska.featuretoggle.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Background removal of the whitelist/blacklist entries of a deleted toggle. The toggle row
+ * is kept as a tombstone until the purge completes, so its id cannot be reused by a new
+ * toggle while entries still reference it.
+ */
+@Entity
+@Table(name = "feature_list_purges", indexes = {
+        @Index(name = "idx_purge_status", columnList = "status")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListPurge {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "feature_id", nullable = false)
+    private Long featureId;
+
+    // Name of the toggle when it was deleted
+    @Column(name = "feature_name", nullable = false)
+    private String featureName;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Column(name = "total_rows", nullable = false)
+    private long totalRows;
+
+    @Column(name = "purged_rows", nullable = false)
+    private long purgedRows;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = Instant.now();
+    }
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED
+    }
+}
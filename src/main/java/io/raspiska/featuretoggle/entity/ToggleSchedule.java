@@ -0,0 +1,50 @@
+package io.raspiska.featuretoggle.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A pending status change of a toggle. A toggle can have any number of them; the row is
+ * deleted when the change is applied or cancelled.
+ */
+@Entity
+@Table(name = "feature_toggle_schedules", indexes = {
+        @Index(name = "idx_schedule_feature_at", columnList = "feature_id, scheduled_at"),
+        @Index(name = "idx_schedule_at", columnList = "scheduled_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ToggleSchedule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "feature_id", nullable = false)
+    private Long featureId;
+
+    @Column(name = "scheduled_status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ToggleStatus scheduledStatus;
+
+    @Column(name = "scheduled_at", nullable = false)
+    private Instant scheduledAt;
+
+    @Column(name = "created_by")
+    private String createdBy;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = Instant.now();
+    }
+}
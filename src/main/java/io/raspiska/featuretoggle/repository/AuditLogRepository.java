@@ -2,13 +2,20 @@ package io.raspiska.featuretoggle.repository;
 
 import io.raspiska.featuretoggle.entity.AuditLog;
 import io.raspiska.featuretoggle.entity.AuditLog.AuditAction;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
+
 @Repository
-public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
+public interface AuditLogRepository extends JpaRepository<AuditLog, Long>, AuditLogRepositoryCustom {
 
     Page<AuditLog> findByFeatureName(String featureName, Pageable pageable);
 
@@ -17,4 +24,48 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     Page<AuditLog> findByAction(AuditAction action, Pageable pageable);
 
     Page<AuditLog> findByFeatureNameAndActor(String featureName, String actor, Pageable pageable);
+
+    // Keyset queries, newest first: entries at or after `from` and strictly before the
+    // (beforeTimestamp, beforeId) position. `timestamp <= :beforeTimestamp` is kept as a plain
+    // range so it bounds the (..., timestamp) index scan; the OR only filters ties.
+    String BEFORE_POSITION = "a.timestamp >= :from AND a.timestamp <= :beforeTimestamp " +
+            "AND (a.timestamp < :beforeTimestamp OR a.id < :beforeId) " +
+            "ORDER BY a.timestamp DESC, a.id DESC";
+
+    @Query("SELECT a FROM AuditLog a WHERE " + BEFORE_POSITION)
+    List<AuditLog> findBefore(@Param("from") Instant from,
+                              @Param("beforeTimestamp") Instant beforeTimestamp,
+                              @Param("beforeId") long beforeId,
+                              Limit limit);
+
+    @Query("SELECT a FROM AuditLog a WHERE a.featureName = :featureName AND " + BEFORE_POSITION)
+    List<AuditLog> findByFeatureNameBefore(@Param("featureName") String featureName,
+                                           @Param("from") Instant from,
+                                           @Param("beforeTimestamp") Instant beforeTimestamp,
+                                           @Param("beforeId") long beforeId,
+                                           Limit limit);
+
+    @Query("SELECT a FROM AuditLog a WHERE a.actor = :actor AND " + BEFORE_POSITION)
+    List<AuditLog> findByActorBefore(@Param("actor") String actor,
+                                     @Param("from") Instant from,
+                                     @Param("beforeTimestamp") Instant beforeTimestamp,
+                                     @Param("beforeId") long beforeId,
+                                     Limit limit);
+
+    @Query("SELECT a FROM AuditLog a WHERE a.featureName = :featureName AND a.actor = :actor AND " + BEFORE_POSITION)
+    List<AuditLog> findByFeatureNameAndActorBefore(@Param("featureName") String featureName,
+                                                   @Param("actor") String actor,
+                                                   @Param("from") Instant from,
+                                                   @Param("beforeTimestamp") Instant beforeTimestamp,
+                                                   @Param("beforeId") long beforeId,
+                                                   Limit limit);
+
+    // Retention: oldest entries first, then removed up to and including the last one archived
+
+    @Query("SELECT a FROM AuditLog a WHERE a.timestamp < :cutoff ORDER BY a.timestamp, a.id")
+    List<AuditLog> findOldestBefore(@Param("cutoff") Instant cutoff, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM AuditLog a WHERE a.timestamp <= :lastTimestamp AND (a.timestamp < :lastTimestamp OR a.id <= :lastId)")
+    int deleteUpTo(@Param("lastTimestamp") Instant lastTimestamp, @Param("lastId") long lastId);
 }
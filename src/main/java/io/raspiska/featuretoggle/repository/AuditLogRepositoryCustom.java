@@ -0,0 +1,13 @@
+package io.raspiska.featuretoggle.repository;
+
+import io.raspiska.featuretoggle.entity.AuditLog;
+
+import java.util.List;
+
+public interface AuditLogRepositoryCustom {
+
+    /**
+     * Inserts the entries as one JDBC batch; ids are not read back.
+     */
+    void insertAll(List<AuditLog> entries);
+}
@@ -0,0 +1,35 @@
+package io.raspiska.featuretoggle.repository;
+
+import io.raspiska.featuretoggle.entity.AuditLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Batched audit insert. Hibernate sends IDENTITY inserts one statement at a time, which
+ * turns every audit flush into as many round trips as entries.
+ */
+@RequiredArgsConstructor
+class AuditLogRepositoryImpl implements AuditLogRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO audit_logs (feature_name, action, actor, details, timestamp) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<AuditLog> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (statement, entry) -> {
+            statement.setString(1, entry.getFeatureName());
+            statement.setString(2, entry.getAction().name());
+            statement.setString(3, entry.getActor());
+            statement.setString(4, entry.getDetails());
+            statement.setTimestamp(5, Timestamp.from(entry.getTimestamp()));
+        });
+    }
+}
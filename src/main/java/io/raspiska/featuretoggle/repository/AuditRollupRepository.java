@@ -0,0 +1,29 @@
+package io.raspiska.featuretoggle.repository;
+
+import io.raspiska.featuretoggle.entity.AuditRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AuditRollupRepository extends JpaRepository<AuditRollup, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO audit_rollups (day, feature_name, action, entry_count) " +
+            "VALUES (:day, :featureName, :action, :count) " +
+            "ON CONFLICT (feature_name, day, action) DO UPDATE SET entry_count = entry_count + excluded.entry_count",
+            nativeQuery = true)
+    void increment(@Param("day") LocalDate day,
+                   @Param("featureName") String featureName,
+                   @Param("action") String action,
+                   @Param("count") long count);
+
+    List<AuditRollup> findByDayBetweenOrderByDayAscFeatureNameAsc(LocalDate from, LocalDate to);
+
+    List<AuditRollup> findByFeatureNameAndDayBetweenOrderByDayAsc(String featureName, LocalDate from, LocalDate to);
+}
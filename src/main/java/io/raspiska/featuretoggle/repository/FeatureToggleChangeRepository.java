@@ -0,0 +1,18 @@
+package io.raspiska.featuretoggle.repository;
+
+import io.raspiska.featuretoggle.entity.FeatureToggleChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FeatureToggleChangeRepository extends JpaRepository<FeatureToggleChange, Long> {
+
+    List<FeatureToggleChange> findByIdGreaterThanOrderByIdAsc(long since, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM FeatureToggleChange c")
+    long findLatestVersion();
+}
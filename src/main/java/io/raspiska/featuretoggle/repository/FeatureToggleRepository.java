@@ -1,10 +1,16 @@
 package io.raspiska.featuretoggle.repository;
 
 import io.raspiska.featuretoggle.entity.FeatureToggle;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,11 +19,24 @@ public interface FeatureToggleRepository extends JpaRepository<FeatureToggle, Lo
 
     Optional<FeatureToggle> findByFeatureName(String featureName);
 
+    List<FeatureToggle> findByFeatureNameIn(Collection<String> featureNames);
+
     boolean existsByFeatureName(String featureName);
 
     void deleteByFeatureName(String featureName);
 
     List<FeatureToggle> findByGroupName(String groupName);
 
-    List<FeatureToggle> findByScheduledAtNotNullAndScheduledAtBefore(Instant time);
+    Page<FeatureToggle> findByGroupName(String groupName, Pageable pageable);
+
+    List<FeatureToggle> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    List<FeatureToggle> findByGroupNameAndIdGreaterThanOrderByIdAsc(String groupName, long id, Limit limit);
+
+    List<FeatureToggle> findByScheduledAtNotNull();
+
+    // Native, since tombstones are filtered out of every entity query
+    @Modifying
+    @Query(value = "DELETE FROM feature_toggles WHERE id = :id AND deleted_at IS NOT NULL", nativeQuery = true)
+    int deleteTombstone(@Param("id") long id);
 }
@@ -3,6 +3,7 @@ package io.raspiska.featuretoggle.repository;
 import io.raspiska.featuretoggle.entity.FeatureToggle;
 import io.raspiska.featuretoggle.entity.FeatureToggleUser;
 import io.raspiska.featuretoggle.entity.FeatureToggleUser.ListType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -11,11 +12,13 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
 @Repository
-public interface FeatureToggleUserRepository extends JpaRepository<FeatureToggleUser, Long> {
+public interface FeatureToggleUserRepository extends JpaRepository<FeatureToggleUser, Long>,
+        FeatureToggleUserRepositoryCustom {
 
     boolean existsByFeatureAndUserIdAndListType(FeatureToggle feature, String userId, ListType listType);
 
@@ -33,6 +36,14 @@ public interface FeatureToggleUserRepository extends JpaRepository<FeatureToggle
 
     Page<FeatureToggleUser> findByFeatureAndListType(FeatureToggle feature, ListType listType, Pageable pageable);
 
+    // Range scan on the (feature_id, list_type) index, which orders entries by row id
+    @Query("SELECT ftu.id AS id, ftu.userId AS userId FROM FeatureToggleUser ftu " +
+            "WHERE ftu.feature = :feature AND ftu.listType = :listType AND ftu.id > :afterId ORDER BY ftu.id")
+    List<UserIdRow> findUserIdsAfter(@Param("feature") FeatureToggle feature,
+                                     @Param("listType") ListType listType,
+                                     @Param("afterId") long afterId,
+                                     Limit limit);
+
     @Modifying
     @Query("DELETE FROM FeatureToggleUser ftu WHERE ftu.feature = :feature AND ftu.userId = :userId AND ftu.listType = :listType")
     int deleteByFeatureAndUserIdAndListType(@Param("feature") FeatureToggle feature,
@@ -45,8 +56,35 @@ public interface FeatureToggleUserRepository extends JpaRepository<FeatureToggle
                                                @Param("userIds") List<String> userIds,
                                                @Param("listType") ListType listType);
 
+    long countByFeature(FeatureToggle feature);
+
+    // Bulk delete by primary key range of one feature, without loading entities
     @Modifying
-    void deleteByFeature(FeatureToggle feature);
+    @Query(value = "DELETE FROM feature_toggle_users WHERE id IN " +
+            "(SELECT id FROM feature_toggle_users WHERE feature_id = :featureId LIMIT :limit)", nativeQuery = true)
+    int deleteChunkByFeatureId(@Param("featureId") long featureId, @Param("limit") int limit);
 
     long countByFeatureAndListType(FeatureToggle feature, ListType listType);
+
+    @Query("SELECT ftu.feature.id AS featureId, ftu.listType AS listType, COUNT(ftu) AS count " +
+            "FROM FeatureToggleUser ftu GROUP BY ftu.feature.id, ftu.listType")
+    List<ListCount> countAllByFeatureAndListType();
+
+    @Query("SELECT ftu.feature.id AS featureId, ftu.listType AS listType, COUNT(ftu) AS count " +
+            "FROM FeatureToggleUser ftu WHERE ftu.feature.id IN :featureIds GROUP BY ftu.feature.id, ftu.listType")
+    List<ListCount> countByFeatureIdInAndListType(@Param("featureIds") Collection<Long> featureIds);
+
+    interface UserIdRow {
+        Long getId();
+
+        String getUserId();
+    }
+
+    interface ListCount {
+        Long getFeatureId();
+
+        ListType getListType();
+
+        long getCount();
+    }
 }
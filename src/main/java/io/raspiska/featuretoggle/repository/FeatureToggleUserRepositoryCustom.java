@@ -0,0 +1,33 @@
+package io.raspiska.featuretoggle.repository;
+
+import io.raspiska.featuretoggle.entity.FeatureToggleUser.ListType;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface FeatureToggleUserRepositoryCustom {
+
+    /**
+     * Inserts the users in one JDBC batch, leaving out those already on the list.
+     *
+     * @return the user IDs that were actually added
+     */
+    List<String> insertMissing(long featureId, ListType listType, Collection<String> userIds);
+
+    /**
+     * Adds user IDs to the desired content of a list, collected in a staging table under
+     * {@code uploadId}. Every chunk can be staged in its own transaction.
+     */
+    void stage(String uploadId, Collection<String> userIds);
+
+    /**
+     * Makes the list equal to the user IDs staged under {@code uploadId} with one anti-join
+     * delete and one insert.
+     */
+    ListDelta replaceWithStaged(String uploadId, long featureId, ListType listType);
+
+    void clearStaged(String uploadId);
+
+    record ListDelta(int added, int removed) {
+    }
+}
@@ -0,0 +1,96 @@
+package io.raspiska.featuretoggle.repository;
+
+import io.raspiska.featuretoggle.entity.FeatureToggleUser.ListType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based insert for user lists. Duplicates are skipped by the unique
+ * (feature_id, list_type, user_id) index instead of an existence query per user, and
+ * the statements go out as a single JDBC batch, which Hibernate cannot do for entities
+ * with IDENTITY ids.
+ */
+@RequiredArgsConstructor
+class FeatureToggleUserRepositoryImpl implements FeatureToggleUserRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO feature_toggle_users (feature_id, user_id, list_type, created_at) " +
+            "VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    // Shared by all connections, so an upload can be staged chunk by chunk in separate
+    // transactions; staging writes nothing to feature_toggle_users until the replace itself
+    private static final String CREATE_STAGING_SQL = "CREATE TABLE IF NOT EXISTS feature_toggle_users_staging " +
+            "(upload_id TEXT NOT NULL, user_id TEXT NOT NULL, PRIMARY KEY (upload_id, user_id)) WITHOUT ROWID";
+    private static final String STAGE_SQL = "INSERT INTO feature_toggle_users_staging (upload_id, user_id) VALUES (?, ?) " +
+            "ON CONFLICT DO NOTHING";
+    private static final String DELETE_UNSTAGED_SQL = "DELETE FROM feature_toggle_users " +
+            "WHERE feature_id = ? AND list_type = ? " +
+            "AND user_id NOT IN (SELECT user_id FROM feature_toggle_users_staging WHERE upload_id = ?)";
+    private static final String INSERT_STAGED_SQL = "INSERT INTO feature_toggle_users (feature_id, user_id, list_type, created_at) " +
+            "SELECT ?, user_id, ?, ? FROM feature_toggle_users_staging WHERE upload_id = ? ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile boolean stagingTableCreated;
+
+    @Override
+    public List<String> insertMissing(long featureId, ListType listType, Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        List<String> batch = List.copyOf(userIds);
+        Timestamp createdAt = Timestamp.from(Instant.now());
+        int[] updated = jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, userId) -> {
+            statement.setLong(1, featureId);
+            statement.setString(2, userId);
+            statement.setString(3, listType.name());
+            statement.setTimestamp(4, createdAt);
+        })[0];
+
+        List<String> inserted = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] > 0) {
+                inserted.add(batch.get(i));
+            }
+        }
+        return inserted;
+    }
+
+    @Override
+    public void stage(String uploadId, Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        createStagingTable();
+        jdbcTemplate.batchUpdate(STAGE_SQL, userIds, userIds.size(), (statement, userId) -> {
+            statement.setString(1, uploadId);
+            statement.setString(2, userId);
+        });
+    }
+
+    @Override
+    public ListDelta replaceWithStaged(String uploadId, long featureId, ListType listType) {
+        createStagingTable();
+        int removed = jdbcTemplate.update(DELETE_UNSTAGED_SQL, featureId, listType.name(), uploadId);
+        int added = jdbcTemplate.update(INSERT_STAGED_SQL, featureId, listType.name(), Timestamp.from(Instant.now()), uploadId);
+        return new ListDelta(added, removed);
+    }
+
+    @Override
+    public void clearStaged(String uploadId) {
+        if (stagingTableCreated) {
+            jdbcTemplate.update("DELETE FROM feature_toggle_users_staging WHERE upload_id = ?", uploadId);
+        }
+    }
+
+    private void createStagingTable() {
+        if (!stagingTableCreated) {
+            jdbcTemplate.execute(CREATE_STAGING_SQL);
+            stagingTableCreated = true;
+        }
+    }
+}
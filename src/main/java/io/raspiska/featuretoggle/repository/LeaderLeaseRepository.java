@@ -0,0 +1,32 @@
+package io.raspiska.featuretoggle.repository;
+
+import io.raspiska.featuretoggle.entity.LeaderLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LeaderLeaseRepository extends JpaRepository<LeaderLease, String> {
+
+    // One statement, so two nodes can never both see the lease as free
+    @Modifying
+    @Query(value = "INSERT INTO leader_leases (name, holder, expires_at) VALUES (:name, :holder, :expiresAt) " +
+            "ON CONFLICT (name) DO UPDATE SET holder = excluded.holder, expires_at = excluded.expires_at " +
+            "WHERE leader_leases.holder = excluded.holder OR leader_leases.expires_at < :now",
+            nativeQuery = true)
+    int acquire(@Param("name") String name,
+                @Param("holder") String holder,
+                @Param("expiresAt") long expiresAt,
+                @Param("now") long now);
+
+    @Modifying
+    @Query(value = "UPDATE leader_leases SET expires_at = :expiresAt WHERE name = :name AND holder = :holder",
+            nativeQuery = true)
+    int renew(@Param("name") String name, @Param("holder") String holder, @Param("expiresAt") long expiresAt);
+
+    @Modifying
+    @Query(value = "DELETE FROM leader_leases WHERE name = :name AND holder = :holder", nativeQuery = true)
+    int release(@Param("name") String name, @Param("holder") String holder);
+}
@@ -0,0 +1,33 @@
+package io.raspiska.featuretoggle.repository;
+
+import io.raspiska.featuretoggle.entity.ListPurge;
+import io.raspiska.featuretoggle.entity.ListPurge.Status;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ListPurgeRepository extends JpaRepository<ListPurge, Long> {
+
+    List<ListPurge> findByStatusNotOrderByIdAsc(Status status);
+
+    Page<ListPurge> findByFeatureName(String featureName, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE ListPurge p SET p.status = :running, p.purgedRows = p.purgedRows + :rows " +
+            "WHERE p.id = :id AND p.status <> :completed")
+    int addPurgedRows(@Param("id") long id, @Param("rows") long rows,
+                      @Param("running") Status running, @Param("completed") Status completed);
+
+    @Modifying
+    @Query("UPDATE ListPurge p SET p.status = :completed, p.completedAt = :completedAt " +
+            "WHERE p.id = :id AND p.status <> :completed")
+    int complete(@Param("id") long id, @Param("completed") Status completed, @Param("completedAt") Instant completedAt);
+}
@@ -0,0 +1,40 @@
+package io.raspiska.featuretoggle.repository;
+
+import io.raspiska.featuretoggle.entity.ToggleSchedule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ToggleScheduleRepository extends JpaRepository<ToggleSchedule, Long> {
+
+    List<ToggleSchedule> findAllByOrderByScheduledAtAscIdAsc();
+
+    List<ToggleSchedule> findByFeatureIdOrderByScheduledAtAscIdAsc(long featureId);
+
+    // Range scan on idx_schedule_at
+    List<ToggleSchedule> findByScheduledAtBeforeOrderByScheduledAtAscIdAsc(Instant before);
+
+    Optional<ToggleSchedule> findFirstByFeatureIdOrderByScheduledAtAscIdAsc(long featureId);
+
+    boolean existsByFeatureId(long featureId);
+
+    // Deleting the row claims it: of several instances firing the same entry only one gets 1
+    @Modifying
+    @Query("DELETE FROM ToggleSchedule s WHERE s.id = :id")
+    int deleteEntry(@Param("id") long id);
+
+    @Modifying
+    @Query("DELETE FROM ToggleSchedule s WHERE s.id = :id AND s.featureId = :featureId")
+    int deleteEntry(@Param("featureId") long featureId, @Param("id") long id);
+
+    @Modifying
+    @Query("DELETE FROM ToggleSchedule s WHERE s.featureId = :featureId")
+    int deleteByFeatureId(@Param("featureId") long featureId);
+}
@@ -0,0 +1,37 @@
+package io.raspiska.featuretoggle.service;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Appends users to a cached list set only while it holds the loaded marker, so an
+ * expired set is never recreated with just the newly added users in it.
+ */
+class AddListMembersScript {
+
+    private final DefaultRedisScript<Long> script;
+
+    AddListMembersScript() {
+        this.script = new DefaultRedisScript<>();
+        this.script.setLocation(new ClassPathResource("scripts/add-list-members.lua"));
+        this.script.setResultType(Long.class);
+    }
+
+    RedisScript<Long> script() {
+        return script;
+    }
+
+    void add(RedisOperations<String, Object> operations, String key, String listLoadedMarker, Collection<String> userIds) {
+        List<Object> args = new ArrayList<>(userIds.size() + 1);
+        args.add(listLoadedMarker);
+        args.addAll(userIds);
+        // Arguments go through the template's value serializer, matching the members written by SADD
+        operations.execute(script, List.of(key), args.toArray());
+    }
+}
@@ -0,0 +1,161 @@
+package io.raspiska.featuretoggle.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.dto.AuditLogDto;
+import io.raspiska.featuretoggle.dto.AuditRollupDto;
+import io.raspiska.featuretoggle.entity.AuditLog;
+import io.raspiska.featuretoggle.entity.AuditLog.AuditAction;
+import io.raspiska.featuretoggle.entity.AuditRollup;
+import io.raspiska.featuretoggle.repository.AuditLogRepository;
+import io.raspiska.featuretoggle.repository.AuditRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Audit log retention. Entries older than {@code retention-days} are moved, oldest first and
+ * {@code archive-chunk-size} at a time, into gzipped NDJSON files bucketed by UTC day. Each
+ * chunk's archive parts are written before the transaction that adds its per-day rollup
+ * counts and deletes it, so an interrupted run archives the same chunk again.
+ */
+@Slf4j
+@Service
+public class AuditArchiveService {
+
+    private final AuditLogRepository auditLogRepository;
+    private final AuditRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationProperties properties;
+    private final AuditArchiveStore store;
+
+    public AuditArchiveService(AuditLogRepository auditLogRepository,
+                               AuditRollupRepository rollupRepository,
+                               TransactionTemplate transactionTemplate,
+                               ApplicationProperties properties,
+                               ObjectMapper objectMapper) {
+        this.auditLogRepository = auditLogRepository;
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.store = new AuditArchiveStore(Path.of(properties.getAudit().getArchiveDir()), objectMapper);
+    }
+
+    @Scheduled(fixedDelayString = "${feature-toggle.audit.archive-interval-ms:3600000}")
+    public void archiveExpired() {
+        int retentionDays = properties.getAudit().getRetentionDays();
+        if (retentionDays <= 0) {
+            return;
+        }
+        Instant cutoff = LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays).atStartOfDay(ZoneOffset.UTC).toInstant();
+        try {
+            long archived = archiveBefore(cutoff);
+            if (archived > 0) {
+                log.info("Archived {} audit log entries older than {}", archived, cutoff);
+            }
+        } catch (Exception e) {
+            log.warn("Archiving audit log entries older than {} failed, retrying later", cutoff, e);
+        }
+    }
+
+    long archiveBefore(Instant cutoff) throws IOException {
+        int chunkSize = Math.max(properties.getAudit().getArchiveChunkSize(), 1);
+        long archived = 0;
+        List<AuditLog> chunk;
+        do {
+            chunk = auditLogRepository.findOldestBefore(cutoff, Limit.of(chunkSize));
+            if (!chunk.isEmpty()) {
+                if (!archive(chunk)) {
+                    log.info("Audit log entries up to id {} were archived concurrently, stopping this run",
+                            chunk.getLast().getId());
+                    break;
+                }
+                archived += chunk.size();
+            }
+        } while (chunk.size() == chunkSize);
+        return archived;
+    }
+
+    /**
+     * Streams archived entries within {@code [from, to)}, oldest first; null bounds are open.
+     */
+    public void streamArchived(String featureName, String actor, Instant from, Instant to,
+                               Consumer<AuditLogDto> consumer) throws IOException {
+        LocalDate fromDay = from != null ? LocalDate.ofInstant(from, ZoneOffset.UTC) : LocalDate.MIN;
+        LocalDate toDay = to != null ? LocalDate.ofInstant(to, ZoneOffset.UTC) : LocalDate.MAX;
+        store.read(fromDay, toDay, entry -> {
+            if ((featureName == null || featureName.equals(entry.getFeatureName()))
+                    && (actor == null || actor.equals(entry.getActor()))
+                    && (from == null || !entry.getTimestamp().isBefore(from))
+                    && (to == null || entry.getTimestamp().isBefore(to))) {
+                consumer.accept(entry);
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<AuditRollupDto> getRollups(String featureName, LocalDate from, LocalDate to) {
+        LocalDate fromDay = from != null ? from : LocalDate.EPOCH;
+        LocalDate toDay = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        List<AuditRollup> rollups = featureName != null
+                ? rollupRepository.findByFeatureNameAndDayBetweenOrderByDayAsc(featureName, fromDay, toDay)
+                : rollupRepository.findByDayBetweenOrderByDayAscFeatureNameAsc(fromDay, toDay);
+        return rollups.stream().map(this::toDto).toList();
+    }
+
+    /**
+     * Returns {@code false} without counting anything when the chunk's rows were not all
+     * deleted here, e.g. because another instance archived the same chunk concurrently.
+     */
+    private boolean archive(List<AuditLog> chunk) throws IOException {
+        Map<LocalDate, List<AuditLogDto>> days = new TreeMap<>();
+        Map<RollupKey, Long> counts = new LinkedHashMap<>();
+        for (AuditLog entry : chunk) {
+            LocalDate day = LocalDate.ofInstant(entry.getTimestamp(), ZoneOffset.UTC);
+            days.computeIfAbsent(day, key -> new ArrayList<>()).add(AuditLogService.toDto(entry));
+            counts.merge(new RollupKey(day, entry.getFeatureName(), entry.getAction()), 1L, Long::sum);
+        }
+        for (Map.Entry<LocalDate, List<AuditLogDto>> day : days.entrySet()) {
+            store.write(day.getKey(), day.getValue());
+        }
+
+        AuditLog last = chunk.getLast();
+        Boolean archived = transactionTemplate.execute(status -> {
+            // The delete claims the chunk, so its rows are counted once across instances
+            if (auditLogRepository.deleteUpTo(last.getTimestamp(), last.getId()) != chunk.size()) {
+                status.setRollbackOnly();
+                return false;
+            }
+            counts.forEach((key, count) -> rollupRepository.increment(key.day(), key.featureName(), key.action().name(), count));
+            return true;
+        });
+        return Boolean.TRUE.equals(archived);
+    }
+
+    private AuditRollupDto toDto(AuditRollup rollup) {
+        return AuditRollupDto.builder()
+                .day(rollup.getDay())
+                .featureName(rollup.getFeatureName())
+                .action(rollup.getAction())
+                .count(rollup.getEntryCount())
+                .build();
+    }
+
+    private record RollupKey(LocalDate day, String featureName, AuditAction action) {
+    }
+}
@@ -0,0 +1,131 @@
+package io.raspiska.featuretoggle.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.raspiska.featuretoggle.dto.AuditLogDto;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archived audit entries on disk: one directory per UTC day ({@code 2026-03-01/}) holding
+ * gzipped NDJSON parts named after the id of their first entry. A part is written to a
+ * temporary file, synced and moved into place, so it is either complete or absent; archiving
+ * the same entries again after an interrupted run replaces the part instead of duplicating it.
+ */
+class AuditArchiveStore {
+
+    private static final String PART_PREFIX = "audit-";
+    private static final String PART_SUFFIX = ".ndjson.gz";
+
+    private final Path root;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+
+    AuditArchiveStore(Path root, ObjectMapper objectMapper) {
+        this.root = root;
+        this.writer = objectMapper.writerFor(AuditLogDto.class);
+        this.reader = objectMapper.readerFor(AuditLogDto.class);
+    }
+
+    void write(LocalDate day, List<AuditLogDto> entries) throws IOException {
+        Path directory = Files.createDirectories(root.resolve(day.toString()));
+        Path part = directory.resolve(PART_PREFIX + entries.getFirst().getId() + PART_SUFFIX);
+        Path temp = Files.createTempFile(directory, PART_PREFIX, ".tmp");
+        try {
+            try (FileOutputStream file = new FileOutputStream(temp.toFile());
+                 GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(file))) {
+                for (AuditLogDto entry : entries) {
+                    gzip.write(writer.writeValueAsBytes(entry));
+                    gzip.write('\n');
+                }
+                gzip.finish();
+                gzip.flush();
+                // The entries are deleted from the database next; the part must survive a crash
+                file.getFD().sync();
+            }
+            Files.move(temp, part, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads every archived entry of the days in {@code [from, to]}, oldest part first.
+     */
+    void read(LocalDate from, LocalDate to, Consumer<AuditLogDto> consumer) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        for (Path directory : list(root)) {
+            LocalDate day = dayOf(directory);
+            if (day == null || day.isBefore(from) || day.isAfter(to)) {
+                continue;
+            }
+            List<Path> parts = list(directory).stream()
+                    .filter(path -> partId(path) >= 0)
+                    .sorted(Comparator.comparingLong(AuditArchiveStore::partId))
+                    .toList();
+            for (Path part : parts) {
+                readPart(part, consumer);
+            }
+        }
+    }
+
+    private void readPart(Path part, Consumer<AuditLogDto> consumer) throws IOException {
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(part)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (!line.isBlank()) {
+                    consumer.accept(reader.readValue(line));
+                }
+            }
+        }
+    }
+
+    private static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.sorted().toList();
+        }
+    }
+
+    private static LocalDate dayOf(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(directory.getFileName().toString());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static long partId(Path part) {
+        String name = part.getFileName().toString();
+        if (!name.startsWith(PART_PREFIX) || !name.endsWith(PART_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(PART_PREFIX.length(), name.length() - PART_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
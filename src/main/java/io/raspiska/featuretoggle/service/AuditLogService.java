@@ -1,34 +1,48 @@
 package io.raspiska.featuretoggle.service;
 
 import io.raspiska.featuretoggle.dto.AuditLogDto;
+import io.raspiska.featuretoggle.dto.AuditLogSlice;
 import io.raspiska.featuretoggle.entity.AuditLog;
 import io.raspiska.featuretoggle.entity.AuditLog.AuditAction;
 import io.raspiska.featuretoggle.repository.AuditLogRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuditLogService {
 
+    static final int MAX_SCAN_SIZE = 1000;
+    // Upper bound when no `to` is given; later than any real entry
+    private static final Instant END_OF_TIME = Instant.parse("9999-12-31T23:59:59Z");
+
     private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
 
-    @Async
-    @Transactional
+    /**
+     * Queues the entry for the batched writer; it becomes visible to queries after the next flush.
+     */
     public void log(String featureName, AuditAction action, String actor, String details) {
         AuditLog auditLog = AuditLog.builder()
                 .featureName(featureName)
                 .action(action)
                 .actor(actor)
                 .details(details)
+                .timestamp(Instant.now())
                 .build();
-        auditLogRepository.save(auditLog);
+        auditLogWriter.write(auditLog);
         log.debug("Audit log: {} {} by {} - {}", action, featureName, actor, details);
     }
 
@@ -46,10 +60,48 @@ public class AuditLogService {
             logs = auditLogRepository.findAll(pageable);
         }
         
-        return logs.map(this::toDto);
+        return logs.map(AuditLogService::toDto);
     }
 
-    private AuditLogDto toDto(AuditLog log) {
+    /**
+     * Newest-first slice of the audit log within {@code [from, to)}, continuing after {@code cursor}.
+     * Positions are (timestamp, id) keys, so no count query or offset scan is needed.
+     */
+    @Transactional(readOnly = true)
+    public AuditLogSlice scanAuditLogs(String featureName, String actor, Instant from, Instant to,
+                                       String cursor, int size) {
+        int limit = Math.clamp(size, 1, MAX_SCAN_SIZE);
+        Instant lowerBound = from != null ? from : Instant.EPOCH;
+        Position position = cursor != null && !cursor.isBlank()
+                ? Position.decode(cursor)
+                // Before id 0 at `to` means strictly before `to`
+                : new Position(to != null ? to : END_OF_TIME, 0);
+        Limit rows = Limit.of(limit + 1);
+
+        List<AuditLog> logs;
+        if (featureName != null && actor != null) {
+            logs = auditLogRepository.findByFeatureNameAndActorBefore(featureName, actor, lowerBound,
+                    position.timestamp(), position.id(), rows);
+        } else if (featureName != null) {
+            logs = auditLogRepository.findByFeatureNameBefore(featureName, lowerBound,
+                    position.timestamp(), position.id(), rows);
+        } else if (actor != null) {
+            logs = auditLogRepository.findByActorBefore(actor, lowerBound,
+                    position.timestamp(), position.id(), rows);
+        } else {
+            logs = auditLogRepository.findBefore(lowerBound, position.timestamp(), position.id(), rows);
+        }
+
+        boolean hasMore = logs.size() > limit;
+        List<AuditLog> slice = hasMore ? logs.subList(0, limit) : logs;
+        AuditLog last = hasMore ? slice.getLast() : null;
+        return AuditLogSlice.builder()
+                .entries(slice.stream().map(AuditLogService::toDto).toList())
+                .nextCursor(last != null ? new Position(last.getTimestamp(), last.getId()).encode() : null)
+                .build();
+    }
+
+    static AuditLogDto toDto(AuditLog log) {
         return AuditLogDto.builder()
                 .id(log.getId())
                 .featureName(log.getFeatureName())
@@ -59,4 +111,25 @@ public class AuditLogService {
                 .timestamp(log.getTimestamp())
                 .build();
     }
+
+    private record Position(Instant timestamp, long id) {
+
+        String encode() {
+            String raw = timestamp.getEpochSecond() + ":" + timestamp.getNano() + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Position decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException(cursor);
+                }
+                return new Position(Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+                        Long.parseLong(parts[2]));
+            } catch (IllegalArgumentException | DateTimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+    }
 }
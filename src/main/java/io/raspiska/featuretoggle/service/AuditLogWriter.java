@@ -0,0 +1,142 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.entity.AuditLog;
+import io.raspiska.featuretoggle.repository.AuditLogRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for audit entries. Callers put entries on a bounded queue and a single
+ * writer thread inserts them in batches, one transaction per batch, so bursts of audited
+ * operations take SQLite's write lock once per batch instead of once per entry.
+ * <p>
+ * A batch is written when it reaches {@code batch-size} or {@code flush-interval-ms} after
+ * its first entry. When the queue is full callers wait up to {@code enqueue-timeout-ms},
+ * after which the entry is dropped and counted.
+ */
+@Slf4j
+@Component
+public class AuditLogWriter {
+
+    private final BlockingQueue<AuditLog> queue;
+    private final AuditLogRepository auditLogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MetricsService metricsService;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long enqueueTimeoutMs;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AuditLogWriter(AuditLogRepository auditLogRepository,
+                          TransactionTemplate transactionTemplate,
+                          ApplicationProperties properties,
+                          MetricsService metricsService) {
+        ApplicationProperties.Audit audit = properties.getAudit();
+        this.queue = new ArrayBlockingQueue<>(Math.max(audit.getQueueCapacity(), 1));
+        this.auditLogRepository = auditLogRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.metricsService = metricsService;
+        this.batchSize = Math.max(audit.getBatchSize(), 1);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(audit.getFlushIntervalMs(), 1));
+        this.enqueueTimeoutMs = Math.max(audit.getEnqueueTimeoutMs(), 0);
+        metricsService.registerGauge("feature_toggle_audit_queue_depth",
+                "Number of audit log entries waiting to be written", queue::size);
+        this.writer = Thread.ofVirtual().name("audit-writer").start(this::run);
+    }
+
+    public void write(AuditLog entry) {
+        if (!running) {
+            // Late entries during shutdown are written directly rather than lost
+            flush(List.of(entry));
+            return;
+        }
+        try {
+            if (queue.offer(entry, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        metricsService.recordAuditDropped(1);
+        log.warn("Audit queue full, dropped entry: {} {} by {}", entry.getAction(), entry.getFeatureName(), entry.getActor());
+    }
+
+    int queueSize() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            writer.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything the writer did not get to before the timeout
+        List<AuditLog> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            List<AuditLog> batch = new ArrayList<>(batchSize);
+            boolean interrupted = false;
+            try {
+                AuditLog first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    collect(batch, System.nanoTime() + flushIntervalNanos);
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+            }
+            if (interrupted) {
+                return;
+            }
+        }
+    }
+
+    private void collect(List<AuditLog> batch, long deadline) throws InterruptedException {
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            AuditLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<AuditLog> batch) {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> auditLogRepository.insertAll(batch));
+            metricsService.recordAuditFlush(batch.size(), System.nanoTime() - start);
+            log.debug("Wrote {} audit log entries", batch.size());
+        } catch (Exception e) {
+            metricsService.recordAuditDropped(batch.size());
+            log.error("Failed to write {} audit log entries", batch.size(), e);
+        }
+    }
+}
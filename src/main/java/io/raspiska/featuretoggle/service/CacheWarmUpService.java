@@ -0,0 +1,47 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.ApplicationProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills the caches before the instance takes traffic. Spring Boot only moves the readiness
+ * state to ACCEPTING_TRAFFIC after all application runners have completed, so the readiness
+ * probe keeps failing until the warm-up is done.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheWarmUpService implements ApplicationRunner {
+
+    private final FeatureToggleCacheService cacheService;
+    private final ApplicationProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        ApplicationProperties.WarmUp warmUp = properties.getCache().getWarmUp();
+        if (!warmUp.isEnabled()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            FeatureToggleCacheService.WarmUpResult result =
+                    cacheService.warmUp(warmUp.isLoadLists(), warmUp.getRedisBatchSize());
+            log.info("Cache warm-up loaded {} toggles and {} list entries in {} ms",
+                    result.toggles(), result.listEntries(), elapsedMillis(start));
+        } catch (Exception e) {
+            // Toggles are still loaded on first use, a failed warm-up must not keep the instance down
+            log.warn("Cache warm-up failed after {} ms", elapsedMillis(start), e);
+        }
+    }
+
+    private long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
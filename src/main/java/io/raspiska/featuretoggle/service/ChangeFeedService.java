@@ -0,0 +1,173 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.dto.ChangeFeedResponse;
+import io.raspiska.featuretoggle.dto.FeatureToggleChangeDto;
+import io.raspiska.featuretoggle.entity.FeatureToggle;
+import io.raspiska.featuretoggle.entity.FeatureToggleChange;
+import io.raspiska.featuretoggle.entity.FeatureToggleChange.ChangeType;
+import io.raspiska.featuretoggle.repository.FeatureToggleChangeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Change log of toggle mutations and the long-poll feed on top of it. Waiting requests are
+ * parked as {@link DeferredResult}s and completed when a change is announced through the
+ * cache invalidation path, or found by the periodic poll when no Redis is configured.
+ */
+@Slf4j
+@Service
+public class ChangeFeedService {
+
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean wakeScheduled = new AtomicBoolean();
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("change-feed-", 0).factory());
+    private final FeatureToggleChangeRepository changeRepository;
+    private final ApplicationProperties.Changes properties;
+
+    public ChangeFeedService(FeatureToggleChangeRepository changeRepository,
+                             FeatureToggleCacheService cacheService,
+                             ApplicationProperties properties,
+                             MetricsService metricsService) {
+        this.changeRepository = changeRepository;
+        this.properties = properties.getChanges();
+        cacheService.addChangeListener((featureName, version) -> scheduleWake());
+        metricsService.registerGauge("feature_toggle_change_feed_waiters",
+                "Number of parked change feed long-poll requests", waiters::size);
+    }
+
+    /**
+     * Appends to the change log. Must join the mutating transaction so the entry is committed
+     * together with the change, or not at all.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(FeatureToggle toggle, ChangeType changeType) {
+        // Flushed first so the toggle's version reflects this change
+        changeRepository.flush();
+        changeRepository.save(FeatureToggleChange.builder()
+                .featureName(toggle.getFeatureName())
+                .changeType(changeType)
+                .status(changeType == ChangeType.DELETED ? null : toggle.getStatus())
+                .toggleVersion(toggle.getVersion())
+                .build());
+    }
+
+    public DeferredResult<ChangeFeedResponse> getChanges(long since, Duration wait, int limit) {
+        Cursor cursor = new Cursor(since, Math.clamp(limit, 1, properties.getMaxLimit()));
+        Duration timeout = wait.isNegative() ? Duration.ZERO : min(wait, Duration.ofSeconds(properties.getMaxWaitSeconds()));
+        DeferredResult<ChangeFeedResponse> result =
+                new DeferredResult<>(timeout.toMillis(), () -> fetch(cursor));
+
+        ChangeFeedResponse changes = fetch(cursor);
+        if (!changes.getChanges().isEmpty() || timeout.isZero()) {
+            result.setResult(changes);
+            return result;
+        }
+
+        Waiter waiter = new Waiter(cursor, result);
+        waiters.add(waiter);
+        result.onCompletion(() -> waiters.remove(waiter));
+        // A change committed between the query and the registration would otherwise wait for the next one
+        if (changeRepository.findLatestVersion() > since) {
+            scheduleWake();
+        }
+        return result;
+    }
+
+    /**
+     * Safety net for changes made by instances this one does not hear about, e.g. without Redis.
+     */
+    @Scheduled(fixedDelayString = "${feature-toggle.changes.poll-interval-ms:1000}")
+    public void pollForChanges() {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        long latest = changeRepository.findLatestVersion();
+        if (waiters.stream().anyMatch(waiter -> waiter.cursor().since() < latest)) {
+            scheduleWake();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void scheduleWake() {
+        if (waiters.isEmpty() || !wakeScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            wakeScheduled.set(false);
+            try {
+                completeWaiters();
+            } catch (Exception e) {
+                log.warn("Failed to complete change feed waiters", e);
+            }
+        });
+    }
+
+    private void completeWaiters() {
+        // Clients that are in sync share a cursor, so this is usually a single query
+        Map<Cursor, List<Waiter>> byCursor = waiters.stream().collect(Collectors.groupingBy(Waiter::cursor));
+        byCursor.forEach((cursor, parked) -> {
+            ChangeFeedResponse changes = fetch(cursor);
+            if (!changes.getChanges().isEmpty()) {
+                parked.forEach(waiter -> waiter.result().setResult(changes));
+            }
+        });
+    }
+
+    private ChangeFeedResponse fetch(Cursor cursor) {
+        List<FeatureToggleChange> rows = changeRepository.findByIdGreaterThanOrderByIdAsc(
+                cursor.since(), Limit.of(cursor.limit() + 1));
+        boolean hasMore = rows.size() > cursor.limit();
+        List<FeatureToggleChangeDto> changes = rows.stream()
+                .limit(cursor.limit())
+                .map(this::toDto)
+                .toList();
+        return ChangeFeedResponse.builder()
+                .version(changes.isEmpty() ? cursor.since() : changes.getLast().getVersion())
+                .changes(changes)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private FeatureToggleChangeDto toDto(FeatureToggleChange change) {
+        return FeatureToggleChangeDto.builder()
+                .version(change.getId())
+                .featureName(change.getFeatureName())
+                .changeType(change.getChangeType())
+                .status(change.getStatus())
+                .toggleVersion(change.getToggleVersion())
+                .changedAt(change.getChangedAt())
+                .build();
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private record Cursor(long since, int limit) {
+    }
+
+    private record Waiter(Cursor cursor, DeferredResult<ChangeFeedResponse> result) {
+    }
+}
@@ -0,0 +1,35 @@
+package io.raspiska.featuretoggle.service;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.List;
+
+/**
+ * Publishes a list loaded from the database, written under a staging key, only if no
+ * mutation of the list was recorded since the load started.
+ */
+class CommitUserListScript {
+
+    private final DefaultRedisScript<Long> script;
+
+    CommitUserListScript() {
+        this.script = new DefaultRedisScript<>();
+        this.script.setLocation(new ClassPathResource("scripts/commit-user-list.lua"));
+        this.script.setResultType(Long.class);
+    }
+
+    /**
+     * Must not run inside a pipeline: only a direct call falls back to EVAL when Redis
+     * does not know the script yet, e.g. after a restart or SCRIPT FLUSH.
+     *
+     * @return whether the staged list was moved into place
+     */
+    boolean commit(RedisOperations<String, Object> operations, String key, String stagingKey, String versionKey,
+                   long version, boolean replace) {
+        // Numbers go through the JSON value serializer as plain digits, comparable to the INCR counter
+        Long committed = operations.execute(script, List.of(key, stagingKey, versionKey), version, replace ? 1L : 0L);
+        return committed != null && committed == 1L;
+    }
+}
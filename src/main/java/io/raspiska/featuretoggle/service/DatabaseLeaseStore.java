@@ -0,0 +1,40 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.repository.LeaderLeaseRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Lease in a {@code leader_leases} row, for deployments without Redis. Expiry is compared
+ * against each node's own clock, so clocks must agree to well within the lease time.
+ */
+class DatabaseLeaseStore implements LeaseStore {
+
+    private final LeaderLeaseRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final String name;
+
+    DatabaseLeaseStore(LeaderLeaseRepository repository, TransactionTemplate transactionTemplate, String name) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.name = name;
+    }
+
+    @Override
+    public boolean acquire(String holder, long leaseMs) {
+        long now = System.currentTimeMillis();
+        Integer rows = transactionTemplate.execute(status -> repository.acquire(name, holder, now + leaseMs, now));
+        return rows != null && rows > 0;
+    }
+
+    @Override
+    public boolean renew(String holder, long leaseMs) {
+        long expiresAt = System.currentTimeMillis() + leaseMs;
+        Integer rows = transactionTemplate.execute(status -> repository.renew(name, holder, expiresAt));
+        return rows != null && rows > 0;
+    }
+
+    @Override
+    public void release(String holder) {
+        transactionTemplate.executeWithoutResult(status -> repository.release(name, holder));
+    }
+}
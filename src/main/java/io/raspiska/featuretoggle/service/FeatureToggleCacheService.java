@@ -7,17 +7,43 @@ import io.raspiska.featuretoggle.entity.FeatureToggleUser.ListType;
 import io.raspiska.featuretoggle.entity.ToggleStatus;
 import io.raspiska.featuretoggle.repository.FeatureToggleRepository;
 import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository;
+import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository.UserIdRow;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -26,8 +52,43 @@ public class FeatureToggleCacheService {
     private static final String REDIS_KEY_PREFIX = "feature:toggle:";
     private static final String REDIS_WHITELIST_PREFIX = "feature:whitelist:";
     private static final String REDIS_BLACKLIST_PREFIX = "feature:blacklist:";
+    private static final int REDIS_LIST_CHUNK_SIZE = 1000;
+
+    private static final String REASON_NOT_FOUND = "Feature not found";
+    private static final String REASON_ENABLED = "Feature is enabled globally";
+    private static final String REASON_DISABLED = "Feature is disabled globally";
+    private static final String REASON_USER_ID_REQUIRED = "User ID required for list mode";
+    private static final String REASON_BLACKLISTED = "User is blacklisted";
+    private static final String REASON_WHITELISTED = "User is whitelisted";
+    private static final String REASON_NOT_WHITELISTED = "User not in whitelist";
+
+    // Member written last into every cached list set; a set is only authoritative once it holds it
+    static final String LIST_LOADED_MARKER = "\u0000loaded";
 
     private final Map<String, CachedToggle> localCache = new ConcurrentHashMap<>();
+    private final AtomicReference<ToggleSnapshot> snapshot = new AtomicReference<>(ToggleSnapshot.EMPTY);
+    private final Object snapshotLock = new Object();
+    private final NegativeCache negativeCache;
+    private final SingleFlight<String, CachedToggle> toggleLoads;
+    private final SingleFlight<String, Boolean> membershipLoads;
+    private final SingleFlight<String, Set<String>> listPopulations;
+    private final MembershipIndex membershipIndex;
+    private final ListModeScript listModeScript;
+    private final SaveToggleScript saveToggleScript;
+    private final AddListMembersScript addListMembersScript;
+    private final CommitUserListScript commitUserListScript;
+    // Highest toggle version announced by an invalidation, per feature; older values are never cached
+    private final Map<String, Long> invalidatedVersions = new ConcurrentHashMap<>();
+    // Bumped by wildcard invalidations so that loads started before one are not cached
+    private final AtomicLong invalidationEpoch = new AtomicLong();
+    private volatile boolean listScriptEnabled;
+    private volatile boolean pipelineScriptsLoaded;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final List<ToggleChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    // Tags published invalidations so this instance can skip its own, already applied changes
+    @Getter
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ExecutorService refreshExecutor;
     private final RedisTemplate<String, Object> redisTemplate;
     private final ChannelTopic featureToggleTopic;
     private final FeatureToggleRepository toggleRepository;
@@ -35,6 +96,11 @@ public class FeatureToggleCacheService {
     private final ApplicationProperties properties;
     private final MetricsService metricsService;
     private final boolean redisEnabled;
+    private final boolean snapshotEnabled;
+    private final boolean refreshAheadEnabled;
+    private final boolean membershipIndexEnabled;
+    private final long refreshAfterMillis;
+    private final long maxStaleMillis;
 
     public FeatureToggleCacheService(@Nullable RedisTemplate<String, Object> redisTemplate,
                                       @Nullable ChannelTopic featureToggleTopic,
@@ -49,122 +115,465 @@ public class FeatureToggleCacheService {
         this.properties = properties;
         this.metricsService = metricsService;
         this.redisEnabled = redisTemplate != null && featureToggleTopic != null;
+        this.snapshotEnabled = properties.getCache().getSnapshot().isEnabled();
+        this.negativeCache = new NegativeCache(
+                properties.getCache().getNegative().getMaxSize(),
+                properties.getCache().getNegative().getTtlSeconds());
+        ApplicationProperties.RefreshAhead refreshAhead = properties.getCache().getRefreshAhead();
+        this.refreshAheadEnabled = refreshAhead.isEnabled();
+        this.refreshAfterMillis = (long) (properties.getCache().getTtlSeconds() * 1000 * refreshAhead.getFraction());
+        this.maxStaleMillis = refreshAhead.getMaxStaleSeconds() * 1000;
+        this.refreshExecutor = refreshAheadEnabled
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("toggle-refresh-", 0).factory())
+                : null;
+        this.toggleLoads = new SingleFlight<>(() -> metricsService.recordCoalescedLoad("toggle"));
+        this.membershipLoads = new SingleFlight<>(() -> metricsService.recordCoalescedLoad("membership"));
+        this.listPopulations = new SingleFlight<>(() -> metricsService.recordCoalescedLoad("membership"));
+        this.membershipIndexEnabled = properties.getCache().getMembershipIndex().isEnabled();
+        this.membershipIndex = new MembershipIndex(properties.getCache().getMembershipIndex().getTtlSeconds(),
+                () -> metricsService.recordCoalescedLoad("membership"));
+        this.listModeScript = new ListModeScript();
+        this.saveToggleScript = new SaveToggleScript();
+        this.addListMembersScript = new AddListMembersScript();
+        this.commitUserListScript = new CommitUserListScript();
+        this.listScriptEnabled = redisEnabled && properties.getCache().getListScript().isEnabled();
+        metricsService.registerGauge("feature_toggle_membership_index_features",
+                "Number of features whose whitelist/blacklist is held in memory", membershipIndex::size);
+        metricsService.registerGauge("feature_toggle_negative_cache_size",
+                "Number of unknown feature names held in the negative cache", negativeCache::size);
         
         if (!redisEnabled) {
             log.info("Redis is disabled, using local cache only");
         }
+        if (snapshotEnabled) {
+            log.info("Snapshot mode is enabled, toggle checks are served from an in-memory snapshot");
+            metricsService.registerGauge("feature_toggle_snapshot_version",
+                    "Version of the in-memory toggle snapshot", () -> snapshot.get().version());
+            metricsService.registerGauge("feature_toggle_snapshot_size",
+                    "Number of toggles held in the in-memory snapshot", () -> snapshot.get().toggles().size());
+        }
     }
 
     public FeatureCheckResponse checkFeature(String featureName, String userId) {
-        return metricsService.timeFeatureCheck(() -> {
-            CachedToggle cached = getFromCache(featureName);
-            
-            if (cached == null) {
-                metricsService.recordFeatureCheck(featureName, false);
-                return FeatureCheckResponse.builder()
-                        .featureName(featureName)
-                        .enabled(false)
-                        .status(null)
-                        .reason("Feature not found")
-                        .build();
-            }
-
-            FeatureCheckResponse response = evaluateToggle(cached, userId);
+        long start = System.nanoTime();
+        FeatureCheckResponse response = evaluate(featureName, userId);
+        metricsService.recordFeatureCheck(featureName, response.isEnabled());
+        metricsService.recordFeatureCheckDuration(System.nanoTime() - start);
+        return response;
+    }
+
+    /**
+     * Checks several features for one user. Local tiers are consulted for all names first,
+     * the remaining misses are read from Redis in one pipeline and whatever is still missing
+     * is loaded from the database with a single query.
+     */
+    public Map<String, FeatureCheckResponse> checkFeatures(Collection<String> featureNames, String userId) {
+        long start = System.nanoTime();
+        Map<String, CachedToggle> resolved = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String featureName : featureNames) {
+            if (resolved.containsKey(featureName)) {
+                continue;
+            }
+            CachedToggle cached = getFromLocalTiers(featureName);
+            resolved.put(featureName, cached);
+            if (cached == null && !isKnownMissing(featureName)) {
+                misses.add(featureName);
+            }
+        }
+        if (!misses.isEmpty()) {
+            loadToggles(misses).forEach(resolved::put);
+        }
+
+        Map<String, FeatureCheckResponse> responses = new LinkedHashMap<>();
+        resolved.forEach((featureName, cached) -> {
+            FeatureCheckResponse response = cached == null ? notFound(featureName) : evaluateToggle(cached, userId);
             metricsService.recordFeatureCheck(featureName, response.isEnabled());
-            return response;
+            responses.put(featureName, response);
         });
+        // Own timer, one sample per batch would skew the single check latency
+        metricsService.recordBatchCheckDuration(System.nanoTime() - start);
+        return responses;
     }
 
-    private FeatureCheckResponse evaluateToggle(CachedToggle cached, String userId) {
-        ToggleStatus status = cached.status();
-        String featureName = cached.featureName();
+    private CachedToggle getFromLocalTiers(String featureName) {
+        if (snapshotEnabled) {
+            ToggleSnapshot current = snapshot.get();
+            if (current.loaded()) {
+                metricsService.recordCacheHit();
+                return current.toggles().get(featureName);
+            }
+        }
+        CachedToggle localCached = localCache.get(featureName);
+        if (localCached != null && isServable(localCached)) {
+            metricsService.recordCacheHit();
+            return localCached;
+        }
+        return null;
+    }
 
-        return switch (status) {
-            case ENABLED -> FeatureCheckResponse.builder()
-                    .featureName(featureName)
-                    .enabled(true)
-                    .status(status)
-                    .reason("Feature is enabled globally")
-                    .build();
+    private boolean isKnownMissing(String featureName) {
+        if (snapshotEnabled && snapshot.get().loaded()) {
+            return true;
+        }
+        if (negativeCache.contains(featureName)) {
+            metricsService.recordNegativeCacheHit();
+            return true;
+        }
+        return false;
+    }
 
-            case DISABLED -> FeatureCheckResponse.builder()
-                    .featureName(featureName)
-                    .enabled(false)
-                    .status(status)
-                    .reason("Feature is disabled globally")
-                    .build();
+    private Map<String, CachedToggle> loadToggles(List<String> featureNames) {
+        long epoch = invalidationEpoch.get();
+        Map<String, Long> minVersions = new HashMap<>();
+        featureNames.forEach(featureName -> minVersions.put(featureName, invalidatedVersion(featureName)));
 
-            case LIST_MODE -> evaluateListMode(cached, userId);
-        };
+        Map<String, CachedToggle> loaded = new HashMap<>();
+        List<String> dbMisses = new ArrayList<>();
+        Map<String, CachedToggle> redisCached = getFromRedisPipelined(featureNames);
+        for (String featureName : featureNames) {
+            CachedToggle cached = redisCached.get(featureName);
+            if (cached != null && cached.version() >= minVersions.get(featureName)) {
+                metricsService.recordCacheHit();
+                cacheLocally(cached, epoch);
+                loaded.put(featureName, cached);
+            } else {
+                metricsService.recordCacheMiss();
+                dbMisses.add(featureName);
+            }
+        }
+        if (dbMisses.isEmpty()) {
+            return loaded;
+        }
+
+        List<CachedToggle> dbToggles = toggleRepository.findByFeatureNameIn(dbMisses).stream()
+                .map(this::toCachedToggle)
+                .toList();
+        for (CachedToggle toggle : dbToggles) {
+            cacheLocally(toggle, epoch);
+            loaded.put(toggle.featureName(), toggle);
+        }
+        if (redisEnabled && !dbToggles.isEmpty()) {
+            writeToRedisPipelined(dbToggles, Map.of(), properties.getCache().getWarmUp().getRedisBatchSize());
+        }
+        for (String featureName : dbMisses) {
+            if (!loaded.containsKey(featureName)) {
+                cacheMissing(featureName, epoch, minVersions.get(featureName));
+            }
+        }
+        return loaded;
     }
 
-    private FeatureCheckResponse evaluateListMode(CachedToggle cached, String userId) {
-        String featureName = cached.featureName();
+    /**
+     * Evaluates every toggle for one user against the in-memory snapshot, which is loaded on
+     * first use even when snapshot mode is off. With Redis, the ETag combines the snapshot
+     * fingerprint with the versions of the LIST_MODE lists, read in one MGET, so a matching
+     * {@code If-None-Match} is answered without any membership lookup. Without Redis there are
+     * no list versions and the ETag falls back to the user's LIST_MODE outcomes.
+     */
+    public UserFlags getUserFlags(String userId) {
+        ToggleSnapshot current = loadedSnapshot();
+        List<CachedToggle> listModeToggles = current.toggles().values().stream()
+                .filter(toggle -> toggle.status() == ToggleStatus.LIST_MODE)
+                .toList();
+        Long listVersionHash = hashListVersions(listModeToggles);
+        if (listVersionHash != null) {
+            String etag = String.format("%016x%016x", current.fingerprint(),
+                    listVersionHash + ToggleSnapshot.hash(userId));
+            return new UserFlags(etag, () -> evaluateFlags(current, userId));
+        }
 
-        if (userId == null || userId.isBlank()) {
-            return FeatureCheckResponse.builder()
-                    .featureName(featureName)
-                    .enabled(false)
-                    .status(ToggleStatus.LIST_MODE)
-                    .reason("User ID required for list mode")
-                    .build();
+        Map<String, Boolean> flags = evaluateFlags(current, userId);
+        long membershipHash = 0;
+        for (CachedToggle toggle : listModeToggles) {
+            if (flags.get(toggle.featureName())) {
+                membershipHash += ToggleSnapshot.hash(toggle.featureName());
+            }
         }
+        String etag = String.format("%016x%016x", current.fingerprint(), membershipHash);
+        return new UserFlags(etag, () -> flags);
+    }
 
-        boolean isWhitelisted = isUserInList(featureName, userId, ListType.WHITELIST);
-        boolean isBlacklisted = isUserInList(featureName, userId, ListType.BLACKLIST);
+    private Map<String, Boolean> evaluateFlags(ToggleSnapshot current, String userId) {
+        Map<String, Boolean> flags = new TreeMap<>();
+        current.toggles().forEach((featureName, toggle) -> flags.put(featureName,
+                toggle.status() == ToggleStatus.LIST_MODE
+                        ? evaluateListMode(toggle, userId).isEnabled()
+                        : toggle.status() == ToggleStatus.ENABLED));
+        return flags;
+    }
 
-        if (isBlacklisted) {
-            return FeatureCheckResponse.builder()
-                    .featureName(featureName)
-                    .enabled(false)
-                    .status(ToggleStatus.LIST_MODE)
-                    .reason("User is blacklisted")
-                    .build();
+    /**
+     * Sums a hash of every list's mutation counter; {@code null} when the counters cannot be read.
+     */
+    private Long hashListVersions(List<CachedToggle> listModeToggles) {
+        if (!redisEnabled) {
+            return null;
+        }
+        if (listModeToggles.isEmpty()) {
+            return 0L;
+        }
+        List<String> versionKeys = new ArrayList<>(listModeToggles.size() * 2);
+        for (CachedToggle toggle : listModeToggles) {
+            versionKeys.add(listVersionKey(userListKey(toggle.featureName(), ListType.WHITELIST)));
+            versionKeys.add(listVersionKey(userListKey(toggle.featureName(), ListType.BLACKLIST)));
+        }
+        try {
+            List<Object> versions = redisTemplate.opsForValue().multiGet(versionKeys);
+            if (versions == null || versions.size() != versionKeys.size()) {
+                return null;
+            }
+            long hash = 0;
+            for (int i = 0; i < versionKeys.size(); i++) {
+                long version = versions.get(i) instanceof Number number ? number.longValue() : 0L;
+                hash += ToggleSnapshot.hash(versionKeys.get(i) + "@" + version);
+            }
+            return hash;
+        } catch (Exception e) {
+            log.warn("Failed to read user list versions", e);
+            return null;
         }
+    }
 
-        if (isWhitelisted) {
-            return FeatureCheckResponse.builder()
-                    .featureName(featureName)
-                    .enabled(true)
-                    .status(ToggleStatus.LIST_MODE)
-                    .reason("User is whitelisted")
-                    .build();
+    private FeatureCheckResponse evaluate(String featureName, String userId) {
+        if (listScriptEnabled && userId != null && !userId.isBlank() && !isCachedLocally(featureName)) {
+            FeatureCheckResponse response = evaluateInRedis(featureName, userId);
+            if (response != null) {
+                return response;
+            }
         }
 
+        CachedToggle cached = getFromCache(featureName);
+        if (cached == null) {
+            return notFound(featureName);
+        }
+        return evaluateToggle(cached, userId);
+    }
+
+    private static FeatureCheckResponse notFound(String featureName) {
         return FeatureCheckResponse.builder()
                 .featureName(featureName)
                 .enabled(false)
-                .status(ToggleStatus.LIST_MODE)
-                .reason("User not in whitelist")
+                .status(null)
+                .reason(REASON_NOT_FOUND)
                 .build();
     }
 
+    private FeatureCheckResponse evaluateToggle(CachedToggle cached, String userId) {
+        return switch (cached.status()) {
+            case ENABLED, DISABLED -> cached.responses().global();
+            case LIST_MODE -> evaluateListMode(cached, userId);
+        };
+    }
+
+    private FeatureCheckResponse evaluateListMode(CachedToggle cached, String userId) {
+        if (userId == null || userId.isBlank()) {
+            return cached.responses().userIdRequired();
+        }
+
+        String featureName = cached.featureName();
+        boolean isWhitelisted;
+        boolean isBlacklisted;
+        if (membershipIndexEnabled) {
+            MembershipIndex.Lists lists = membershipIndex.get(featureName, () -> loadLists(cached));
+            isWhitelisted = lists.contains(ListType.WHITELIST, userId);
+            isBlacklisted = lists.contains(ListType.BLACKLIST, userId);
+        } else {
+            isWhitelisted = isUserInList(featureName, userId, ListType.WHITELIST);
+            isBlacklisted = isUserInList(featureName, userId, ListType.BLACKLIST);
+        }
+
+        if (isBlacklisted) {
+            return cached.responses().blacklisted();
+        }
+        return isWhitelisted ? cached.responses().whitelisted() : cached.responses().notWhitelisted();
+    }
+
+    private boolean isCachedLocally(String featureName) {
+        if (snapshotEnabled && snapshot.get().loaded()) {
+            return true;
+        }
+        CachedToggle localCached = localCache.get(featureName);
+        return (localCached != null && isServable(localCached)) || negativeCache.contains(featureName);
+    }
+
+    /**
+     * Evaluates the check with a single script call when the local tier misses. The status
+     * it reports is kept in the local cache; {@code null} means the regular path has to answer.
+     */
+    private FeatureCheckResponse evaluateInRedis(String featureName, String userId) {
+        long epoch = invalidationEpoch.get();
+        ListModeScript.Result result;
+        try {
+            result = listModeScript.evaluate(redisTemplate, REDIS_KEY_PREFIX + featureName,
+                    userListKey(featureName, ListType.BLACKLIST), userListKey(featureName, ListType.WHITELIST),
+                    userId, LIST_LOADED_MARKER);
+        } catch (Exception e) {
+            if (String.valueOf(e.getMessage()).contains("CROSSSLOT")) {
+                // Toggle and list keys hash to different slots on Redis Cluster
+                listScriptEnabled = false;
+                log.warn("Disabling list mode script, keys of a feature are not in the same cluster slot");
+            } else {
+                log.warn("Failed to evaluate toggle in Redis: {}", featureName, e);
+            }
+            return null;
+        }
+
+        ListModeScript.Decision decision = result.decision();
+        if (decision == ListModeScript.Decision.NOT_CACHED || result.version() < invalidatedVersion(featureName)) {
+            return null;
+        }
+        metricsService.recordCacheHit();
+        CachedToggle cached = CachedToggle.of(featureName, null, decision.status(), result.version());
+        cacheLocally(cached, epoch);
+
+        return switch (decision) {
+            case ENABLED, DISABLED -> cached.responses().global();
+            case BLACKLISTED -> cached.responses().blacklisted();
+            case WHITELISTED -> cached.responses().whitelisted();
+            case NOT_WHITELISTED -> cached.responses().notWhitelisted();
+            case NOT_CACHED, LISTS_NOT_LOADED -> null;
+        };
+    }
+
+    private MembershipIndex.Lists loadLists(CachedToggle cached) {
+        return MembershipIndex.Lists.of(
+                loadUserIds(cached, ListType.WHITELIST),
+                loadUserIds(cached, ListType.BLACKLIST));
+    }
+
+    private Set<String> loadUserIds(CachedToggle cached, ListType listType) {
+        Long listVersion = readListVersion(cached.featureName(), listType);
+        Set<String> userIds = cached.id() != null
+                ? userRepository.findUserIdsByFeatureIdAndListType(cached.id(), listType)
+                : userRepository.findUserIdsByFeatureNameAndListType(cached.featureName(), listType);
+        cacheUserListIfUnchanged(cached.featureName(), listType, userIds, listVersion);
+        return userIds;
+    }
+
     private boolean isUserInList(String featureName, String userId, ListType listType) {
-        if (redisEnabled) {
-            String redisKey = (listType == ListType.WHITELIST ? REDIS_WHITELIST_PREFIX : REDIS_BLACKLIST_PREFIX) + featureName;
-            try {
-                Boolean isMember = redisTemplate.opsForSet().isMember(redisKey, userId);
-                if (isMember != null && isMember) {
-                    return true;
-                }
-            } catch (Exception e) {
-                log.warn("Failed to check user in Redis: {}", featureName, e);
+        return membershipLoads.load(featureName + ":" + listType + ":" + userId,
+                () -> loadMembership(featureName, userId, listType));
+    }
+
+    private boolean loadMembership(String featureName, String userId, ListType listType) {
+        if (!redisEnabled) {
+            return userRepository.existsByFeatureNameAndUserIdAndListType(featureName, userId, listType);
+        }
+        Boolean isMember = isMemberInRedis(featureName, userId, listType);
+        if (isMember != null) {
+            return isMember;
+        }
+        return listPopulations.load(featureName + ":" + listType, () -> populateUserList(featureName, listType))
+                .contains(userId);
+    }
+
+    /**
+     * Checks the user and the loaded marker with a single SMISMEMBER. Returns {@code null}
+     * when the set has not been fully loaded, in which case Redis cannot answer for non-members.
+     */
+    private Boolean isMemberInRedis(String featureName, String userId, ListType listType) {
+        try {
+            Map<Object, Boolean> members = redisTemplate.opsForSet()
+                    .isMember(userListKey(featureName, listType), userId, LIST_LOADED_MARKER);
+            if (members == null) {
+                return null;
+            }
+            if (Boolean.TRUE.equals(members.get(userId))) {
+                return true;
             }
+            return Boolean.TRUE.equals(members.get(LIST_LOADED_MARKER)) ? false : null;
+        } catch (Exception e) {
+            log.warn("Failed to check user in Redis: {}", featureName, e);
+            return null;
         }
-        return userRepository.existsByFeatureNameAndUserIdAndListType(featureName, userId, listType);
+    }
+
+    private Set<String> populateUserList(String featureName, ListType listType) {
+        Long listVersion = readListVersion(featureName, listType);
+        Set<String> userIds = userRepository.findUserIdsByFeatureNameAndListType(featureName, listType);
+        cacheUserListIfUnchanged(featureName, listType, userIds, listVersion);
+        return userIds;
     }
 
     private CachedToggle getFromCache(String featureName) {
+        if (snapshotEnabled) {
+            ToggleSnapshot current = snapshot.get();
+            if (current.loaded()) {
+                metricsService.recordCacheHit();
+                return current.toggles().get(featureName);
+            }
+        }
+
         CachedToggle localCached = localCache.get(featureName);
-        if (localCached != null && !localCached.isExpired(properties.getCache().getTtlSeconds())) {
+        if (localCached != null && isServable(localCached)) {
             metricsService.recordCacheHit();
             return localCached;
         }
 
+        if (negativeCache.contains(featureName)) {
+            metricsService.recordNegativeCacheHit();
+            return null;
+        }
+
+        return toggleLoads.load(featureName, () -> loadToggle(featureName));
+    }
+
+    /**
+     * With refresh-ahead enabled an entry stays servable up to the max-staleness bound;
+     * once it passes the refresh fraction of the TTL a single background reload is
+     * scheduled and the current value is returned meanwhile.
+     */
+    private boolean isServable(CachedToggle cached) {
+        if (!refreshAheadEnabled) {
+            return !cached.isExpired(properties.getCache().getTtlSeconds());
+        }
+        long age = System.currentTimeMillis() - cached.cachedAt();
+        if (age > maxStaleMillis) {
+            return false;
+        }
+        if (age > refreshAfterMillis) {
+            scheduleRefresh(cached.featureName());
+        }
+        return true;
+    }
+
+    private void scheduleRefresh(String featureName) {
+        if (!refreshing.add(featureName)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    toggleLoads.load(featureName, () -> fetchToggle(featureName));
+                } catch (Exception e) {
+                    log.warn("Failed to refresh toggle in background: {}", featureName, e);
+                } finally {
+                    refreshing.remove(featureName);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.remove(featureName);
+            log.warn("Failed to schedule background refresh: {}", featureName, e);
+        }
+    }
+
+    private CachedToggle loadToggle(String featureName) {
+        CachedToggle localCached = localCache.get(featureName);
+        if (localCached != null && isServable(localCached)) {
+            return localCached;
+        }
+        return fetchToggle(featureName);
+    }
+
+    private CachedToggle fetchToggle(String featureName) {
+        long epoch = invalidationEpoch.get();
+        long minVersion = invalidatedVersion(featureName);
         CachedToggle redisCached = getFromRedis(featureName);
-        if (redisCached != null) {
+        // Redis can still hold the value from before an invalidation this node already received
+        if (redisCached != null && redisCached.version() >= minVersion) {
             metricsService.recordCacheHit();
-            localCache.put(featureName, redisCached);
+            cacheLocally(redisCached, epoch);
             return redisCached;
         }
 
@@ -172,36 +581,223 @@ public class FeatureToggleCacheService {
         CachedToggle dbToggle = loadFromDatabase(featureName);
         if (dbToggle != null) {
             saveToRedis(dbToggle);
-            localCache.put(featureName, dbToggle);
+            cacheLocally(dbToggle, epoch);
+        } else {
+            cacheMissing(featureName, epoch, minVersion);
         }
         return dbToggle;
     }
 
-    @SuppressWarnings("unchecked")
+    private void cacheMissing(String featureName, long epochAtLoad, long minVersion) {
+        localCache.remove(featureName);
+        metricsService.recordNegativeCacheMiss();
+        negativeCache.put(featureName);
+        // Checked after the insert: an invalidation removes the entry after bumping the version
+        if (epochAtLoad != invalidationEpoch.get() || minVersion != invalidatedVersion(featureName)) {
+            negativeCache.remove(featureName);
+        }
+    }
+
+    /**
+     * Compare-and-set insert into the local cache. A loaded value is dropped when it is older
+     * than the cached one or than the last invalidation for the feature, or when a wildcard
+     * invalidation arrived since the load started.
+     */
+    private void cacheLocally(CachedToggle toggle, long epochAtLoad) {
+        localCache.compute(toggle.featureName(), (featureName, current) -> {
+            if (epochAtLoad != invalidationEpoch.get() || toggle.version() < invalidatedVersion(featureName)) {
+                return current;
+            }
+            return current == null || current.version() <= toggle.version() ? toggle : current;
+        });
+    }
+
+    private long invalidatedVersion(String featureName) {
+        return invalidatedVersions.getOrDefault(featureName, 0L);
+    }
+
     private CachedToggle getFromRedis(String featureName) {
         if (!redisEnabled) {
             return null;
         }
         try {
-            Map<Object, Object> data = redisTemplate.opsForHash().entries(REDIS_KEY_PREFIX + featureName);
-            if (data.isEmpty()) {
-                return null;
-            }
-            return new CachedToggle(
-                    featureName,
-                    ToggleStatus.valueOf((String) data.get("status")),
-                    System.currentTimeMillis()
-            );
+            return toCachedToggle(featureName, redisTemplate.opsForHash().entries(REDIS_KEY_PREFIX + featureName));
         } catch (Exception e) {
             log.warn("Failed to get toggle from Redis: {}", featureName, e);
             return null;
         }
     }
 
+    private Map<String, CachedToggle> getFromRedisPipelined(List<String> featureNames) {
+        if (!redisEnabled) {
+            return Map.of();
+        }
+        try {
+            List<Object> replies = redisTemplate.executePipelined(pipelined(operations ->
+                    featureNames.forEach(featureName -> operations.opsForHash().entries(REDIS_KEY_PREFIX + featureName))));
+            Map<String, CachedToggle> toggles = new HashMap<>();
+            for (int i = 0; i < featureNames.size() && i < replies.size(); i++) {
+                if (replies.get(i) instanceof Map<?, ?> data) {
+                    CachedToggle toggle = toCachedToggle(featureNames.get(i), data);
+                    if (toggle != null) {
+                        toggles.put(toggle.featureName(), toggle);
+                    }
+                }
+            }
+            return toggles;
+        } catch (Exception e) {
+            log.warn("Failed to get toggles from Redis: {}", featureNames, e);
+            return Map.of();
+        }
+    }
+
+    private static CachedToggle toCachedToggle(String featureName, Map<?, ?> data) {
+        if (data == null || data.isEmpty()) {
+            return null;
+        }
+        Object id = data.get("id");
+        Object version = data.get("version");
+        return CachedToggle.of(
+                featureName,
+                id instanceof Number number ? number.longValue() : null,
+                ToggleStatus.valueOf((String) data.get("status")),
+                version instanceof Number versionNumber ? versionNumber.longValue() : 0
+        );
+    }
+
     private CachedToggle loadFromDatabase(String featureName) {
         Optional<FeatureToggle> toggle = toggleRepository.findByFeatureName(featureName);
-        return toggle.map(t -> new CachedToggle(t.getFeatureName(), t.getStatus(), System.currentTimeMillis()))
-                .orElse(null);
+        return toggle.map(this::toCachedToggle).orElse(null);
+    }
+
+    private CachedToggle toCachedToggle(FeatureToggle toggle) {
+        return CachedToggle.of(toggle.getFeatureName(), toggle.getId(), toggle.getStatus(), toggle.getVersion());
+    }
+
+    /**
+     * Loads every toggle into the local tier and writes them to Redis in pipelined batches.
+     * With {@code loadLists} the whitelist/blacklist of LIST_MODE toggles are loaded as well.
+     */
+    public WarmUpResult warmUp(boolean loadLists, int redisBatchSize) {
+        long epoch = invalidationEpoch.get();
+        List<CachedToggle> toggles = toggleRepository.findAll().stream()
+                .map(this::toCachedToggle)
+                .toList();
+        for (CachedToggle toggle : toggles) {
+            cacheLocally(toggle, epoch);
+            negativeCache.remove(toggle.featureName());
+        }
+        if (snapshotEnabled) {
+            reloadSnapshot();
+        }
+
+        Map<String, LoadedList> userLists = new HashMap<>();
+        int listEntries = 0;
+        if (loadLists) {
+            for (CachedToggle toggle : toggles) {
+                if (toggle.status() != ToggleStatus.LIST_MODE) {
+                    continue;
+                }
+                Long whitelistVersion = readListVersion(toggle.featureName(), ListType.WHITELIST);
+                Long blacklistVersion = readListVersion(toggle.featureName(), ListType.BLACKLIST);
+                Set<String> whitelist = userRepository.findUserIdsByFeatureIdAndListType(toggle.id(), ListType.WHITELIST);
+                Set<String> blacklist = userRepository.findUserIdsByFeatureIdAndListType(toggle.id(), ListType.BLACKLIST);
+                if (membershipIndexEnabled) {
+                    membershipIndex.get(toggle.featureName(), () -> MembershipIndex.Lists.of(whitelist, blacklist));
+                }
+                userLists.put(userListKey(toggle.featureName(), ListType.WHITELIST), new LoadedList(whitelist, whitelistVersion));
+                userLists.put(userListKey(toggle.featureName(), ListType.BLACKLIST), new LoadedList(blacklist, blacklistVersion));
+                listEntries += whitelist.size() + blacklist.size();
+            }
+        }
+
+        if (redisEnabled) {
+            try {
+                loadPipelineScripts();
+            } catch (Exception e) {
+                log.warn("Failed to load scripts into Redis before warm-up", e);
+            }
+            writeToRedisPipelined(toggles, userLists, redisBatchSize);
+        }
+        return new WarmUpResult(toggles.size(), listEntries);
+    }
+
+    /**
+     * Every batch is written on its own, a failed batch is logged and the remaining ones
+     * are still written; whatever is missing is loaded into Redis on first use.
+     */
+    private void writeToRedisPipelined(List<CachedToggle> toggles, Map<String, LoadedList> userLists, int batchSize) {
+        for (int from = 0; from < toggles.size(); from += batchSize) {
+            List<CachedToggle> batch = toggles.subList(from, Math.min(from + batchSize, toggles.size()));
+            try {
+                executeScriptsPipelined(operations -> batch.forEach(toggle -> writeToggle(operations, toggle)));
+            } catch (Exception e) {
+                log.warn("Failed to write {} toggles to Redis", batch.size(), e);
+            }
+        }
+        // One pipeline per list plus its commit, large lists are already split into chunked SADDs
+        for (Map.Entry<String, LoadedList> userList : userLists.entrySet()) {
+            LoadedList loaded = userList.getValue();
+            if (loaded.version() == null) {
+                continue;
+            }
+            try {
+                writeUserListIfUnchanged(userList.getKey(), loaded.userIds(), loaded.version(), true);
+            } catch (Exception e) {
+                log.warn("Failed to write user list to Redis: {}", userList.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * Replaces the whole snapshot with the current contents of the toggle table.
+     * Incremental updates keep the snapshot current, so this only acts as a safety net
+     * against missed invalidation messages.
+     */
+    @Scheduled(fixedDelayString = "${feature-toggle.cache.snapshot.full-reload-seconds:300}", timeUnit = TimeUnit.SECONDS)
+    public void reloadSnapshot() {
+        // Also kept current once loaded on demand for user flag evaluation
+        if (!snapshotEnabled && !snapshot.get().loaded()) {
+            return;
+        }
+        loadSnapshot();
+    }
+
+    private ToggleSnapshot loadedSnapshot() {
+        ToggleSnapshot current = snapshot.get();
+        if (current.loaded()) {
+            return current;
+        }
+        synchronized (snapshotLock) {
+            ToggleSnapshot latest = snapshot.get();
+            return latest.loaded() ? latest : loadSnapshot();
+        }
+    }
+
+    private ToggleSnapshot loadSnapshot() {
+        synchronized (snapshotLock) {
+            Map<String, CachedToggle> toggles = new HashMap<>();
+            for (FeatureToggle toggle : toggleRepository.findAll()) {
+                toggles.put(toggle.getFeatureName(), toCachedToggle(toggle));
+            }
+            ToggleSnapshot next = snapshot.get().replaceAll(toggles);
+            snapshot.set(next);
+            log.info("Reloaded toggle snapshot version {} with {} toggles", next.version(), toggles.size());
+            return next;
+        }
+    }
+
+    private void refreshSnapshotEntry(String featureName, long version) {
+        synchronized (snapshotLock) {
+            ToggleSnapshot current = snapshot.get();
+            CachedToggle entry = current.toggles().get(featureName);
+            if (!current.loaded() || (entry != null && entry.version() >= version)) {
+                return;
+            }
+            ToggleSnapshot next = current.with(featureName, loadFromDatabase(featureName));
+            snapshot.set(next);
+            log.debug("Updated toggle snapshot to version {} for: {}", next.version(), featureName);
+        }
     }
 
     private void saveToRedis(CachedToggle toggle) {
@@ -209,61 +805,405 @@ public class FeatureToggleCacheService {
             return;
         }
         try {
-            String key = REDIS_KEY_PREFIX + toggle.featureName();
-            redisTemplate.opsForHash().put(key, "status", toggle.status().name());
-            redisTemplate.expire(key, 1, TimeUnit.HOURS);
+            writeToggle(redisTemplate, toggle);
         } catch (Exception e) {
             log.warn("Failed to save toggle to Redis: {}", toggle.featureName(), e);
         }
     }
 
-    public void cacheUserList(String featureName, Set<String> userIds, ListType listType) {
+    private void writeToggle(RedisOperations<String, Object> operations, CachedToggle toggle) {
+        if (toggle.id() == null) {
+            return;
+        }
+        saveToggleScript.save(operations, REDIS_KEY_PREFIX + toggle.featureName(), toggle.status().name(),
+                toggle.id(), toggle.version(), TimeUnit.HOURS.toSeconds(1));
+    }
+
+    /**
+     * Reads the mutation counter of a cached list. It has to be read before the list is
+     * loaded from the database; {@code null} means the loaded list must not be cached.
+     */
+    private Long readListVersion(String featureName, ListType listType) {
         if (!redisEnabled) {
+            return null;
+        }
+        try {
+            Object version = redisTemplate.opsForValue().get(listVersionKey(userListKey(featureName, listType)));
+            return version instanceof Number number ? number.longValue() : 0L;
+        } catch (Exception e) {
+            log.warn("Failed to read user list version for feature: {}", featureName, e);
+            return null;
+        }
+    }
+
+    private void cacheUserListIfUnchanged(String featureName, ListType listType, Set<String> userIds, Long version) {
+        if (!redisEnabled || version == null) {
             return;
         }
-        String redisKey = (listType == ListType.WHITELIST ? REDIS_WHITELIST_PREFIX : REDIS_BLACKLIST_PREFIX) + featureName;
+        String redisKey = userListKey(featureName, listType);
         try {
-            if (!userIds.isEmpty()) {
-                redisTemplate.opsForSet().add(redisKey, userIds.toArray());
-                redisTemplate.expire(redisKey, 1, TimeUnit.HOURS);
-            }
+            writeUserListIfUnchanged(redisKey, userIds, version, false);
         } catch (Exception e) {
             log.warn("Failed to cache user list for feature: {}", featureName, e);
         }
     }
 
+    private boolean writeUserListIfUnchanged(String redisKey, Collection<String> userIds, long version,
+                                             boolean replace) {
+        return writeUserListIfUnchanged(redisKey, version, replace, stage -> stage.accept(userIds));
+    }
+
+    /**
+     * Writes the list under a staging key and moves it into place only if the list's
+     * mutation counter still holds {@code version}, so a list read before a concurrent
+     * add or remove is dropped instead of overwriting the mutation. {@code chunks} hands
+     * at least one, possibly empty, chunk of the list to the stage callback.
+     */
+    private boolean writeUserListIfUnchanged(String redisKey, long version, boolean replace,
+                                             Consumer<Consumer<Collection<String>>> chunks) {
+        // Unique per writer, instances populating the same list must not mix their sets
+        String stagingKey = "{" + redisKey + "}:staging:" + UUID.randomUUID();
+        // The staging set is not read before the commit, so every chunk may carry the loaded marker
+        chunks.accept(chunk -> redisTemplate.executePipelined(pipelined(operations ->
+                writeUserList(operations, stagingKey, chunk))));
+        return commitUserListScript.commit(redisTemplate, redisKey, stagingKey, listVersionKey(redisKey), version, replace);
+    }
+
+    /**
+     * @return the new counter value, or {@code null} when it could not be bumped
+     */
+    private Long bumpListVersion(String redisKey) {
+        try {
+            return bumpListVersion(redisTemplate, redisKey);
+        } catch (Exception e) {
+            log.warn("Failed to bump user list version: {}", redisKey, e);
+            return null;
+        }
+    }
+
+    /**
+     * Recorded before a list is changed in Redis, see {@link #writeUserListIfUnchanged}.
+     * Returns {@code null} inside a pipeline.
+     */
+    private static Long bumpListVersion(RedisOperations<String, Object> operations, String redisKey) {
+        String versionKey = listVersionKey(redisKey);
+        Long version = operations.opsForValue().increment(versionKey);
+        // Outlives every list written under it, so the counter cannot reset while a load is in flight
+        operations.expire(versionKey, 2, TimeUnit.HOURS);
+        return version;
+    }
+
+    private static String listVersionKey(String redisKey) {
+        // Hash-tagged with the list key, so the commit script's keys share a cluster slot
+        return "{" + redisKey + "}:version";
+    }
+
+    private void writeUserList(RedisOperations<String, Object> operations, String redisKey, Collection<String> userIds) {
+        List<Object> members = new ArrayList<>(userIds.size() + 1);
+        members.addAll(userIds);
+        members.add(LIST_LOADED_MARKER);
+        for (int from = 0; from < members.size(); from += REDIS_LIST_CHUNK_SIZE) {
+            List<Object> chunk = members.subList(from, Math.min(from + REDIS_LIST_CHUNK_SIZE, members.size()));
+            operations.opsForSet().add(redisKey, chunk.toArray());
+        }
+        operations.expire(redisKey, 1, TimeUnit.HOURS);
+    }
+
+    private record LoadedList(Set<String> userIds, Long version) {
+    }
+
+    /**
+     * Runs commands that call scripts inside a pipeline. EVALSHA has no EVAL fallback there,
+     * so the scripts are loaded up front, and loaded again with the pipeline retried once when
+     * Redis lost them to a restart or SCRIPT FLUSH. The commands must be safe to repeat.
+     */
+    private void executeScriptsPipelined(Consumer<RedisOperations<String, Object>> commands) {
+        if (!pipelineScriptsLoaded) {
+            loadPipelineScripts();
+        }
+        try {
+            redisTemplate.executePipelined(pipelined(commands));
+        } catch (RuntimeException e) {
+            if (!isNoScript(e)) {
+                throw e;
+            }
+            log.info("Redis lost the pipelined scripts, loading them again");
+            loadPipelineScripts();
+            redisTemplate.executePipelined(pipelined(commands));
+        }
+    }
+
+    private void loadPipelineScripts() {
+        List<RedisScript<?>> scripts = List.of(saveToggleScript.script(), addListMembersScript.script());
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            for (RedisScript<?> script : scripts) {
+                connection.scriptingCommands().scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+        pipelineScriptsLoaded = true;
+    }
+
+    private static boolean isNoScript(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (String.valueOf(cause.getMessage()).contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static SessionCallback<Object> pipelined(Consumer<RedisOperations<String, Object>> commands) {
+        return new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                commands.accept((RedisOperations<String, Object>) operations);
+                return null;
+            }
+        };
+    }
+
+    private static String userListKey(String featureName, ListType listType) {
+        return (listType == ListType.WHITELIST ? REDIS_WHITELIST_PREFIX : REDIS_BLACKLIST_PREFIX) + featureName;
+    }
+
+    /**
+     * Writes the committed toggle through to Redis (or removes it when it was deleted) and
+     * announces its version, so no node caches an older value afterwards. Whitelist and
+     * blacklist sets are independent of the toggle status and are kept unless it was deleted.
+     */
     public void invalidateCache(String featureName) {
-        evictFromLocalCache(featureName);
-        evictFromRedis(featureName);
-        publishInvalidation(featureName);
+        afterCommit(() -> {
+            CachedToggle committed = loadFromDatabase(featureName);
+            long version = committed != null ? committed.version() : deletedVersion(featureName);
+            evictFromLocalCache(featureName, version);
+            if (committed != null) {
+                saveToRedis(committed);
+            } else {
+                evictFromRedis(featureName);
+            }
+            publishInvalidation(featureName, version);
+        });
+    }
+
+    private long deletedVersion(String featureName) {
+        CachedToggle cached = localCache.get(featureName);
+        long known = Math.max(invalidatedVersion(featureName), cached != null ? cached.version() : 0);
+        return Math.max(known + 1, System.currentTimeMillis());
+    }
+
+    /**
+     * List mutations are applied to the cached sets as deltas, so a populated list stays
+     * warm across edits instead of being reloaded from the database.
+     */
+    public void onUsersAdded(String featureName, ListType listType, Collection<String> userIds) {
+        afterCommit(() -> {
+            membershipIndex.add(featureName, listType, userIds);
+            addToUserListInRedis(featureName, listType, List.copyOf(userIds));
+            publishInvalidation(featureName, 0);
+        });
+    }
+
+    public void onUsersRemoved(String featureName, ListType listType, Collection<String> userIds) {
+        afterCommit(() -> {
+            membershipIndex.remove(featureName, listType, userIds);
+            removeFromUserListInRedis(featureName, listType, List.copyOf(userIds));
+            publishInvalidation(featureName, 0);
+        });
+    }
+
+    /**
+     * Swaps in a replaced list after commit. The membership index drops the old list as a
+     * whole, and the Redis set is rebuilt chunk by chunk under a staging key and renamed over
+     * the old one, so readers see either the complete old or the complete new list.
+     */
+    public void onUserListReplaced(String featureName, ListType listType) {
+        afterCommit(() -> {
+            membershipIndex.evict(featureName);
+            replaceUserListInRedis(featureName, listType);
+            publishInvalidation(featureName, 0);
+        });
     }
 
     public void invalidateUserList(String featureName, ListType listType) {
+        afterCommit(() -> {
+            membershipIndex.evict(featureName);
+            evictUserListFromRedis(featureName, listType);
+            publishInvalidation(featureName, 0);
+        });
+    }
+
+    private void addToUserListInRedis(String featureName, ListType listType, List<String> userIds) {
+        if (!redisEnabled || userIds.isEmpty()) {
+            return;
+        }
+        String redisKey = userListKey(featureName, listType);
+        try {
+            executeScriptsPipelined(operations -> {
+                bumpListVersion(operations, redisKey);
+                for (int from = 0; from < userIds.size(); from += REDIS_LIST_CHUNK_SIZE) {
+                    addListMembersScript.add(operations, redisKey, LIST_LOADED_MARKER,
+                            userIds.subList(from, Math.min(from + REDIS_LIST_CHUNK_SIZE, userIds.size())));
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Failed to add to user list cache: {}", featureName, e);
+            // A set missing some of the users must not be served
+            evictUserListFromRedis(featureName, listType);
+        }
+    }
+
+    private void removeFromUserListInRedis(String featureName, ListType listType, List<String> userIds) {
+        if (!redisEnabled || userIds.isEmpty()) {
+            return;
+        }
+        String redisKey = userListKey(featureName, listType);
+        try {
+            redisTemplate.executePipelined(pipelined(operations -> {
+                bumpListVersion(operations, redisKey);
+                for (int from = 0; from < userIds.size(); from += REDIS_LIST_CHUNK_SIZE) {
+                    operations.opsForSet().remove(redisKey,
+                            userIds.subList(from, Math.min(from + REDIS_LIST_CHUNK_SIZE, userIds.size())).toArray());
+                }
+            }));
+        } catch (Exception e) {
+            log.warn("Failed to remove from user list cache: {}", featureName, e);
+            evictUserListFromRedis(featureName, listType);
+        }
+    }
+
+    private void replaceUserListInRedis(String featureName, ListType listType) {
+        if (!redisEnabled) {
+            return;
+        }
+        String redisKey = userListKey(featureName, listType);
+        // Fails populations that read the old list; the reload below is committed against the new value
+        Long version = bumpListVersion(redisKey);
+        Optional<FeatureToggle> feature = toggleRepository.findByFeatureName(featureName);
+        if (version == null || feature.isEmpty()) {
+            evictUserListFromRedis(featureName, listType);
+            return;
+        }
+        try {
+            boolean committed = writeUserListIfUnchanged(redisKey, version, true,
+                    stage -> streamUserIds(feature.get(), listType, stage));
+            if (!committed) {
+                // Changed again during the reload, the old set must not stay in place
+                evictUserListFromRedis(featureName, listType);
+            }
+        } catch (Exception e) {
+            // A leftover staging set expires on its own
+            log.warn("Failed to replace user list cache: {}", featureName, e);
+            evictUserListFromRedis(featureName, listType);
+        }
+    }
+
+    private void streamUserIds(FeatureToggle feature, ListType listType, Consumer<Collection<String>> stage) {
+        long afterId = 0;
+        List<UserIdRow> rows;
+        do {
+            rows = userRepository.findUserIdsAfter(feature, listType, afterId, Limit.of(REDIS_LIST_CHUNK_SIZE));
+            stage.accept(rows.stream().map(UserIdRow::getUserId).toList());
+            if (!rows.isEmpty()) {
+                afterId = rows.getLast().getId();
+            }
+        } while (rows.size() == REDIS_LIST_CHUNK_SIZE);
+    }
+
+    private void evictUserListFromRedis(String featureName, ListType listType) {
         if (redisEnabled) {
-            String redisKey = (listType == ListType.WHITELIST ? REDIS_WHITELIST_PREFIX : REDIS_BLACKLIST_PREFIX) + featureName;
+            bumpListVersion(userListKey(featureName, listType));
             try {
-                redisTemplate.delete(redisKey);
+                redisTemplate.delete(userListKey(featureName, listType));
             } catch (Exception e) {
                 log.warn("Failed to invalidate user list cache: {}", featureName, e);
             }
         }
-        publishInvalidation(featureName);
+    }
+
+    /**
+     * Evicts everything cached for the feature that is older than {@code version}. Version 0
+     * keeps the toggle itself and only drops derived data such as the membership index.
+     */
+    public void evictFromLocalCache(String featureName, long version) {
+        if (version > 0) {
+            invalidatedVersions.merge(featureName, version, Math::max);
+        }
+        localCache.computeIfPresent(featureName, (key, current) -> current.version() < version ? null : current);
+        negativeCache.remove(featureName);
+        membershipIndex.evict(featureName);
+        if (version > 0) {
+            refreshSnapshotEntry(featureName, version);
+            notifyChangeListeners(featureName, version);
+        }
+        log.debug("Evicted from local cache: {} below version {}", featureName, version);
     }
 
     public void evictFromLocalCache(String featureName) {
         localCache.remove(featureName);
+        negativeCache.remove(featureName);
+        membershipIndex.evict(featureName);
+        refreshSnapshotEntry(featureName, Long.MAX_VALUE);
+        notifyChangeListeners(featureName, InvalidationMessage.UNVERSIONED);
         log.debug("Evicted from local cache: {}", featureName);
     }
 
+    public void addChangeListener(ToggleChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    private void notifyChangeListeners(String featureName, long version) {
+        for (ToggleChangeListener listener : changeListeners) {
+            try {
+                listener.onToggleChanged(featureName, version);
+            } catch (Exception e) {
+                log.warn("Toggle change listener failed for: {}", featureName, e);
+            }
+        }
+    }
+
     public void evictAllFromLocalCache() {
+        invalidationEpoch.incrementAndGet();
         localCache.clear();
+        negativeCache.clear();
+        membershipIndex.clear();
+        reloadSnapshot();
+        notifyChangeListeners(InvalidationMessage.WILDCARD, InvalidationMessage.UNVERSIONED);
         log.info("Cleared all local cache");
     }
 
+    @PreDestroy
+    public void shutdown() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Defers cache invalidation until the surrounding transaction commits, so neither this
+     * node nor the nodes receiving the published message can re-read the pre-commit row.
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     private void evictFromRedis(String featureName) {
         if (!redisEnabled) {
             return;
         }
+        // A list loaded before the delete must not be cached for a toggle recreated under the same name
+        bumpListVersion(REDIS_WHITELIST_PREFIX + featureName);
+        bumpListVersion(REDIS_BLACKLIST_PREFIX + featureName);
         try {
             redisTemplate.delete(REDIS_KEY_PREFIX + featureName);
             redisTemplate.delete(REDIS_WHITELIST_PREFIX + featureName);
@@ -273,21 +1213,126 @@ public class FeatureToggleCacheService {
         }
     }
 
-    private void publishInvalidation(String featureName) {
+    private void publishInvalidation(String featureName, long version) {
         if (!redisEnabled) {
             return;
         }
         try {
-            redisTemplate.convertAndSend(featureToggleTopic.getTopic(), featureName);
-            log.debug("Published cache invalidation for: {}", featureName);
+            redisTemplate.convertAndSend(featureToggleTopic.getTopic(),
+                    new InvalidationMessage(featureName, version, instanceId).encode());
+            log.debug("Published cache invalidation for: {} at version {}", featureName, version);
         } catch (Exception e) {
             log.warn("Failed to publish cache invalidation: {}", featureName, e);
         }
     }
 
-    private record CachedToggle(String featureName, ToggleStatus status, long cachedAt) {
+    public record WarmUpResult(int toggles, int listEntries) {
+    }
+
+    /**
+     * Evaluated flags of one user. The map is only built when requested, so callers can
+     * answer a matching {@code If-None-Match} from the ETag alone.
+     */
+    public record UserFlags(String etag, Supplier<Map<String, Boolean>> evaluation) {
+
+        public Map<String, Boolean> flags() {
+            return evaluation.get();
+        }
+    }
+
+    private record CachedToggle(String featureName, @Nullable Long id, ToggleStatus status, long version,
+                                long cachedAt, Responses responses) {
+        static CachedToggle of(String featureName, @Nullable Long id, ToggleStatus status, long version) {
+            return new CachedToggle(featureName, id, status, version, System.currentTimeMillis(),
+                    Responses.of(featureName, status));
+        }
+
         boolean isExpired(long ttlSeconds) {
             return System.currentTimeMillis() - cachedAt > ttlSeconds * 1000;
         }
     }
+
+    /**
+     * Every response a cached toggle can produce, built once when it is cached so that
+     * checks only hand out shared instances. Outcomes not possible for the status are null.
+     */
+    private record Responses(@Nullable FeatureCheckResponse global,
+                             @Nullable FeatureCheckResponse userIdRequired,
+                             @Nullable FeatureCheckResponse blacklisted,
+                             @Nullable FeatureCheckResponse whitelisted,
+                             @Nullable FeatureCheckResponse notWhitelisted) {
+        static Responses of(String featureName, ToggleStatus status) {
+            return switch (status) {
+                case ENABLED -> new Responses(response(featureName, true, status, REASON_ENABLED), null, null, null, null);
+                case DISABLED -> new Responses(response(featureName, false, status, REASON_DISABLED), null, null, null, null);
+                case LIST_MODE -> new Responses(null,
+                        response(featureName, false, status, REASON_USER_ID_REQUIRED),
+                        response(featureName, false, status, REASON_BLACKLISTED),
+                        response(featureName, true, status, REASON_WHITELISTED),
+                        response(featureName, false, status, REASON_NOT_WHITELISTED));
+            };
+        }
+
+        private static FeatureCheckResponse response(String featureName, boolean enabled, ToggleStatus status, String reason) {
+            return FeatureCheckResponse.builder()
+                    .featureName(featureName)
+                    .enabled(enabled)
+                    .status(status)
+                    .reason(reason)
+                    .build();
+        }
+    }
+
+    /**
+     * Immutable view of the whole toggle table. A new instance with a higher version is
+     * swapped in on every change, so readers never observe a partially applied update.
+     * The fingerprint is an order-independent hash of all names, statuses and versions; unlike
+     * the local version it is the same on every node holding the same toggles.
+     */
+    private record ToggleSnapshot(long version, Map<String, CachedToggle> toggles, long fingerprint, boolean loaded) {
+        static final ToggleSnapshot EMPTY = new ToggleSnapshot(0, Map.of(), 0, false);
+
+        ToggleSnapshot replaceAll(Map<String, CachedToggle> toggles) {
+            long fingerprint = 0;
+            for (CachedToggle toggle : toggles.values()) {
+                fingerprint += hash(toggle);
+            }
+            return new ToggleSnapshot(version + 1, Map.copyOf(toggles), fingerprint, true);
+        }
+
+        ToggleSnapshot with(String featureName, @Nullable CachedToggle toggle) {
+            CachedToggle current = toggles.get(featureName);
+            if (toggle != null && current != null && current.version() > toggle.version()) {
+                return this;
+            }
+            Map<String, CachedToggle> next = new HashMap<>(toggles);
+            long nextFingerprint = fingerprint - (current != null ? hash(current) : 0);
+            if (toggle != null) {
+                next.put(featureName, toggle);
+                nextFingerprint += hash(toggle);
+            } else {
+                next.remove(featureName);
+            }
+            return new ToggleSnapshot(version + 1, Map.copyOf(next), nextFingerprint, true);
+        }
+
+        static long hash(CachedToggle toggle) {
+            return mix(hash(toggle.featureName()) + 31 * toggle.version() + toggle.status().ordinal());
+        }
+
+        // 64-bit FNV-1a, String.hashCode() is too narrow for a fingerprint over thousands of toggles
+        static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+
+        private static long mix(long value) {
+            value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+            value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return value ^ (value >>> 33);
+        }
+    }
 }
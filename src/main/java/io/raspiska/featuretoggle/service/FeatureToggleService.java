@@ -2,40 +2,92 @@ package io.raspiska.featuretoggle.service;
 
 import io.raspiska.featuretoggle.dto.*;
 import io.raspiska.featuretoggle.entity.AuditLog.AuditAction;
+import io.raspiska.featuretoggle.entity.FeatureToggleChange.ChangeType;
 import io.raspiska.featuretoggle.entity.ToggleStatus;
 import io.raspiska.featuretoggle.entity.FeatureToggle;
 import io.raspiska.featuretoggle.entity.FeatureToggleUser;
 import io.raspiska.featuretoggle.entity.FeatureToggleUser.ListType;
+import io.raspiska.featuretoggle.entity.ListPurge;
+import io.raspiska.featuretoggle.entity.ToggleSchedule;
 import io.raspiska.featuretoggle.repository.FeatureToggleRepository;
 import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository;
+import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository.ListCount;
+import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository.UserIdRow;
+import io.raspiska.featuretoggle.repository.ToggleScheduleRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FeatureToggleService {
 
+    private static final int STREAM_CHUNK_SIZE = 500;
+    private static final int MAX_SCAN_SIZE = 10_000;
+    // Stays below SQLite's bound parameter limit (999 before 3.32)
+    private static final int DELETE_CHUNK_SIZE = 500;
+
     private final FeatureToggleRepository toggleRepository;
     private final FeatureToggleUserRepository userRepository;
     private final FeatureToggleCacheService cacheService;
     private final AuditLogService auditLogService;
+    private final ChangeFeedService changeFeedService;
+    private final ListPurgeService listPurgeService;
+    private final ToggleScheduleRepository scheduleRepository;
+    private final ScheduledToggleService scheduledToggleService;
 
     @Transactional(readOnly = true)
     public List<FeatureToggleDto> getAllToggles() {
+        Map<Long, ListCounts> counts = toCountMap(userRepository.countAllByFeatureAndListType());
         return toggleRepository.findAll().stream()
-                .map(this::toDto)
+                .map(toggle -> toDto(toggle, counts))
                 .toList();
     }
 
+    @Transactional(readOnly = true)
+    public Page<FeatureToggleDto> getToggles(String groupName, Pageable pageable) {
+        Page<FeatureToggle> toggles = groupName != null
+                ? toggleRepository.findByGroupName(groupName, pageable)
+                : toggleRepository.findAll(pageable);
+        Map<Long, ListCounts> counts = countLists(toggles.getContent());
+        return toggles.map(toggle -> toDto(toggle, counts));
+    }
+
+    /**
+     * Hands every toggle, or every toggle of {@code groupName} when it is not null, to
+     * {@code consumer} in id order, loading one chunk at a time so the full list is never held
+     * in memory. Each chunk is read in its own short transaction.
+     */
+    public void streamToggles(String groupName, Consumer<FeatureToggleDto> consumer) {
+        long lastId = 0;
+        List<FeatureToggle> chunk;
+        do {
+            chunk = groupName != null
+                    ? toggleRepository.findByGroupNameAndIdGreaterThanOrderByIdAsc(groupName, lastId, Limit.of(STREAM_CHUNK_SIZE))
+                    : toggleRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(STREAM_CHUNK_SIZE));
+            Map<Long, ListCounts> counts = countLists(chunk);
+            for (FeatureToggle toggle : chunk) {
+                consumer.accept(toDto(toggle, counts));
+                lastId = toggle.getId();
+            }
+        } while (chunk.size() == STREAM_CHUNK_SIZE);
+    }
+
     @Transactional(readOnly = true)
     public FeatureToggleDto getToggle(String featureName) {
         FeatureToggle toggle = findByName(featureName);
@@ -58,6 +110,7 @@ public class FeatureToggleService {
         toggle = toggleRepository.save(toggle);
         log.info("Created feature toggle: {}", toggle.getFeatureName());
 
+        changeFeedService.record(toggle, ChangeType.CREATED);
         cacheService.invalidateCache(toggle.getFeatureName());
         auditLogService.log(toggle.getFeatureName(), AuditAction.CREATE, actor, 
                 "Created with status: " + toggle.getStatus());
@@ -80,6 +133,7 @@ public class FeatureToggleService {
         toggle = toggleRepository.save(toggle);
         log.info("Updated feature toggle: {} to status: {}", featureName, request.getStatus());
 
+        changeFeedService.record(toggle, ChangeType.UPDATED);
         cacheService.invalidateCache(featureName);
         auditLogService.log(featureName, AuditAction.UPDATE, actor, 
                 "Status changed from " + oldStatus + " to " + request.getStatus());
@@ -89,11 +143,14 @@ public class FeatureToggleService {
     @Transactional
     public void deleteToggle(String featureName, String actor) {
         FeatureToggle toggle = findByName(featureName);
-        
-        userRepository.deleteByFeature(toggle);
-        toggleRepository.delete(toggle);
-        
-        log.info("Deleted feature toggle: {}", featureName);
+
+        changeFeedService.record(toggle, ChangeType.DELETED);
+        scheduleRepository.deleteByFeatureId(toggle.getId());
+        // List entries are purged in the background, a delete never waits on large lists
+        ListPurge purge = listPurgeService.tombstone(toggle);
+
+        log.info("Deleted feature toggle: {}, purging {} list entries (purge {})",
+                featureName, purge.getTotalRows(), purge.getId());
         cacheService.invalidateCache(featureName);
         auditLogService.log(featureName, AuditAction.DELETE, actor, "Toggle deleted");
     }
@@ -128,46 +185,58 @@ public class FeatureToggleService {
         return getUsersFromList(featureName, ListType.BLACKLIST, pageable);
     }
 
+    @Transactional(readOnly = true)
+    public UserListSlice scanWhitelistedUsers(String featureName, String cursor, int size) {
+        return scanUsersFromList(featureName, ListType.WHITELIST, cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    public UserListSlice scanBlacklistedUsers(String featureName, String cursor, int size) {
+        return scanUsersFromList(featureName, ListType.BLACKLIST, cursor, size);
+    }
+
     public FeatureCheckResponse checkFeature(String featureName, String userId) {
         return cacheService.checkFeature(featureName, userId);
     }
 
+    public FeatureToggleCacheService.UserFlags getUserFlags(String userId) {
+        return cacheService.getUserFlags(userId);
+    }
+
+    public BatchCheckResponse checkFeatures(List<String> featureNames, String userId) {
+        return BatchCheckResponse.builder()
+                .userId(userId)
+                .results(cacheService.checkFeatures(featureNames, userId))
+                .build();
+    }
+
     private void addUsersToList(String featureName, List<String> userIds, ListType listType, String actor) {
         FeatureToggle toggle = findByName(featureName);
 
-        List<FeatureToggleUser> usersToAdd = new ArrayList<>();
-        for (String userId : userIds) {
-            if (!userRepository.existsByFeatureAndUserIdAndListType(toggle, userId, listType)) {
-                usersToAdd.add(FeatureToggleUser.builder()
-                        .feature(toggle)
-                        .userId(userId)
-                        .listType(listType)
-                        .build());
-            }
-        }
-
-        if (!usersToAdd.isEmpty()) {
-            userRepository.saveAll(usersToAdd);
-            log.info("Added {} users to {} for feature: {}", usersToAdd.size(), listType, featureName);
+        List<String> added = userRepository.insertMissing(toggle.getId(), listType, userIds);
+        if (!added.isEmpty()) {
+            log.info("Added {} users to {} for feature: {}", added.size(), listType, featureName);
             AuditAction action = listType == ListType.WHITELIST ? AuditAction.ADD_TO_WHITELIST : AuditAction.ADD_TO_BLACKLIST;
-            auditLogService.log(featureName, action, actor, "Added " + usersToAdd.size() + " users");
+            auditLogService.log(featureName, action, actor, "Added " + added.size() + " users");
+            cacheService.onUsersAdded(featureName, listType, added);
         }
-
-        cacheService.invalidateUserList(featureName, listType);
     }
 
     private void removeUsersFromList(String featureName, List<String> userIds, ListType listType, String actor) {
         FeatureToggle toggle = findByName(featureName);
         
-        int deleted = userRepository.deleteByFeatureAndUserIdInAndListType(toggle, userIds, listType);
+        int deleted = 0;
+        for (int from = 0; from < userIds.size(); from += DELETE_CHUNK_SIZE) {
+            List<String> chunk = userIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, userIds.size()));
+            deleted += userRepository.deleteByFeatureAndUserIdInAndListType(toggle, chunk, listType);
+        }
         log.info("Removed {} users from {} for feature: {}", deleted, listType, featureName);
 
         if (deleted > 0) {
             AuditAction action = listType == ListType.WHITELIST ? AuditAction.REMOVE_FROM_WHITELIST : AuditAction.REMOVE_FROM_BLACKLIST;
             auditLogService.log(featureName, action, actor, "Removed " + deleted + " users");
+            cacheService.onUsersRemoved(featureName, listType, userIds);
         }
-
-        cacheService.invalidateUserList(featureName, listType);
     }
 
     private Page<String> getUsersFromList(String featureName, ListType listType, Pageable pageable) {
@@ -176,6 +245,37 @@ public class FeatureToggleService {
                 .map(FeatureToggleUser::getUserId);
     }
 
+    /**
+     * Keyset pagination on the row id: every slice is a bounded index range scan with no
+     * COUNT and no OFFSET, so the cost per slice does not grow with the position in the list.
+     */
+    private UserListSlice scanUsersFromList(String featureName, ListType listType, String cursor, int size) {
+        FeatureToggle toggle = findByName(featureName);
+        int limit = Math.clamp(size, 1, MAX_SCAN_SIZE);
+        List<UserIdRow> rows = userRepository.findUserIdsAfter(toggle, listType, decodeCursor(cursor), Limit.of(limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<UserIdRow> slice = hasMore ? rows.subList(0, limit) : rows;
+        return UserListSlice.builder()
+                .userIds(slice.stream().map(UserIdRow::getUserId).toList())
+                .nextCursor(hasMore ? encodeCursor(slice.getLast().getId()) : null)
+                .build();
+    }
+
+    private static String encodeCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
     private FeatureToggle findByName(String featureName) {
         return toggleRepository.findByFeatureName(featureName)
                 .orElseThrow(() -> new EntityNotFoundException("Feature toggle not found: " + featureName));
@@ -183,40 +283,105 @@ public class FeatureToggleService {
 
     @Transactional(readOnly = true)
     public List<FeatureToggleDto> getTogglesByGroup(String groupName) {
-        return toggleRepository.findByGroupName(groupName).stream()
-                .map(this::toDto)
+        List<FeatureToggle> toggles = toggleRepository.findByGroupName(groupName);
+        Map<Long, ListCounts> counts = countLists(toggles);
+        return toggles.stream()
+                .map(toggle -> toDto(toggle, counts))
                 .toList();
     }
 
+    /**
+     * Adds a pending status change; a toggle can have several. The toggle's
+     * {@code scheduledStatus}/{@code scheduledAt} show the earliest one.
+     */
     @Transactional
-    public FeatureToggleDto scheduleToggle(String featureName, ToggleStatus scheduledStatus, 
-                                            java.time.Instant scheduledAt, String actor) {
+    public FeatureToggleDto scheduleToggle(String featureName, ToggleStatus scheduledStatus,
+                                            Instant scheduledAt, String actor) {
         FeatureToggle toggle = findByName(featureName);
-        toggle.setScheduledStatus(scheduledStatus);
-        toggle.setScheduledAt(scheduledAt);
-        toggle = toggleRepository.save(toggle);
-        
+        scheduleRepository.save(ToggleSchedule.builder()
+                .featureId(toggle.getId())
+                .scheduledStatus(scheduledStatus)
+                .scheduledAt(scheduledAt)
+                .createdBy(actor)
+                .build());
+        toggle = onSchedulesChanged(toggle);
+
         log.info("Scheduled toggle {} to change to {} at {}", featureName, scheduledStatus, scheduledAt);
-        auditLogService.log(featureName, AuditAction.SCHEDULE, actor, 
+        auditLogService.log(featureName, AuditAction.SCHEDULE, actor,
                 "Scheduled to change to " + scheduledStatus + " at " + scheduledAt);
-        
+
         return toDto(toggle);
     }
 
+    @Transactional(readOnly = true)
+    public List<ToggleScheduleDto> getSchedules(String featureName) {
+        FeatureToggle toggle = findByName(featureName);
+        return scheduleRepository.findByFeatureIdOrderByScheduledAtAscIdAsc(toggle.getId()).stream()
+                .map(this::toScheduleDto)
+                .toList();
+    }
+
     @Transactional
     public FeatureToggleDto cancelSchedule(String featureName, String actor) {
         FeatureToggle toggle = findByName(featureName);
-        toggle.setScheduledStatus(null);
-        toggle.setScheduledAt(null);
-        toggle = toggleRepository.save(toggle);
-        
-        log.info("Cancelled scheduled toggle change for {}", featureName);
+        int cancelled = scheduleRepository.deleteByFeatureId(toggle.getId());
+        toggle = onSchedulesChanged(toggle);
+
+        log.info("Cancelled {} scheduled toggle changes for {}", cancelled, featureName);
         auditLogService.log(featureName, AuditAction.SCHEDULE, actor, "Cancelled scheduled change");
-        
+
+        return toDto(toggle);
+    }
+
+    @Transactional
+    public FeatureToggleDto cancelScheduleEntry(String featureName, long scheduleId, String actor) {
+        FeatureToggle toggle = findByName(featureName);
+        if (scheduleRepository.deleteEntry(toggle.getId(), scheduleId) == 0) {
+            throw new EntityNotFoundException("Schedule not found: " + scheduleId);
+        }
+        toggle = onSchedulesChanged(toggle);
+
+        log.info("Cancelled scheduled toggle change {} for {}", scheduleId, featureName);
+        auditLogService.log(featureName, AuditAction.SCHEDULE, actor, "Cancelled scheduled change " + scheduleId);
+
         return toDto(toggle);
     }
 
+    private FeatureToggle onSchedulesChanged(FeatureToggle toggle) {
+        ToggleStatus previousStatus = toggle.getScheduledStatus();
+        Instant previousAt = toggle.getScheduledAt();
+        scheduledToggleService.refreshNextSchedule(toggle);
+        toggle = toggleRepository.save(toggle);
+        if (toggle.getScheduledStatus() != previousStatus || !Objects.equals(toggle.getScheduledAt(), previousAt)) {
+            changeFeedService.record(toggle, ChangeType.UPDATED);
+        }
+        // Also announces the change to the schedulers of all instances
+        cacheService.invalidateCache(toggle.getFeatureName());
+        return toggle;
+    }
+
+    private ToggleScheduleDto toScheduleDto(ToggleSchedule entry) {
+        return ToggleScheduleDto.builder()
+                .id(entry.getId())
+                .scheduledStatus(entry.getScheduledStatus())
+                .scheduledAt(entry.getScheduledAt())
+                .createdBy(entry.getCreatedBy())
+                .createdAt(entry.getCreatedAt())
+                .build();
+    }
+
     private FeatureToggleDto toDto(FeatureToggle toggle) {
+        return toDto(toggle,
+                userRepository.countByFeatureAndListType(toggle, ListType.WHITELIST),
+                userRepository.countByFeatureAndListType(toggle, ListType.BLACKLIST));
+    }
+
+    private FeatureToggleDto toDto(FeatureToggle toggle, Map<Long, ListCounts> counts) {
+        ListCounts listCounts = counts.getOrDefault(toggle.getId(), ListCounts.NONE);
+        return toDto(toggle, listCounts.whitelist(), listCounts.blacklist());
+    }
+
+    private FeatureToggleDto toDto(FeatureToggle toggle, long whitelistCount, long blacklistCount) {
         return FeatureToggleDto.builder()
                 .id(toggle.getId())
                 .featureName(toggle.getFeatureName())
@@ -225,10 +390,41 @@ public class FeatureToggleService {
                 .groupName(toggle.getGroupName())
                 .scheduledStatus(toggle.getScheduledStatus())
                 .scheduledAt(toggle.getScheduledAt())
-                .whitelistCount(userRepository.countByFeatureAndListType(toggle, ListType.WHITELIST))
-                .blacklistCount(userRepository.countByFeatureAndListType(toggle, ListType.BLACKLIST))
+                .whitelistCount(whitelistCount)
+                .blacklistCount(blacklistCount)
                 .createdAt(toggle.getCreatedAt())
                 .updatedAt(toggle.getUpdatedAt())
                 .build();
     }
+
+    // One grouped query for the whole batch instead of two count queries per toggle
+    private Map<Long, ListCounts> countLists(List<FeatureToggle> toggles) {
+        return toggles.isEmpty() ? Map.of() : toCountMap(userRepository.countByFeatureIdInAndListType(ids(toggles)));
+    }
+
+    private static Map<Long, ListCounts> toCountMap(List<ListCount> listCounts) {
+        Map<Long, ListCounts> counts = new HashMap<>();
+        for (ListCount listCount : listCounts) {
+            counts.merge(listCount.getFeatureId(), ListCounts.of(listCount), ListCounts::plus);
+        }
+        return counts;
+    }
+
+    private static List<Long> ids(List<FeatureToggle> toggles) {
+        return toggles.stream().map(FeatureToggle::getId).toList();
+    }
+
+    private record ListCounts(long whitelist, long blacklist) {
+        static final ListCounts NONE = new ListCounts(0, 0);
+
+        static ListCounts of(ListCount listCount) {
+            return listCount.getListType() == ListType.WHITELIST
+                    ? new ListCounts(listCount.getCount(), 0)
+                    : new ListCounts(0, listCount.getCount());
+        }
+
+        ListCounts plus(ListCounts other) {
+            return new ListCounts(whitelist + other.whitelist, blacklist + other.blacklist);
+        }
+    }
 }
@@ -0,0 +1,52 @@
+package io.raspiska.featuretoggle.service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Payload published on the invalidation channel, encoded as {@code FEATURE_NAME:version@origin}
+ * where origin identifies the publishing instance, which has already applied the change
+ * locally. Version 0 announces a change that leaves the toggle itself untouched, such as a
+ * list update. {@code *} invalidates everything; a bare feature name (sent by older instances)
+ * is parsed with version -1 and evicts unconditionally.
+ */
+public record InvalidationMessage(String featureName, long version, String origin) {
+
+    public static final String WILDCARD = "*";
+    public static final long UNVERSIONED = -1;
+
+    public static InvalidationMessage parse(byte[] body) {
+        String payload = new String(body, StandardCharsets.UTF_8).trim();
+        // Published through the JSON value serializer, so the payload arrives quoted
+        if (payload.length() >= 2 && payload.startsWith("\"") && payload.endsWith("\"")) {
+            payload = payload.substring(1, payload.length() - 1);
+        }
+        String origin = null;
+        int originSeparator = payload.lastIndexOf('@');
+        if (originSeparator > 0) {
+            origin = payload.substring(originSeparator + 1);
+            payload = payload.substring(0, originSeparator);
+        }
+        int separator = payload.lastIndexOf(':');
+        if (separator > 0) {
+            try {
+                return new InvalidationMessage(payload.substring(0, separator),
+                        Long.parseLong(payload.substring(separator + 1)), origin);
+            } catch (NumberFormatException e) {
+                // Not a version suffix, treat the whole payload as the feature name
+            }
+        }
+        return new InvalidationMessage(payload, UNVERSIONED, origin);
+    }
+
+    public boolean isWildcard() {
+        return WILDCARD.equals(featureName);
+    }
+
+    public boolean isVersioned() {
+        return version >= 0;
+    }
+
+    public String encode() {
+        return featureName + ":" + version + (origin != null ? "@" + origin : "");
+    }
+}
@@ -0,0 +1,163 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.repository.LeaderLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Elects one instance to run the toggle scheduler. The leader holds a lease in Redis, or in
+ * the {@code leader_leases} table when Redis is disabled, and renews it every
+ * {@code renew-interval-ms}. If the leader dies its lease lapses after {@code lease-ms}, so
+ * another instance takes over within {@code lease-ms + renew-interval-ms}; on shutdown the
+ * lease is released and the next instance takes over at its next attempt.
+ * <p>
+ * An instance only counts itself leader until the lease it last renewed runs out, measured
+ * from before the renew request was sent, so it stops acting as leader no later than the
+ * store lets someone else acquire the lease.
+ */
+@Slf4j
+@Service
+public class LeaderElection implements ApplicationRunner {
+
+    static final String LEASE_NAME = "toggle-scheduler";
+    private static final String LEASE_KEY = "feature-toggle:leader:" + LEASE_NAME;
+
+    private final LeaseStore store;
+    private final MetricsService metricsService;
+    @Getter
+    private final String nodeId;
+    private final long leaseMs;
+    private final long renewIntervalMs;
+    // One thread: every lease request and leadership change is made from it
+    private final ScheduledExecutorService executor;
+    private final List<LeadershipListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean leader;
+    private volatile long validUntilNanos;
+
+    public LeaderElection(@Nullable RedisTemplate<String, Object> redisTemplate,
+                          LeaderLeaseRepository leaseRepository,
+                          TransactionTemplate transactionTemplate,
+                          ApplicationProperties properties,
+                          MetricsService metricsService) {
+        this.store = redisTemplate != null
+                ? new RedisLeaseStore(redisTemplate, LEASE_KEY)
+                : new DatabaseLeaseStore(leaseRepository, transactionTemplate, LEASE_NAME);
+        this.metricsService = metricsService;
+        ApplicationProperties.Leader config = properties.getLeader();
+        this.nodeId = config.getNodeId() == null || config.getNodeId().isBlank() ? defaultNodeId() : config.getNodeId();
+        this.leaseMs = config.getLeaseMs();
+        this.renewIntervalMs = config.getRenewIntervalMs();
+        if (renewIntervalMs >= leaseMs) {
+            log.warn("Leader renew interval {} ms is not shorter than the lease {} ms, leadership will flap",
+                    renewIntervalMs, leaseMs);
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("leader-election").daemon().factory());
+        metricsService.registerLeaderGauge(nodeId, () -> isLeader() ? 1 : 0);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        executor.scheduleWithFixedDelay(this::tick, 0, renewIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (leader) {
+            // Listeners are not told: beans depending on this one have already been destroyed
+            leader = false;
+            metricsService.recordLeadershipReleased();
+            try {
+                store.release(nodeId);
+                log.info("Node {} released the scheduler lease", nodeId);
+            } catch (Exception e) {
+                log.warn("Failed to release leader lease, it lapses in {} ms", leaseMs, e);
+            }
+        }
+    }
+
+    public void addListener(LeadershipListener listener) {
+        listeners.add(listener);
+    }
+
+    public boolean isLeader() {
+        return leader && System.nanoTime() - validUntilNanos < 0;
+    }
+
+    void tick() {
+        long start = System.nanoTime();
+        boolean held;
+        try {
+            held = leader ? store.renew(nodeId, leaseMs) : store.acquire(nodeId, leaseMs);
+        } catch (Exception e) {
+            log.warn("Leader lease request failed", e);
+            // The lease may still be ours; keep leading until it would have run out
+            if (leader && System.nanoTime() - validUntilNanos >= 0) {
+                stepDown("lease expired while the lease store was unreachable");
+            }
+            return;
+        }
+        if (held) {
+            validUntilNanos = start + TimeUnit.MILLISECONDS.toNanos(leaseMs);
+            if (!leader) {
+                leader = true;
+                metricsService.recordLeadershipAcquired();
+                log.info("Node {} acquired the scheduler lease", nodeId);
+                notifyListeners(true);
+            }
+        } else if (leader) {
+            stepDown("lease taken over or expired");
+        }
+    }
+
+    private void stepDown(String reason) {
+        leader = false;
+        metricsService.recordLeadershipLost();
+        log.info("Node {} gave up the scheduler lease: {}", nodeId, reason);
+        notifyListeners(false);
+    }
+
+    private void notifyListeners(boolean isLeader) {
+        for (LeadershipListener listener : listeners) {
+            try {
+                listener.onLeadershipChanged(isLeader);
+            } catch (Exception e) {
+                log.warn("Leadership listener failed", e);
+            }
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        // Two instances on one host must not share a holder, or both would renew the same lease
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,10 @@
+package io.raspiska.featuretoggle.service;
+
+/**
+ * Notified on the election thread when this instance gains or loses the scheduler lease.
+ */
+@FunctionalInterface
+public interface LeadershipListener {
+
+    void onLeadershipChanged(boolean leader);
+}
@@ -0,0 +1,14 @@
+package io.raspiska.featuretoggle.service;
+
+/**
+ * Shared storage for a named lease. Only one holder can own the lease at a time; it lapses
+ * {@code leaseMs} after the last successful acquire or renew.
+ */
+interface LeaseStore {
+
+    boolean acquire(String holder, long leaseMs);
+
+    boolean renew(String holder, long leaseMs);
+
+    void release(String holder);
+}
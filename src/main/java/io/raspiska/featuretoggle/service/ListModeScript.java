@@ -0,0 +1,65 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.entity.ToggleStatus;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.List;
+
+/**
+ * Reads toggle status, blacklist and whitelist membership in one script call.
+ * Runs via EVALSHA with the SHA computed once; Spring falls back to EVAL (which
+ * reloads the script) when Redis answers NOSCRIPT, e.g. after a restart or SCRIPT FLUSH.
+ */
+class ListModeScript {
+
+    enum Decision {
+        NOT_CACHED(null),
+        ENABLED(ToggleStatus.ENABLED),
+        DISABLED(ToggleStatus.DISABLED),
+        BLACKLISTED(ToggleStatus.LIST_MODE),
+        WHITELISTED(ToggleStatus.LIST_MODE),
+        NOT_WHITELISTED(ToggleStatus.LIST_MODE),
+        LISTS_NOT_LOADED(ToggleStatus.LIST_MODE);
+
+        private final ToggleStatus status;
+
+        Decision(ToggleStatus status) {
+            this.status = status;
+        }
+
+        ToggleStatus status() {
+            return status;
+        }
+    }
+
+    record Result(Decision decision, long version) {
+        static final Result NOT_CACHED = new Result(Decision.NOT_CACHED, 0);
+    }
+
+    private static final Decision[] DECISIONS = Decision.values();
+
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> script;
+
+    ListModeScript() {
+        this.script = new DefaultRedisScript<>();
+        this.script.setLocation(new ClassPathResource("scripts/evaluate-toggle.lua"));
+        this.script.setResultType(List.class);
+    }
+
+    Result evaluate(RedisTemplate<String, Object> redisTemplate, String toggleKey,
+                    String blacklistKey, String whitelistKey, String userId, String listLoadedMarker) {
+        // Arguments go through the template's value serializer, so they compare equal to stored values
+        List<?> reply = redisTemplate.execute(script, List.of(toggleKey, blacklistKey, whitelistKey),
+                userId, listLoadedMarker,
+                ToggleStatus.ENABLED.name(), ToggleStatus.DISABLED.name(), ToggleStatus.LIST_MODE.name());
+        if (reply == null || reply.isEmpty() || !(reply.get(0) instanceof Number code)
+                || code.intValue() <= 0 || code.intValue() >= DECISIONS.length) {
+            return Result.NOT_CACHED;
+        }
+        long version = reply.size() > 1 && reply.get(1) instanceof Number number ? number.longValue() : 0;
+        return new Result(DECISIONS[code.intValue()], version);
+    }
+}
@@ -0,0 +1,125 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.dto.ListPurgeDto;
+import io.raspiska.featuretoggle.entity.FeatureToggle;
+import io.raspiska.featuretoggle.entity.ListPurge;
+import io.raspiska.featuretoggle.entity.ListPurge.Status;
+import io.raspiska.featuretoggle.repository.FeatureToggleRepository;
+import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository;
+import io.raspiska.featuretoggle.repository.ListPurgeRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Deletes toggles in two steps: the toggle is tombstoned in the deleting transaction, which
+ * hides it from every query right away, and its list entries are removed afterwards in
+ * bounded chunks, each in its own short transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ListPurgeService {
+
+    private final FeatureToggleRepository toggleRepository;
+    private final FeatureToggleUserRepository userRepository;
+    private final ListPurgeRepository purgeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationProperties properties;
+    private final LeaderElection leaderElection;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ListPurge tombstone(FeatureToggle toggle) {
+        String featureName = toggle.getFeatureName();
+        long rows = userRepository.countByFeature(toggle);
+        toggle.setDeletedAt(Instant.now());
+        // Frees the unique name for a new toggle; '#' is not allowed in feature names
+        toggle.setFeatureName(featureName + "#" + toggle.getId());
+        toggleRepository.save(toggle);
+        return purgeRepository.save(ListPurge.builder()
+                .featureId(toggle.getId())
+                .featureName(featureName)
+                .status(Status.PENDING)
+                .totalRows(rows)
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${feature-toggle.purge.interval-ms:5000}")
+    public void purgeOnLeader() {
+        // Only the leader purges, so replicas don't delete and count the same chunks
+        if (leaderElection.isLeader()) {
+            purgePending();
+        }
+    }
+
+    public void purgePending() {
+        for (ListPurge purge : purgeRepository.findByStatusNotOrderByIdAsc(Status.COMPLETED)) {
+            try {
+                purge(purge);
+            } catch (Exception e) {
+                log.warn("List purge {} for {} failed, retrying later", purge.getId(), purge.getFeatureName(), e);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public ListPurgeDto getPurge(long id) {
+        return purgeRepository.findById(id)
+                .map(this::toDto)
+                .orElseThrow(() -> new EntityNotFoundException("List purge not found: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ListPurgeDto> getPurges(String featureName, Pageable pageable) {
+        Page<ListPurge> purges = featureName != null
+                ? purgeRepository.findByFeatureName(featureName, pageable)
+                : purgeRepository.findAll(pageable);
+        return purges.map(this::toDto);
+    }
+
+    void purge(ListPurge purge) {
+        Instant start = Instant.now();
+        int chunkSize = Math.max(properties.getPurge().getChunkSize(), 1);
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> {
+                int rows = userRepository.deleteChunkByFeatureId(purge.getFeatureId(), chunkSize);
+                // Counted in the database, a run that overlaps another one only adds the rows it deleted
+                purgeRepository.addPurgedRows(purge.getId(), rows, Status.RUNNING, Status.COMPLETED);
+                return rows;
+            });
+            purged += deleted;
+        } while (deleted == chunkSize);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            toggleRepository.deleteTombstone(purge.getFeatureId());
+            purgeRepository.complete(purge.getId(), Status.COMPLETED, Instant.now());
+        });
+        log.info("Purged {} list entries of deleted feature {} in {} ms", purged, purge.getFeatureName(),
+                Duration.between(start, Instant.now()).toMillis());
+    }
+
+    private ListPurgeDto toDto(ListPurge purge) {
+        return ListPurgeDto.builder()
+                .id(purge.getId())
+                .featureName(purge.getFeatureName())
+                .status(purge.getStatus())
+                .totalRows(purge.getTotalRows())
+                .purgedRows(purge.getPurgedRows())
+                .createdAt(purge.getCreatedAt())
+                .completedAt(purge.getCompletedAt())
+                .build();
+    }
+}
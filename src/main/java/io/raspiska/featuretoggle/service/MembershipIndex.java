@@ -0,0 +1,117 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.entity.FeatureToggleUser.ListType;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process whitelist/blacklist membership per feature. Lists are bulk-loaded on first
+ * use, patched by small local add/remove operations and dropped on invalidation.
+ */
+class MembershipIndex {
+
+    // Every patch copies the whole list, so larger deltas such as import chunks drop the
+    // entry instead and the next check loads the list once
+    static final int MAX_PATCH_SIZE = 100;
+
+    private final Map<String, Lists> entries = new ConcurrentHashMap<>();
+    // Bumped per feature on every change to its lists, and for all features by clear()
+    private final Map<String, Long> epochs = new ConcurrentHashMap<>();
+    private final AtomicLong clearEpoch = new AtomicLong();
+    private final SingleFlight<String, Lists> loads;
+    private final long ttlMillis;
+
+    MembershipIndex(long ttlSeconds, Runnable onCoalesced) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.loads = new SingleFlight<>(onCoalesced);
+    }
+
+    Lists get(String featureName, Supplier<Lists> loader) {
+        Lists lists = entries.get(featureName);
+        if (lists != null && !lists.isExpired(ttlMillis)) {
+            return lists;
+        }
+        return loads.load(featureName, () -> load(featureName, loader));
+    }
+
+    void add(String featureName, ListType listType, Collection<String> userIds) {
+        if (userIds.size() > MAX_PATCH_SIZE) {
+            evict(featureName);
+            return;
+        }
+        bump(featureName);
+        entries.computeIfPresent(featureName, (key, lists) -> lists.with(listType, lists.get(listType).with(userIds)));
+    }
+
+    void remove(String featureName, ListType listType, Collection<String> userIds) {
+        if (userIds.size() > MAX_PATCH_SIZE) {
+            evict(featureName);
+            return;
+        }
+        bump(featureName);
+        entries.computeIfPresent(featureName, (key, lists) -> lists.with(listType, lists.get(listType).without(userIds)));
+    }
+
+    void evict(String featureName) {
+        bump(featureName);
+        entries.remove(featureName);
+    }
+
+    void clear() {
+        clearEpoch.incrementAndGet();
+        epochs.clear();
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private Lists load(String featureName, Supplier<Lists> loader) {
+        long startClearEpoch = clearEpoch.get();
+        Long startEpoch = epochs.get(featureName);
+        Lists loaded = loader.get();
+        // A list change during the load may not be part of what was read, so only keep
+        // the result if this feature's lists did not change in the meantime; later changes
+        // patch it in place.
+        entries.compute(featureName, (key, current) ->
+                clearEpoch.get() == startClearEpoch && Objects.equals(epochs.get(featureName), startEpoch)
+                        ? loaded : current);
+        return loaded;
+    }
+
+    private void bump(String featureName) {
+        epochs.merge(featureName, 1L, Long::sum);
+    }
+
+    record Lists(UserIdSet whitelist, UserIdSet blacklist, long loadedAt) {
+
+        static Lists of(Set<String> whitelist, Set<String> blacklist) {
+            return new Lists(UserIdSet.of(whitelist), UserIdSet.of(blacklist), System.currentTimeMillis());
+        }
+
+        UserIdSet get(ListType listType) {
+            return listType == ListType.WHITELIST ? whitelist : blacklist;
+        }
+
+        boolean contains(ListType listType, String userId) {
+            return get(listType).contains(userId);
+        }
+
+        Lists with(ListType listType, UserIdSet userIds) {
+            return listType == ListType.WHITELIST
+                    ? new Lists(userIds, blacklist, loadedAt)
+                    : new Lists(whitelist, userIds, loadedAt);
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
@@ -1,21 +1,35 @@
 package io.raspiska.featuretoggle.service;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 @Service
 public class MetricsService {
 
     private final MeterRegistry meterRegistry;
-    private final ConcurrentHashMap<String, Counter> featureCheckCounters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> enabledCheckCounters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> disabledCheckCounters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> coalescedLoadCounters = new ConcurrentHashMap<>();
     private final Counter cacheHitCounter;
     private final Counter cacheMissCounter;
+    private final Counter negativeCacheHitCounter;
+    private final Counter negativeCacheMissCounter;
     private final Timer featureCheckTimer;
+    private final Timer batchCheckTimer;
+    private final Timer auditFlushTimer;
+    private final Counter auditWrittenCounter;
+    private final Counter auditDroppedCounter;
+    private final Counter leadershipAcquiredCounter;
+    private final Counter leadershipLostCounter;
+    private final Counter leadershipReleasedCounter;
 
     public MetricsService(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
@@ -28,21 +42,52 @@ public class MetricsService {
                 .description("Number of cache misses for feature toggle checks")
                 .register(meterRegistry);
         
+        this.negativeCacheHitCounter = Counter.builder("feature_toggle_negative_cache_hits")
+                .description("Number of checks for unknown features answered by the negative cache")
+                .register(meterRegistry);
+        
+        this.negativeCacheMissCounter = Counter.builder("feature_toggle_negative_cache_misses")
+                .description("Number of checks for unknown features that had to query the database")
+                .register(meterRegistry);
+        
         this.featureCheckTimer = Timer.builder("feature_toggle_check_duration")
                 .description("Time taken to check feature toggle")
                 .register(meterRegistry);
+        
+        this.batchCheckTimer = Timer.builder("feature_toggle_batch_check_duration")
+                .description("Time taken to check one batch of feature toggles")
+                .register(meterRegistry);
+        
+        this.auditFlushTimer = Timer.builder("feature_toggle_audit_flush_duration")
+                .description("Time taken to write one batch of audit log entries")
+                .register(meterRegistry);
+        
+        this.auditWrittenCounter = Counter.builder("feature_toggle_audit_written")
+                .description("Number of audit log entries written")
+                .register(meterRegistry);
+        
+        this.auditDroppedCounter = Counter.builder("feature_toggle_audit_dropped")
+                .description("Number of audit log entries dropped because the queue was full or a flush failed")
+                .register(meterRegistry);
+        
+        this.leadershipAcquiredCounter = leaderTransitionCounter("acquired");
+        this.leadershipLostCounter = leaderTransitionCounter("lost");
+        this.leadershipReleasedCounter = leaderTransitionCounter("released");
     }
 
     public void recordFeatureCheck(String featureName, boolean enabled) {
-        String result = enabled ? "enabled" : "disabled";
-        featureCheckCounters.computeIfAbsent(
-                featureName + "_" + result,
-                key -> Counter.builder("feature_toggle_checks")
-                        .tag("feature", featureName)
-                        .tag("result", result)
-                        .description("Number of feature toggle checks")
-                        .register(meterRegistry)
-        ).increment();
+        // Looked up without building a composite key so that the hot path does not allocate
+        Map<String, Counter> counters = enabled ? enabledCheckCounters : disabledCheckCounters;
+        Counter counter = counters.get(featureName);
+        if (counter == null) {
+            String result = enabled ? "enabled" : "disabled";
+            counter = counters.computeIfAbsent(featureName, key -> Counter.builder("feature_toggle_checks")
+                    .tag("feature", key)
+                    .tag("result", result)
+                    .description("Number of feature toggle checks")
+                    .register(meterRegistry));
+        }
+        counter.increment();
     }
 
     public void recordCacheHit() {
@@ -53,7 +98,70 @@ public class MetricsService {
         cacheMissCounter.increment();
     }
 
-    public <T> T timeFeatureCheck(Supplier<T> supplier) {
-        return featureCheckTimer.record(supplier);
+    public void recordNegativeCacheHit() {
+        negativeCacheHitCounter.increment();
+    }
+
+    public void recordNegativeCacheMiss() {
+        negativeCacheMissCounter.increment();
+    }
+
+    public void recordCoalescedLoad(String type) {
+        coalescedLoadCounters.computeIfAbsent(
+                type,
+                key -> Counter.builder("feature_toggle_coalesced_loads")
+                        .tag("type", type)
+                        .description("Number of cache loads that waited on an in-flight load for the same key")
+                        .register(meterRegistry)
+        ).increment();
+    }
+
+    public void registerGauge(String name, String description, Supplier<Number> value) {
+        Gauge.builder(name, value)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    public void recordFeatureCheckDuration(long nanos) {
+        featureCheckTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBatchCheckDuration(long nanos) {
+        batchCheckTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordAuditFlush(int entries, long nanos) {
+        auditFlushTimer.record(nanos, TimeUnit.NANOSECONDS);
+        auditWrittenCounter.increment(entries);
+    }
+
+    public void recordAuditDropped(int entries) {
+        auditDroppedCounter.increment(entries);
+    }
+
+    public void registerLeaderGauge(String nodeId, Supplier<Number> value) {
+        Gauge.builder("feature_toggle_leader", value)
+                .tag("node", nodeId)
+                .description("1 while this instance holds the scheduler lease, 0 otherwise")
+                .register(meterRegistry);
+    }
+
+    public void recordLeadershipAcquired() {
+        leadershipAcquiredCounter.increment();
+    }
+
+    public void recordLeadershipLost() {
+        leadershipLostCounter.increment();
+    }
+
+    public void recordLeadershipReleased() {
+        leadershipReleasedCounter.increment();
+    }
+
+    private Counter leaderTransitionCounter(String event) {
+        return Counter.builder("feature_toggle_leader_transitions")
+                .tag("event", event)
+                .description("Number of times this instance took, lost or released the scheduler lease")
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,73 @@
+package io.raspiska.featuretoggle.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded set of feature names known not to exist, each remembered for a fixed TTL.
+ * When full, expired entries are purged first, at most once per purge interval; if the
+ * cache is still full the new name is simply not remembered.
+ */
+class NegativeCache {
+
+    private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+    private final long purgeIntervalMillis;
+    private final AtomicLong nextPurgeAt = new AtomicLong();
+
+    NegativeCache(int maxSize, long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.purgeIntervalMillis = Math.clamp(ttlMillis, 1, 1000);
+    }
+
+    boolean contains(String featureName) {
+        Long expiresAt = expiries.get(featureName);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt < System.currentTimeMillis()) {
+            expiries.remove(featureName, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    void put(String featureName) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (expiries.size() >= maxSize) {
+            purgeExpiredIfDue();
+            if (expiries.size() >= maxSize) {
+                return;
+            }
+        }
+        expiries.put(featureName, System.currentTimeMillis() + ttlMillis);
+    }
+
+    void remove(String featureName) {
+        expiries.remove(featureName);
+    }
+
+    void clear() {
+        expiries.clear();
+    }
+
+    int size() {
+        return expiries.size();
+    }
+
+    private void purgeExpiredIfDue() {
+        // A flood of unknown names keeps the cache full; scanning it on every put would
+        // put a full pass over maxSize entries on the hot path
+        long now = System.currentTimeMillis();
+        long due = nextPurgeAt.get();
+        if (now < due || !nextPurgeAt.compareAndSet(due, now + purgeIntervalMillis)) {
+            return;
+        }
+        expiries.values().removeIf(expiresAt -> expiresAt < now);
+    }
+}
@@ -0,0 +1,51 @@
+package io.raspiska.featuretoggle.service;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Lease in a Redis key: acquired with {@code SET NX PX}, renewed and released by scripts
+ * that only touch the key while it still names the caller.
+ */
+class RedisLeaseStore implements LeaseStore {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final String key;
+    private final DefaultRedisScript<Long> renewScript;
+    private final DefaultRedisScript<Long> releaseScript;
+
+    RedisLeaseStore(RedisTemplate<String, Object> redisTemplate, String key) {
+        this.redisTemplate = redisTemplate;
+        this.key = key;
+        this.renewScript = script("scripts/renew-lease.lua");
+        this.releaseScript = script("scripts/release-lease.lua");
+    }
+
+    @Override
+    public boolean acquire(String holder, long leaseMs) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, holder, Duration.ofMillis(leaseMs)));
+    }
+
+    @Override
+    public boolean renew(String holder, long leaseMs) {
+        // Arguments go through the template's value serializer, matching the stored holder
+        Long renewed = redisTemplate.execute(renewScript, List.of(key), holder, leaseMs);
+        return renewed != null && renewed == 1;
+    }
+
+    @Override
+    public void release(String holder) {
+        redisTemplate.execute(releaseScript, List.of(key), holder);
+    }
+
+    private static DefaultRedisScript<Long> script(String location) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(location));
+        script.setResultType(Long.class);
+        return script;
+    }
+}
@@ -0,0 +1,33 @@
+package io.raspiska.featuretoggle.service;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Compare-and-set write of a toggle hash: a reader that loaded an older version can
+ * never overwrite what a newer writer already put into Redis.
+ */
+class SaveToggleScript {
+
+    private final DefaultRedisScript<Long> script;
+
+    SaveToggleScript() {
+        this.script = new DefaultRedisScript<>();
+        this.script.setLocation(new ClassPathResource("scripts/save-toggle.lua"));
+        this.script.setResultType(Long.class);
+    }
+
+    RedisScript<Long> script() {
+        return script;
+    }
+
+    void save(RedisOperations<String, Object> operations, String key, String status, long id, long version,
+              long ttlSeconds) {
+        // Arguments go through the template's value serializer, matching how the hash is read back
+        operations.execute(script, List.of(key), version, status, id, ttlSeconds);
+    }
+}
@@ -1,54 +1,275 @@
 package io.raspiska.featuretoggle.service;
 
+import io.raspiska.featuretoggle.ApplicationProperties;
 import io.raspiska.featuretoggle.entity.AuditLog.AuditAction;
 import io.raspiska.featuretoggle.entity.FeatureToggle;
+import io.raspiska.featuretoggle.entity.FeatureToggleChange.ChangeType;
+import io.raspiska.featuretoggle.entity.ToggleSchedule;
 import io.raspiska.featuretoggle.repository.FeatureToggleRepository;
-import lombok.RequiredArgsConstructor;
+import io.raspiska.featuretoggle.repository.ToggleScheduleRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+/**
+ * Applies scheduled status changes from an in-memory delay queue instead of polling the
+ * database. Only the instance elected by {@link LeaderElection} keeps timers: pending entries
+ * are loaded when it gains the lease and re-read for a feature whenever a change to it is
+ * committed here or announced by another instance, and all timers are dropped when the lease
+ * is lost. A periodic reconcile arms entries due soon that have no timer, in case an
+ * announcement was lost. An entry is still claimed by deleting its row, so a former leader
+ * that has not yet noticed the loss cannot apply it a second time.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ScheduledToggleService {
 
+    static final long RETRY_DELAY_MS = 5000;
+
     private final FeatureToggleRepository toggleRepository;
+    private final ToggleScheduleRepository scheduleRepository;
     private final FeatureToggleCacheService cacheService;
     private final AuditLogService auditLogService;
+    private final ChangeFeedService changeFeedService;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaderElection leaderElection;
+    private final long reconcileIntervalMs;
+    // One thread: timers fire on it and every change to `timers` is made from it
+    private final ScheduledThreadPoolExecutor executor;
+    private final Map<Long, Timer> timers = new ConcurrentHashMap<>();
+
+    public ScheduledToggleService(FeatureToggleRepository toggleRepository,
+                                  ToggleScheduleRepository scheduleRepository,
+                                  FeatureToggleCacheService cacheService,
+                                  AuditLogService auditLogService,
+                                  ChangeFeedService changeFeedService,
+                                  TransactionTemplate transactionTemplate,
+                                  LeaderElection leaderElection,
+                                  ApplicationProperties properties,
+                                  MetricsService metricsService) {
+        this.toggleRepository = toggleRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.cacheService = cacheService;
+        this.auditLogService = auditLogService;
+        this.changeFeedService = changeFeedService;
+        this.transactionTemplate = transactionTemplate;
+        this.leaderElection = leaderElection;
+        this.reconcileIntervalMs = properties.getSchedules().getReconcileIntervalMs();
+        this.executor = new ScheduledThreadPoolExecutor(1, Thread.ofPlatform().name("toggle-scheduler").daemon().factory());
+        this.executor.setRemoveOnCancelPolicy(true);
+        cacheService.addChangeListener(this::onToggleChanged);
+        leaderElection.addListener(this::onLeadershipChanged);
+        metricsService.registerGauge("feature_toggle_schedules_pending",
+                "Number of scheduled toggle changes waiting to fire on this instance", timers::size);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Mirrors the earliest pending entry into the toggle's {@code scheduledStatus}/{@code scheduledAt}.
+     */
+    public void refreshNextSchedule(FeatureToggle toggle) {
+        ToggleSchedule next = scheduleRepository.findFirstByFeatureIdOrderByScheduledAtAscIdAsc(toggle.getId()).orElse(null);
+        toggle.setScheduledStatus(next != null ? next.getScheduledStatus() : null);
+        toggle.setScheduledAt(next != null ? next.getScheduledAt() : null);
+    }
+
+    int pendingCount() {
+        return timers.size();
+    }
+
+    void onLeadershipChanged(boolean leader) {
+        if (leader) {
+            submit(() -> {
+                migrateLegacySchedules();
+                reloadAll();
+            });
+        } else {
+            submit(this::cancelAll);
+        }
+    }
+
+    void onToggleChanged(String featureName, long version) {
+        // Checked on the scheduler thread, so a reload cannot re-arm timers after cancelAll
+        if (InvalidationMessage.WILDCARD.equals(featureName)) {
+            submit(() -> {
+                if (leaderElection.isLeader()) {
+                    reloadAll();
+                }
+            });
+        } else {
+            submit(() -> {
+                if (leaderElection.isLeader()) {
+                    reload(featureName);
+                }
+            });
+        }
+    }
 
-    @Scheduled(fixedRate = 60000)
-    @Transactional
-    public void processScheduledToggles() {
-        List<FeatureToggle> scheduledToggles = toggleRepository
-                .findByScheduledAtNotNullAndScheduledAtBefore(Instant.now());
+    /**
+     * Safety net for announcements this instance missed, e.g. a dropped pub/sub message. Only
+     * entries due before the run after next are read, so it stays a range scan of the index.
+     */
+    @Scheduled(fixedDelayString = "${feature-toggle.schedules.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        submit(() -> {
+            if (leaderElection.isLeader()) {
+                reconcileDue(Instant.now().plusMillis(2 * reconcileIntervalMs));
+            }
+        });
+    }
 
-        for (FeatureToggle toggle : scheduledToggles) {
+    void reconcileDue(Instant before) {
+        int armed = 0;
+        for (ToggleSchedule entry : scheduleRepository.findByScheduledAtBeforeOrderByScheduledAtAscIdAsc(before)) {
+            if (!timers.containsKey(entry.getId())) {
+                arm(entry, delayUntil(entry.getScheduledAt()));
+                armed++;
+            }
+        }
+        if (armed > 0) {
+            log.warn("Reconcile armed {} scheduled toggle changes that had no timer", armed);
+        }
+    }
+
+    void reloadAll() {
+        List<ToggleSchedule> pending = scheduleRepository.findAllByOrderByScheduledAtAscIdAsc();
+        cancelAll();
+        pending.forEach(entry -> arm(entry, delayUntil(entry.getScheduledAt())));
+        log.info("Loaded {} scheduled toggle changes", pending.size());
+    }
+
+    void reload(String featureName) {
+        FeatureToggle toggle = toggleRepository.findByFeatureName(featureName).orElse(null);
+        if (toggle == null) {
+            // Timers of a deleted toggle find their entries gone when they fire
+            return;
+        }
+        List<ToggleSchedule> pending = scheduleRepository.findByFeatureIdOrderByScheduledAtAscIdAsc(toggle.getId());
+        Set<Long> pendingIds = pending.stream().map(ToggleSchedule::getId).collect(Collectors.toSet());
+        timers.entrySet().removeIf(timer -> {
+            boolean cancelled = timer.getValue().featureId() == toggle.getId() && !pendingIds.contains(timer.getKey());
+            if (cancelled) {
+                timer.getValue().future().cancel(false);
+            }
+            return cancelled;
+        });
+        for (ToggleSchedule entry : pending) {
+            if (!timers.containsKey(entry.getId())) {
+                arm(entry, delayUntil(entry.getScheduledAt()));
+            }
+        }
+    }
+
+    private void cancelAll() {
+        timers.values().forEach(timer -> timer.future().cancel(false));
+        timers.clear();
+    }
+
+    private void arm(ToggleSchedule entry, long delayNanos) {
+        ScheduledFuture<?> future = executor.schedule(() -> fire(entry), delayNanos, TimeUnit.NANOSECONDS);
+        timers.put(entry.getId(), new Timer(entry.getFeatureId(), future));
+    }
+
+    private void fire(ToggleSchedule entry) {
+        timers.remove(entry.getId());
+        if (!leaderElection.isLeader()) {
+            // Lease ran out and the loss is not reported yet; the next leader reloads this entry
+            return;
+        }
+        try {
+            apply(entry);
+        } catch (Exception e) {
+            log.error("Failed to apply scheduled toggle change {}, retrying in {} ms", entry.getId(), RETRY_DELAY_MS, e);
+            arm(entry, TimeUnit.MILLISECONDS.toNanos(RETRY_DELAY_MS));
+        }
+    }
+
+    void apply(ToggleSchedule entry) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (scheduleRepository.deleteEntry(entry.getId()) == 0) {
+                // Cancelled, or already applied by another instance
+                return;
+            }
+            FeatureToggle toggle = toggleRepository.findById(entry.getFeatureId()).orElse(null);
+            if (toggle == null) {
+                return;
+            }
+            String oldStatus = toggle.getStatus().name();
+            toggle.setStatus(entry.getScheduledStatus());
+            refreshNextSchedule(toggle);
+            toggleRepository.save(toggle);
+
+            changeFeedService.record(toggle, ChangeType.UPDATED);
+            cacheService.invalidateCache(toggle.getFeatureName());
+            auditLogService.log(
+                    toggle.getFeatureName(),
+                    AuditAction.SCHEDULE_APPLIED,
+                    "SYSTEM",
+                    "Scheduled status change from " + oldStatus + " to " + toggle.getStatus()
+            );
+            log.info("Applied scheduled toggle change: {} -> {} ({} ms after schedule)", toggle.getFeatureName(),
+                    toggle.getStatus(), Duration.between(entry.getScheduledAt(), Instant.now()).toMillis());
+        });
+    }
+
+    /**
+     * Schedules set before entries had their own table only exist as the toggle's
+     * {@code scheduledStatus}/{@code scheduledAt} pair.
+     */
+    private void migrateLegacySchedules() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (FeatureToggle toggle : toggleRepository.findByScheduledAtNotNull()) {
+                if (toggle.getScheduledStatus() != null && !scheduleRepository.existsByFeatureId(toggle.getId())) {
+                    scheduleRepository.save(ToggleSchedule.builder()
+                            .featureId(toggle.getId())
+                            .scheduledStatus(toggle.getScheduledStatus())
+                            .scheduledAt(toggle.getScheduledAt())
+                            .build());
+                }
+            }
+        });
+    }
+
+    private void submit(Runnable task) {
+        if (executor.isShutdown()) {
+            // Leadership or toggle changes reported while the application shuts down
+            return;
+        }
+        executor.execute(() -> {
             try {
-                String oldStatus = toggle.getStatus().name();
-                toggle.setStatus(toggle.getScheduledStatus());
-                toggle.setScheduledStatus(null);
-                toggle.setScheduledAt(null);
-                toggleRepository.save(toggle);
-
-                cacheService.invalidateCache(toggle.getFeatureName());
-                
-                auditLogService.log(
-                        toggle.getFeatureName(),
-                        AuditAction.SCHEDULE_APPLIED,
-                        "SYSTEM",
-                        "Scheduled status change from " + oldStatus + " to " + toggle.getStatus()
-                );
-
-                log.info("Applied scheduled toggle change: {} -> {}", 
-                        toggle.getFeatureName(), toggle.getStatus());
+                task.run();
             } catch (Exception e) {
-                log.error("Failed to apply scheduled toggle: {}", toggle.getFeatureName(), e);
+                log.error("Toggle scheduler task failed", e);
             }
+        });
+    }
+
+    private static long delayUntil(Instant scheduledAt) {
+        Duration delay = Duration.between(Instant.now(), scheduledAt);
+        if (delay.isNegative()) {
+            return 0;
         }
+        // Centuries ahead overflow a nanosecond count; the executor handles Long.MAX_VALUE
+        return delay.getSeconds() < Long.MAX_VALUE / 1_000_000_000L - 1 ? delay.toNanos() : Long.MAX_VALUE;
+    }
+
+    private record Timer(long featureId, ScheduledFuture<?> future) {
     }
 }
@@ -0,0 +1,12 @@
+package io.raspiska.featuretoggle.service;
+
+/**
+ * Notified after a toggle change was committed locally or announced by another instance.
+ * The same change can be reported more than once, listeners deduplicate by version.
+ * {@link InvalidationMessage#WILDCARD} reports that any toggle may have changed.
+ */
+@FunctionalInterface
+public interface ToggleChangeListener {
+
+    void onToggleChanged(String featureName, long version);
+}
@@ -0,0 +1,256 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.dto.ToggleChangeEvent;
+import io.raspiska.featuretoggle.entity.FeatureToggleChange;
+import io.raspiska.featuretoggle.entity.FeatureToggleChange.ChangeType;
+import io.raspiska.featuretoggle.repository.FeatureToggleChangeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed toggle changes to Server-Sent Events subscribers. Idle streams hold no
+ * thread: emitters are async requests, and a subscriber is drained by a virtual thread only
+ * while it has pending events. Events are read from the change log in id order by a single
+ * catch-up task, and the change log id is the event ID, which is the same on every instance,
+ * so a client can resume on any node with {@code Last-Event-ID}.
+ */
+@Slf4j
+@Service
+public class ToggleChangeStream {
+
+    static final String CHANGE_EVENT = "toggle-change";
+    static final String RESET_EVENT = "reset";
+    private static final int CATCH_UP_BATCH_SIZE = 500;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Deque<Change> recentEvents = new ArrayDeque<>();
+    private final AtomicBoolean catchUpScheduled = new AtomicBoolean();
+    // Held by the one catch-up that may run at a time, so changes are published in id order
+    private final Object catchUpLock = new Object();
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("toggle-stream-", 0).factory());
+    private final FeatureToggleChangeRepository changeRepository;
+    private final ApplicationProperties.Stream properties;
+    // Last change log id handed to subscribers, guarded by recentEvents
+    private long lastPublishedId;
+    // Oldest Last-Event-ID that replay can still serve without gaps, guarded by recentEvents
+    private long replayHorizon;
+
+    public ToggleChangeStream(FeatureToggleCacheService cacheService,
+                              FeatureToggleChangeRepository changeRepository,
+                              ApplicationProperties properties,
+                              MetricsService metricsService) {
+        this.changeRepository = changeRepository;
+        this.properties = properties.getStream();
+        this.lastPublishedId = changeRepository.findLatestVersion();
+        this.replayHorizon = lastPublishedId;
+        cacheService.addChangeListener(this::onToggleChanged);
+        metricsService.registerGauge("feature_toggle_stream_subscribers",
+                "Number of open toggle change streams", subscribers::size);
+    }
+
+    public SseEmitter subscribe(@Nullable String lastEventId) {
+        return subscribe(new SseEmitter(TimeUnit.SECONDS.toMillis(properties.getTimeoutSeconds())), parseEventId(lastEventId));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, @Nullable Long lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        // An ID beyond the change log was not issued by any instance
+        boolean unknown = lastEventId != null && lastEventId > changeRepository.findLatestVersion();
+        synchronized (recentEvents) {
+            // Replayed and registered under the publishing lock, so no event falls in between
+            if (lastEventId != null && (unknown || lastEventId < replayHorizon)) {
+                subscriber.offer(SseEmitter.event().name(RESET_EVENT).data(""));
+            } else if (lastEventId != null) {
+                // Also skips what this instance has yet to publish when the client was ahead of it
+                subscriber.lastEventId = lastEventId;
+                recentEvents.forEach(subscriber::offer);
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Every announcement, wildcards included, only wakes the catch-up: what changed is read
+     * from the change log, so announcements may be coalesced, repeated or reordered.
+     */
+    public void onToggleChanged(String featureName, long version) {
+        scheduleCatchUp();
+    }
+
+    /**
+     * Safety net for changes made by instances this one does not hear about, e.g. without Redis.
+     */
+    @Scheduled(fixedDelayString = "${feature-toggle.changes.poll-interval-ms:1000}")
+    public void pollForChanges() {
+        if (!subscribers.isEmpty()) {
+            scheduleCatchUp();
+        }
+    }
+
+    private void scheduleCatchUp() {
+        if (!catchUpScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            catchUpScheduled.set(false);
+            try {
+                catchUp();
+            } catch (Exception e) {
+                log.warn("Failed to publish toggle changes", e);
+            }
+        });
+    }
+
+    private void catchUp() {
+        synchronized (catchUpLock) {
+            List<FeatureToggleChange> rows;
+            do {
+                long after;
+                synchronized (recentEvents) {
+                    after = lastPublishedId;
+                }
+                rows = changeRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(CATCH_UP_BATCH_SIZE));
+                rows.forEach(this::publish);
+            } while (rows.size() == CATCH_UP_BATCH_SIZE);
+        }
+    }
+
+    private void publish(FeatureToggleChange row) {
+        Change change = new Change(row.getId(), ToggleChangeEvent.builder()
+                .featureName(row.getFeatureName())
+                .status(row.getStatus())
+                .version(row.getToggleVersion())
+                .deleted(row.getChangeType() == ChangeType.DELETED)
+                .build());
+        synchronized (recentEvents) {
+            lastPublishedId = change.id();
+            recentEvents.addLast(change);
+            if (recentEvents.size() > properties.getReplaySize()) {
+                replayHorizon = Math.max(replayHorizon, recentEvents.removeFirst().id());
+            }
+            subscribers.forEach(subscriber -> subscriber.offer(change));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${feature-toggle.stream.heartbeat-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void sendHeartbeats() {
+        // Also how connections closed by the client are noticed and released
+        subscribers.forEach(subscriber -> subscriber.offer(SseEmitter.event().comment("heartbeat")));
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+        executor.shutdownNow();
+    }
+
+    private static SseEmitter.SseEventBuilder toSse(Change change) {
+        // Builders are not reusable, each subscriber gets its own
+        return SseEmitter.event()
+                .id(Long.toString(change.id()))
+                .name(CHANGE_EVENT)
+                .data(change.event());
+    }
+
+    @Nullable
+    private static Long parseEventId(@Nullable String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            // Not one of ours, the client has to resynchronize
+            return -1L;
+        }
+    }
+
+    private record Change(long id, ToggleChangeEvent event) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        // Guarded by recentEvents
+        private long lastEventId;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Change change) {
+            if (change.id() <= lastEventId) {
+                return;
+            }
+            lastEventId = change.id();
+            offer(toSse(change));
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (pendingCount.incrementAndGet() > properties.getMaxPendingEvents()) {
+                // Too far behind; the client reconnects and resumes from its Last-Event-ID
+                close();
+                return;
+            }
+            pending.add(event);
+            if (draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while ((event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        close();
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        void close() {
+            subscribers.remove(this);
+            pending.clear();
+            emitter.complete();
+        }
+    }
+}
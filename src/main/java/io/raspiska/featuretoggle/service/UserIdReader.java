@@ -0,0 +1,89 @@
+package io.raspiska.featuretoggle.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads user IDs one line at a time from an upload, without holding the whole body.
+ * NDJSON lines are either a JSON string or an object with a {@code userId} field; CSV
+ * lines contribute their first column, and a {@code userId}/{@code user_id} header is skipped.
+ */
+class UserIdReader {
+
+    private final BufferedReader reader;
+    private final UserListImportService.Format format;
+    private final ObjectMapper objectMapper;
+    private long lineNumber;
+
+    UserIdReader(Reader reader, UserListImportService.Format format, ObjectMapper objectMapper) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return the next user ID, or null at the end of the input
+     */
+    String next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String userId = format == UserListImportService.Format.NDJSON ? parseJson(line.trim()) : parseCsv(line);
+            if (userId != null && !userId.isEmpty()) {
+                return userId;
+            }
+        }
+        return null;
+    }
+
+    private String parseJson(String line) {
+        if (line.isEmpty()) {
+            return null;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            JsonNode value = node.isObject() ? node.get("userId") : node;
+            if (value != null && value.isTextual()) {
+                return value.asText().trim();
+            }
+        } catch (IOException e) {
+            // Reported below together with JSON that is valid but not a user ID
+        }
+        throw new IllegalArgumentException("Invalid user ID on line " + lineNumber);
+    }
+
+    private String parseCsv(String line) {
+        String field = firstCsvField(line).trim();
+        if (lineNumber == 1 && (field.equalsIgnoreCase("userId") || field.equalsIgnoreCase("user_id"))) {
+            return null;
+        }
+        return field;
+    }
+
+    private static String firstCsvField(String line) {
+        String trimmed = line.stripLeading();
+        if (!trimmed.startsWith("\"")) {
+            int comma = trimmed.indexOf(',');
+            return comma < 0 ? trimmed : trimmed.substring(0, comma);
+        }
+        StringBuilder field = new StringBuilder();
+        for (int i = 1; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c == '"') {
+                if (i + 1 < trimmed.length() && trimmed.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    break;
+                }
+            } else {
+                field.append(c);
+            }
+        }
+        return field.toString();
+    }
+}
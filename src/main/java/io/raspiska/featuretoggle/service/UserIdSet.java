@@ -0,0 +1,111 @@
+package io.raspiska.featuretoggle.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable open-addressing hash set of user IDs. Entries live directly in a single
+ * array with linear probing, avoiding the per-entry node objects of {@link HashSet}
+ * so that lists with millions of users stay compact in memory.
+ */
+final class UserIdSet {
+
+    static final UserIdSet EMPTY = new UserIdSet(new String[1], 0);
+
+    private final String[] table;
+    private final int size;
+
+    private UserIdSet(String[] table, int size) {
+        this.table = table;
+        this.size = size;
+    }
+
+    static UserIdSet of(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return EMPTY;
+        }
+        String[] table = new String[tableSizeFor(userIds.size())];
+        int size = 0;
+        for (String userId : userIds) {
+            if (insert(table, userId)) {
+                size++;
+            }
+        }
+        return new UserIdSet(table, size);
+    }
+
+    boolean contains(String userId) {
+        if (size == 0 || userId == null) {
+            return false;
+        }
+        int mask = table.length - 1;
+        for (int i = spread(userId.hashCode()) & mask; ; i = (i + 1) & mask) {
+            String candidate = table[i];
+            if (candidate == null) {
+                return false;
+            }
+            if (candidate.equals(userId)) {
+                return true;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    UserIdSet with(Collection<String> added) {
+        if (added.isEmpty()) {
+            return this;
+        }
+        List<String> all = new ArrayList<>(size + added.size());
+        for (String userId : table) {
+            if (userId != null) {
+                all.add(userId);
+            }
+        }
+        all.addAll(added);
+        return of(all);
+    }
+
+    UserIdSet without(Collection<String> removed) {
+        if (removed.isEmpty() || size == 0) {
+            return this;
+        }
+        Set<String> toRemove = removed instanceof Set<String> set ? set : new HashSet<>(removed);
+        List<String> remaining = new ArrayList<>(size);
+        for (String userId : table) {
+            if (userId != null && !toRemove.contains(userId)) {
+                remaining.add(userId);
+            }
+        }
+        return remaining.size() == size ? this : of(remaining);
+    }
+
+    private static boolean insert(String[] table, String userId) {
+        int mask = table.length - 1;
+        for (int i = spread(userId.hashCode()) & mask; ; i = (i + 1) & mask) {
+            String candidate = table[i];
+            if (candidate == null) {
+                table[i] = userId;
+                return true;
+            }
+            if (candidate.equals(userId)) {
+                return false;
+            }
+        }
+    }
+
+    private static int tableSizeFor(int entries) {
+        // Keeps the load factor at or below 0.5 so probe sequences stay short
+        int capacity = Integer.highestOneBit(Math.max(entries, 1) * 2 - 1) << 1;
+        return Math.max(capacity, 2);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,177 @@
+package io.raspiska.featuretoggle.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.dto.UserListImportProgress;
+import io.raspiska.featuretoggle.dto.UserListReplaceResponse;
+import io.raspiska.featuretoggle.entity.AuditLog.AuditAction;
+import io.raspiska.featuretoggle.entity.FeatureToggle;
+import io.raspiska.featuretoggle.entity.FeatureToggleUser.ListType;
+import io.raspiska.featuretoggle.repository.FeatureToggleRepository;
+import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository;
+import io.raspiska.featuretoggle.repository.FeatureToggleUserRepositoryCustom.ListDelta;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Streams user IDs from an upload into a whitelist or blacklist. Every chunk is inserted
+ * as one JDBC batch in its own transaction, so an import of any size holds only one chunk
+ * in memory and a failure keeps the chunks committed before it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserListImportService {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private final FeatureToggleRepository toggleRepository;
+    private final FeatureToggleUserRepository userRepository;
+    private final FeatureToggleCacheService cacheService;
+    private final AuditLogService auditLogService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationProperties properties;
+
+    public long requireFeatureId(String featureName) {
+        return toggleRepository.findByFeatureName(featureName)
+                .map(FeatureToggle::getId)
+                .orElseThrow(() -> new EntityNotFoundException("Feature toggle not found: " + featureName));
+    }
+
+    /**
+     * @param progress called after every committed chunk and once more when the import is done
+     */
+    public UserListImportProgress importUsers(String featureName, ListType listType, Format format, Reader input,
+                                              String actor, Consumer<UserListImportProgress> progress) throws IOException {
+        long featureId = requireFeatureId(featureName);
+        int chunkSize = Math.max(properties.getListImport().getChunkSize(), 1);
+        UserIdReader reader = new UserIdReader(input, format, objectMapper);
+
+        List<String> chunk = new ArrayList<>(chunkSize);
+        long received = 0;
+        long added = 0;
+        try {
+            String userId;
+            while ((userId = reader.next()) != null) {
+                chunk.add(userId);
+                received++;
+                if (chunk.size() == chunkSize) {
+                    added += insertChunk(featureName, featureId, listType, chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                    progress.accept(progress(featureName, listType, received, added, false));
+                }
+            }
+            if (!chunk.isEmpty()) {
+                added += insertChunk(featureName, featureId, listType, chunk);
+            }
+        } finally {
+            if (added > 0) {
+                AuditAction action = listType == ListType.WHITELIST ? AuditAction.ADD_TO_WHITELIST : AuditAction.ADD_TO_BLACKLIST;
+                auditLogService.log(featureName, action, actor, "Imported " + added + " users");
+            }
+            log.info("Imported {} of {} users into {} for feature: {}", added, received, listType, featureName);
+        }
+
+        UserListImportProgress result = progress(featureName, listType, received, added, true);
+        progress.accept(result);
+        return result;
+    }
+
+    /**
+     * Makes the list equal to the uploaded user IDs. The upload is staged chunk by chunk in
+     * short transactions, and only the set-based swap runs in one write transaction, so the
+     * list changes all at once without holding the database while the body streams in.
+     * Caches only swap to the new content after the commit.
+     */
+    public UserListReplaceResponse replaceUsers(String featureName, ListType listType, Format format, Reader input,
+                                                String actor) {
+        long featureId = requireFeatureId(featureName);
+        int chunkSize = Math.max(properties.getListImport().getChunkSize(), 1);
+        UserIdReader reader = new UserIdReader(input, format, objectMapper);
+        String uploadId = UUID.randomUUID().toString();
+
+        long received = 0;
+        ListDelta delta;
+        try {
+            List<String> chunk = new ArrayList<>(chunkSize);
+            String userId;
+            while ((userId = reader.next()) != null) {
+                chunk.add(userId);
+                received++;
+                if (chunk.size() == chunkSize) {
+                    stageChunk(uploadId, chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            stageChunk(uploadId, chunk);
+
+            delta = transactionTemplate.execute(status -> {
+                ListDelta applied = userRepository.replaceWithStaged(uploadId, featureId, listType);
+                if (applied.added() > 0 || applied.removed() > 0) {
+                    cacheService.onUserListReplaced(featureName, listType);
+                }
+                return applied;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> userRepository.clearStaged(uploadId));
+        }
+
+        UserListReplaceResponse result = UserListReplaceResponse.builder()
+                .featureName(featureName)
+                .listType(listType)
+                .received(received)
+                .added(delta.added())
+                .removed(delta.removed())
+                .build();
+        if (result.getAdded() > 0 || result.getRemoved() > 0) {
+            AuditAction action = listType == ListType.WHITELIST ? AuditAction.REPLACE_WHITELIST : AuditAction.REPLACE_BLACKLIST;
+            auditLogService.log(featureName, action, actor,
+                    "Replaced list: added " + result.getAdded() + ", removed " + result.getRemoved() + " users");
+        }
+        log.info("Replaced {} for feature {}: {} added, {} removed", listType, featureName, result.getAdded(), result.getRemoved());
+        return result;
+    }
+
+    private void stageChunk(String uploadId, List<String> userIds) {
+        if (!userIds.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> userRepository.stage(uploadId, userIds));
+        }
+    }
+
+    private int insertChunk(String featureName, long featureId, ListType listType, List<String> userIds) {
+        List<String> inserted = transactionTemplate.execute(status -> {
+            List<String> batch = userRepository.insertMissing(featureId, listType, userIds);
+            cacheService.onUsersAdded(featureName, listType, batch);
+            return batch;
+        });
+        return inserted != null ? inserted.size() : 0;
+    }
+
+    private static UserListImportProgress progress(String featureName, ListType listType, long received, long added,
+                                                   boolean done) {
+        return UserListImportProgress.builder()
+                .featureName(featureName)
+                .listType(listType)
+                .received(received)
+                .added(added)
+                .done(done)
+                .build();
+    }
+}
@@ -0,0 +1,9 @@
+-- Adds users to a cached list set, but only to a complete one.
+-- KEYS[1] list set
+-- ARGV[1] list loaded marker, ARGV[2..n] user ids
+-- A missing or partially written set is left alone, it is loaded in full on the next read.
+-- Returns the number of users added
+if redis.call('SISMEMBER', KEYS[1], ARGV[1]) == 0 then
+    return 0
+end
+return redis.call('SADD', KEYS[1], unpack(ARGV, 2))
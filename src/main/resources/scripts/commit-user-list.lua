@@ -0,0 +1,14 @@
+-- Moves a fully written staging set over a cached list, unless the list changed since it was read.
+-- KEYS[1] list set, KEYS[2] staging set, KEYS[3] list version counter
+-- ARGV[1] list version read before loading the list from the database
+-- ARGV[2] 1 to replace an existing set, 0 to only write a missing one
+-- Every list mutation increments the counter before touching the set, so a list loaded
+-- before a mutation can never be written after it. RENAME keeps the staging set's TTL.
+-- Returns 1 when the list was written, 0 when the staging set was discarded
+local version = redis.call('GET', KEYS[3]) or '0'
+if version ~= ARGV[1] or (ARGV[2] ~= '1' and redis.call('EXISTS', KEYS[1]) == 1) then
+    redis.call('DEL', KEYS[2])
+    return 0
+end
+redis.call('RENAME', KEYS[2], KEYS[1])
+return 1
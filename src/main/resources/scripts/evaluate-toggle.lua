@@ -0,0 +1,33 @@
+-- Evaluates a toggle for one user in a single round trip.
+-- KEYS[1] toggle hash, KEYS[2] blacklist set, KEYS[3] whitelist set
+-- ARGV[1] user id, ARGV[2] list loaded marker, ARGV[3..5] ENABLED, DISABLED, LIST_MODE
+-- Returns {decision code, toggle version}, see ListModeScript.Decision; the version is
+-- left out for toggles written without one
+local toggle = redis.call('HMGET', KEYS[1], 'status', 'version')
+local status = toggle[1]
+local version = toggle[2]
+if not status then
+    return {0}
+end
+if status == ARGV[3] then
+    return {1, version}
+end
+if status == ARGV[4] then
+    return {2, version}
+end
+if status ~= ARGV[5] then
+    return {0}
+end
+if redis.call('SISMEMBER', KEYS[2], ARGV[1]) == 1 then
+    return {3, version}
+end
+if redis.call('SISMEMBER', KEYS[2], ARGV[2]) == 0 then
+    return {6, version}
+end
+if redis.call('SISMEMBER', KEYS[3], ARGV[1]) == 1 then
+    return {4, version}
+end
+if redis.call('SISMEMBER', KEYS[3], ARGV[2]) == 0 then
+    return {6, version}
+end
+return {5, version}
@@ -0,0 +1,8 @@
+-- Gives up a lease held by the caller so another node can take it without waiting for expiry.
+-- KEYS[1] lease key
+-- ARGV[1] holder
+-- Returns 1 when released, 0 when the lease was not held by the caller
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
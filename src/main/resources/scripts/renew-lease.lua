@@ -0,0 +1,9 @@
+-- Extends a lease held by the caller.
+-- KEYS[1] lease key
+-- ARGV[1] holder, ARGV[2] lease in milliseconds
+-- Returns 1 when extended, 0 when the lease expired or belongs to another holder
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+    return 1
+end
+return 0
@@ -0,0 +1,11 @@
+-- Writes a toggle hash unless Redis already holds the same or a newer version.
+-- KEYS[1] toggle hash
+-- ARGV[1] version, ARGV[2] status, ARGV[3] id, ARGV[4] ttl in seconds
+-- Returns 1 when written, 0 when the stored version was not older
+local current = redis.call('HGET', KEYS[1], 'version')
+if current and tonumber(current) >= tonumber(ARGV[1]) then
+    return 0
+end
+redis.call('HSET', KEYS[1], 'status', ARGV[2], 'id', ARGV[3], 'version', ARGV[1])
+redis.call('EXPIRE', KEYS[1], ARGV[4])
+return 1
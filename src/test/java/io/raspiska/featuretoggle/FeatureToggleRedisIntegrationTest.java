@@ -7,11 +7,14 @@ import io.raspiska.featuretoggle.dto.UserListRequest;
 import io.raspiska.featuretoggle.entity.ToggleStatus;
 import io.raspiska.featuretoggle.repository.FeatureToggleRepository;
 import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository;
+import io.raspiska.featuretoggle.service.FeatureToggleCacheService;
+import io.raspiska.featuretoggle.service.ListPurgeService;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
@@ -51,6 +54,12 @@ class FeatureToggleRedisIntegrationTest {
     @Autowired
     private FeatureToggleUserRepository userRepository;
 
+    @Autowired
+    private ListPurgeService listPurgeService;
+
+    @Autowired
+    private FeatureToggleCacheService cacheService;
+
     private String baseUrl;
 
     @BeforeEach
@@ -63,9 +72,11 @@ class FeatureToggleRedisIntegrationTest {
         userRepository.deleteAll();
         toggleRepository.deleteAll();
         // Clean Redis
-        Set<String> keys = redisTemplate.keys("feature:*");
-        if (keys != null && !keys.isEmpty()) {
-            redisTemplate.delete(keys);
+        for (String pattern : List.of("feature:*", "{feature:*")) {
+            Set<String> keys = redisTemplate.keys(pattern);
+            if (keys != null && !keys.isEmpty()) {
+                redisTemplate.delete(keys);
+            }
         }
     }
 
@@ -106,7 +117,7 @@ class FeatureToggleRedisIntegrationTest {
 
     @Test
     @Order(2)
-    @DisplayName("Update toggle should invalidate Redis cache")
+    @DisplayName("Update toggle should write the new version through to Redis")
     void updateToggle_shouldInvalidateRedisCache() throws InterruptedException {
         // Given - Create a toggle first
         String featureName = "TEST_FEATURE_UPDATE";
@@ -128,11 +139,12 @@ class FeatureToggleRedisIntegrationTest {
         updateRequest.setStatus(ToggleStatus.DISABLED);
         restTemplate.put(baseUrl + "/" + featureName, updateRequest);
 
-        // Then - Cache should be invalidated
+        // Then - Cache should hold the new version
         Thread.sleep(100);
         Map<Object, Object> afterUpdateRedisData = redisTemplate.opsForHash().entries(REDIS_TOGGLE_PREFIX + featureName);
-        // Cache is invalidated (empty) or updated
-        assertThat(afterUpdateRedisData).isEmpty();
+        assertThat(afterUpdateRedisData.get("status")).isEqualTo("DISABLED");
+        assertThat(((Number) afterUpdateRedisData.get("version")).longValue())
+                .isGreaterThan(((Number) initialRedisData.get("version")).longValue());
 
         // Verify the toggle is now disabled via API
         ResponseEntity<FeatureCheckResponse> checkResponse = restTemplate.getForEntity(
@@ -413,4 +425,68 @@ class FeatureToggleRedisIntegrationTest {
         assertThat(checkResponse.getBody().isEnabled()).isFalse();
         assertThat(checkResponse.getBody().getReason()).isEqualTo("Feature not found");
     }
+
+    @Test
+    @Order(12)
+    @DisplayName("Delete toggle with list members should tombstone it and purge its lists")
+    void deleteToggle_withListMembers_shouldPurgeLists() {
+        // Given
+        String featureName = "TEST_FEATURE_DELETE_LISTS";
+        CreateFeatureToggleRequest createRequest = new CreateFeatureToggleRequest();
+        createRequest.setFeatureName(featureName);
+        createRequest.setStatus(ToggleStatus.LIST_MODE);
+        restTemplate.postForEntity(baseUrl, createRequest, Map.class);
+
+        UserListRequest userListRequest = new UserListRequest();
+        userListRequest.setUserIds(List.of("user1", "user2", "user3"));
+        restTemplate.postForEntity(baseUrl + "/" + featureName + "/whitelist", userListRequest, Void.class);
+        restTemplate.postForEntity(baseUrl + "/" + featureName + "/blacklist", userListRequest, Void.class);
+        assertThat(userRepository.count()).isEqualTo(6);
+
+        // When
+        ResponseEntity<Void> response = restTemplate.exchange(
+                baseUrl + "/" + featureName, HttpMethod.DELETE, null, Void.class);
+        listPurgeService.purgePending();
+
+        // Then
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(userRepository.count()).isZero();
+        ResponseEntity<FeatureCheckResponse> checkResponse = restTemplate.getForEntity(
+                baseUrl + "/" + featureName + "/check", FeatureCheckResponse.class);
+        assertThat(checkResponse.getBody()).isNotNull();
+        assertThat(checkResponse.getBody().getReason()).isEqualTo("Feature not found");
+    }
+
+    @Test
+    @Order(13)
+    @DisplayName("Checking a list on a Redis without loaded scripts should populate the list set")
+    void checkListMode_withEmptyScriptCache_shouldPopulateRedisSet() {
+        // Given
+        String featureName = "TEST_FEATURE_POPULATE";
+        CreateFeatureToggleRequest createRequest = new CreateFeatureToggleRequest();
+        createRequest.setFeatureName(featureName);
+        createRequest.setStatus(ToggleStatus.LIST_MODE);
+        restTemplate.postForEntity(baseUrl, createRequest, Map.class);
+
+        UserListRequest userListRequest = new UserListRequest();
+        userListRequest.setUserIds(List.of("user1", "user2"));
+        restTemplate.postForEntity(baseUrl + "/" + featureName + "/whitelist", userListRequest, Void.class);
+
+        redisTemplate.delete(REDIS_WHITELIST_PREFIX + featureName);
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.scriptingCommands().scriptFlush();
+            return null;
+        });
+        cacheService.evictAllFromLocalCache();
+
+        // When
+        ResponseEntity<FeatureCheckResponse> checkResponse = restTemplate.getForEntity(
+                baseUrl + "/" + featureName + "/check?userId=user1", FeatureCheckResponse.class);
+
+        // Then
+        assertThat(checkResponse.getBody()).isNotNull();
+        assertThat(checkResponse.getBody().isEnabled()).isTrue();
+        assertThat(redisTemplate.hasKey(REDIS_WHITELIST_PREFIX + featureName)).isTrue();
+        assertThat(redisTemplate.opsForSet().isMember(REDIS_WHITELIST_PREFIX + featureName, "user2")).isTrue();
+    }
 }
@@ -0,0 +1,65 @@
+package io.raspiska.featuretoggle.config;
+
+import io.raspiska.featuretoggle.service.FeatureToggleCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisMessageSubscriberTest {
+
+    @Mock
+    private FeatureToggleCacheService cacheService;
+
+    private RedisMessageSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() {
+        subscriber = new RedisMessageSubscriber(cacheService);
+        when(cacheService.getInstanceId()).thenReturn("node-a");
+    }
+
+    @Test
+    @DisplayName("should skip invalidations published by this instance")
+    void onMessage_shouldSkipOwnInvalidation() {
+        // When
+        subscriber.onMessage(message("\"TEST_FEATURE:0@node-a\""), null);
+
+        // Then
+        verify(cacheService, never()).evictFromLocalCache(anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("should evict for invalidations published by another instance")
+    void onMessage_shouldEvict_whenPublishedElsewhere() {
+        // When
+        subscriber.onMessage(message("\"TEST_FEATURE:0@node-b\""), null);
+
+        // Then
+        verify(cacheService).evictFromLocalCache("TEST_FEATURE", 0);
+    }
+
+    @Test
+    @DisplayName("should evict unconditionally for a bare feature name from an older instance")
+    void onMessage_shouldEvict_whenBareFeatureName() {
+        // When
+        subscriber.onMessage(message("\"TEST_FEATURE\""), null);
+
+        // Then
+        verify(cacheService).evictFromLocalCache("TEST_FEATURE");
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("feature-toggle-updates".getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
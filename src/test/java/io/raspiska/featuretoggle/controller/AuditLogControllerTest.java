@@ -1,7 +1,10 @@
 package io.raspiska.featuretoggle.controller;
 
 import io.raspiska.featuretoggle.dto.AuditLogDto;
+import io.raspiska.featuretoggle.dto.AuditLogSlice;
+import io.raspiska.featuretoggle.dto.AuditRollupDto;
 import io.raspiska.featuretoggle.entity.AuditLog.AuditAction;
+import io.raspiska.featuretoggle.service.AuditArchiveService;
 import io.raspiska.featuretoggle.service.AuditLogService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,18 +13,24 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AuditLogController.class)
 class AuditLogControllerTest {
@@ -32,6 +41,9 @@ class AuditLogControllerTest {
     @MockitoBean
     private AuditLogService auditLogService;
 
+    @MockitoBean
+    private AuditArchiveService archiveService;
+
     @Test
     @DisplayName("GET /api/v1/audit should return paginated audit logs")
     void getAuditLogs_shouldReturnPaginatedLogs() throws Exception {
@@ -153,4 +165,83 @@ class AuditLogControllerTest {
                 .andExpect(jsonPath("$.totalPages").value(3))
                 .andExpect(jsonPath("$.number").value(1));
     }
+
+    @Test
+    @DisplayName("GET /api/v1/audit/scan should return a slice and next cursor without totals")
+    void scanAuditLogs_shouldReturnSlice() throws Exception {
+        // Given
+        AuditLogDto log = AuditLogDto.builder()
+                .id(7L)
+                .featureName("WITHDRAW")
+                .action(AuditAction.UPDATE)
+                .actor("admin@example.com")
+                .timestamp(Instant.parse("2026-03-01T10:00:00Z"))
+                .build();
+
+        when(auditLogService.scanAuditLogs("WITHDRAW", null, Instant.parse("2026-03-01T00:00:00Z"),
+                Instant.parse("2026-03-02T00:00:00Z"), "abc", 1))
+                .thenReturn(AuditLogSlice.builder().entries(List.of(log)).nextCursor("def").build());
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/audit/scan")
+                        .param("featureName", "WITHDRAW")
+                        .param("from", "2026-03-01T00:00:00Z")
+                        .param("to", "2026-03-02T00:00:00Z")
+                        .param("cursor", "abc")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries[0].id").value(7))
+                .andExpect(jsonPath("$.nextCursor").value("def"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/audit/archive should stream archived entries as NDJSON")
+    void streamArchive_shouldWriteNdjson() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<AuditLogDto> consumer = invocation.getArgument(4);
+            consumer.accept(AuditLogDto.builder().id(1L).featureName("WITHDRAW").action(AuditAction.CREATE).build());
+            consumer.accept(AuditLogDto.builder().id(2L).featureName("WITHDRAW").action(AuditAction.UPDATE).build());
+            return null;
+        }).when(archiveService).streamArchived(eq("WITHDRAW"), eq(null), eq(Instant.parse("2025-01-01T00:00:00Z")),
+                eq(null), any());
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/audit/archive")
+                        .param("featureName", "WITHDRAW")
+                        .param("from", "2025-01-01T00:00:00Z"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[1]).contains("\"action\":\"UPDATE\"");
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/audit/rollups should return per-day counts")
+    void getRollups_shouldReturnCounts() throws Exception {
+        // Given
+        when(archiveService.getRollups("WITHDRAW", LocalDate.parse("2025-01-01"), LocalDate.parse("2025-01-31")))
+                .thenReturn(List.of(AuditRollupDto.builder()
+                        .day(LocalDate.parse("2025-01-02"))
+                        .featureName("WITHDRAW")
+                        .action(AuditAction.UPDATE)
+                        .count(12)
+                        .build()));
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/audit/rollups")
+                        .param("featureName", "WITHDRAW")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-01-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].day").value("2025-01-02"))
+                .andExpect(jsonPath("$[0].count").value(12));
+    }
 }
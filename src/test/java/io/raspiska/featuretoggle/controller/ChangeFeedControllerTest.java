@@ -0,0 +1,69 @@
+package io.raspiska.featuretoggle.controller;
+
+import io.raspiska.featuretoggle.dto.ChangeFeedResponse;
+import io.raspiska.featuretoggle.dto.FeatureToggleChangeDto;
+import io.raspiska.featuretoggle.entity.FeatureToggleChange.ChangeType;
+import io.raspiska.featuretoggle.entity.ToggleStatus;
+import io.raspiska.featuretoggle.service.ChangeFeedService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ChangeFeedController.class)
+class ChangeFeedControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ChangeFeedService changeFeedService;
+
+    @Test
+    @DisplayName("GET /api/v1/changes should return deltas since the given version")
+    void getChanges_shouldReturnDeltas() throws Exception {
+        // Given
+        DeferredResult<ChangeFeedResponse> deferred = new DeferredResult<>();
+        deferred.setResult(ChangeFeedResponse.builder()
+                .version(12)
+                .changes(List.of(FeatureToggleChangeDto.builder()
+                        .version(12)
+                        .featureName("TEST_FEATURE")
+                        .changeType(ChangeType.UPDATED)
+                        .status(ToggleStatus.DISABLED)
+                        .build()))
+                .build());
+        when(changeFeedService.getChanges(11, Duration.ofSeconds(30), 500)).thenReturn(deferred);
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/changes").param("since", "11").param("wait", "30s"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(12))
+                .andExpect(jsonPath("$.changes[0].featureName").value("TEST_FEATURE"))
+                .andExpect(jsonPath("$.changes[0].status").value("DISABLED"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/changes with an invalid wait should return bad request")
+    void getChanges_withInvalidWait_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/changes").param("wait", "soon"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -2,8 +2,11 @@ package io.raspiska.featuretoggle.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.raspiska.featuretoggle.dto.*;
+import io.raspiska.featuretoggle.entity.FeatureToggleUser.ListType;
 import io.raspiska.featuretoggle.entity.ToggleStatus;
 import io.raspiska.featuretoggle.service.FeatureToggleService;
+import io.raspiska.featuretoggle.service.ToggleChangeStream;
+import io.raspiska.featuretoggle.service.UserListImportService;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,10 +17,16 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -35,6 +44,12 @@ class FeatureToggleControllerTest {
     @MockitoBean
     private FeatureToggleService toggleService;
 
+    @MockitoBean
+    private ToggleChangeStream changeStream;
+
+    @MockitoBean
+    private UserListImportService importService;
+
     @Test
     @DisplayName("GET /api/v1/toggles should return all toggles")
     void getAllToggles_shouldReturnAllToggles() throws Exception {
@@ -58,6 +73,73 @@ class FeatureToggleControllerTest {
                 .andExpect(jsonPath("$[1].featureName").value("FEATURE_2"));
     }
 
+    @Test
+    @DisplayName("GET /api/v1/toggles with page should return one page of toggles")
+    void getTogglesPage_shouldReturnPage() throws Exception {
+        // Given
+        FeatureToggleDto toggle = FeatureToggleDto.builder().id(1L).featureName("FEATURE_1").status(ToggleStatus.ENABLED).build();
+        when(toggleService.getToggles(isNull(), any())).thenReturn(new PageImpl<>(List.of(toggle), PageRequest.of(0, 1), 3));
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/toggles").param("page", "0").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].featureName").value("FEATURE_1"))
+                .andExpect(jsonPath("$.totalElements").value(3));
+        verify(toggleService, never()).getAllToggles();
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/toggles accepting NDJSON should stream one toggle per line")
+    void streamToggles_shouldWriteNdjson() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<FeatureToggleDto> consumer = invocation.getArgument(1);
+            consumer.accept(FeatureToggleDto.builder().id(1L).featureName("FEATURE_1").build());
+            consumer.accept(FeatureToggleDto.builder().id(2L).featureName("FEATURE_2").build());
+            return null;
+        }).when(toggleService).streamToggles(isNull(), any());
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/toggles").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[1]).contains("\"featureName\":\"FEATURE_2\"");
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/toggles with page and group should return one page of the group")
+    void getTogglesPage_withGroup_shouldFilterByGroup() throws Exception {
+        // Given
+        FeatureToggleDto toggle = FeatureToggleDto.builder().id(1L).featureName("FEATURE_1").groupName("checkout").build();
+        when(toggleService.getToggles(eq("checkout"), any())).thenReturn(new PageImpl<>(List.of(toggle), PageRequest.of(0, 1), 1));
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/toggles").param("group", "checkout").param("page", "0").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].groupName").value("checkout"));
+        verify(toggleService, never()).getTogglesByGroup(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/toggles with group accepting NDJSON should stream the group")
+    void streamToggles_withGroup_shouldStreamGroup() throws Exception {
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/toggles").param("group", "checkout").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        verify(toggleService).streamToggles(eq("checkout"), any());
+    }
+
     @Test
     @DisplayName("GET /api/v1/toggles/{name} should return toggle")
     void getToggle_shouldReturnToggle() throws Exception {
@@ -179,6 +261,74 @@ class FeatureToggleControllerTest {
                 .andExpect(jsonPath("$.enabled").value(true));
     }
 
+    @Test
+    @DisplayName("GET /api/v1/toggles/stream should open an event stream resuming from Last-Event-ID")
+    void streamChanges_shouldSubscribeWithLastEventId() throws Exception {
+        // Given
+        when(changeStream.subscribe("42")).thenReturn(new SseEmitter());
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/toggles/stream")
+                        .header("Last-Event-ID", "42")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(changeStream).subscribe("42");
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/toggles/check should check several features for one user")
+    void checkFeatures_shouldCheckAllRequestedFeatures() throws Exception {
+        // Given
+        BatchCheckRequest request = BatchCheckRequest.builder()
+                .userId("user1")
+                .featureNames(List.of("FEATURE_A", "FEATURE_B"))
+                .build();
+        Map<String, FeatureCheckResponse> results = new LinkedHashMap<>();
+        results.put("FEATURE_A", FeatureCheckResponse.builder()
+                .featureName("FEATURE_A").enabled(true).status(ToggleStatus.ENABLED).reason("Feature is enabled globally").build());
+        results.put("FEATURE_B", FeatureCheckResponse.builder()
+                .featureName("FEATURE_B").enabled(false).reason("Feature not found").build());
+        when(toggleService.checkFeatures(List.of("FEATURE_A", "FEATURE_B"), "user1"))
+                .thenReturn(BatchCheckResponse.builder().userId("user1").results(results).build());
+
+        // When/Then
+        mockMvc.perform(post("/api/v1/toggles/check")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value("user1"))
+                .andExpect(jsonPath("$.results.FEATURE_A.enabled").value(true))
+                .andExpect(jsonPath("$.results.FEATURE_B.reason").value("Feature not found"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/toggles/check with no feature names should return bad request")
+    void checkFeatures_withoutFeatureNames_shouldReturnBadRequest() throws Exception {
+        // Given
+        BatchCheckRequest request = BatchCheckRequest.builder().userId("user1").featureNames(List.of()).build();
+
+        // When/Then
+        mockMvc.perform(post("/api/v1/toggles/check")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verify(toggleService, never()).checkFeatures(anyList(), any());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/toggles/check with a null feature name should return bad request")
+    void checkFeatures_withNullFeatureName_shouldReturnBadRequest() throws Exception {
+        // When/Then
+        mockMvc.perform(post("/api/v1/toggles/check")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":\"user1\",\"featureNames\":[\"FEATURE_A\",null]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(toggleService, never()).checkFeatures(anyList(), any());
+    }
+
     @Test
     @DisplayName("POST /api/v1/toggles/{name}/whitelist should add users")
     void addToWhitelist_shouldAddUsers() throws Exception {
@@ -230,6 +380,82 @@ class FeatureToggleControllerTest {
                 .andExpect(jsonPath("$.totalElements").value(2));
     }
 
+    @Test
+    @DisplayName("GET /api/v1/toggles/{name}/whitelist/scan should return a slice and next cursor")
+    void scanWhitelist_shouldReturnSlice() throws Exception {
+        // Given
+        when(toggleService.scanWhitelistedUsers("TEST_FEATURE", "Nw", 2))
+                .thenReturn(UserListSlice.builder().userIds(List.of("user3", "user4")).nextCursor("OQ").build());
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/toggles/TEST_FEATURE/whitelist/scan")
+                        .param("cursor", "Nw")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userIds[0]").value("user3"))
+                .andExpect(jsonPath("$.userIds[1]").value("user4"))
+                .andExpect(jsonPath("$.nextCursor").value("OQ"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/toggles/{name}/whitelist/import should stream progress lines")
+    void importWhitelist_shouldStreamProgress() throws Exception {
+        // Given
+        when(importService.importUsers(eq("TEST_FEATURE"), eq(ListType.WHITELIST), eq(UserListImportService.Format.CSV),
+                any(), eq("admin"), any())).thenAnswer(invocation -> {
+            Consumer<UserListImportProgress> progress = invocation.getArgument(5);
+            UserListImportProgress done = UserListImportProgress.builder()
+                    .featureName("TEST_FEATURE").listType(ListType.WHITELIST).received(2).added(2).done(true).build();
+            progress.accept(done);
+            return done;
+        });
+
+        // When
+        MvcResult result = mockMvc.perform(post("/api/v1/toggles/TEST_FEATURE/whitelist/import")
+                        .contentType("text/csv")
+                        .header("X-Actor", "admin")
+                        .content("userId\nuser1\nuser2\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+        assertThat(result.getResponse().getContentAsString()).contains("\"added\":2", "\"done\":true");
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/toggles/{name}/blacklist/import should return 404 for an unknown feature")
+    void importBlacklist_shouldReturn404_whenFeatureMissing() throws Exception {
+        // Given
+        when(importService.requireFeatureId("MISSING")).thenThrow(new EntityNotFoundException("Feature toggle not found: MISSING"));
+
+        // When/Then
+        mockMvc.perform(post("/api/v1/toggles/MISSING/blacklist/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("\"user1\"\n"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("PUT /api/v1/toggles/{name}/whitelist should replace the list with the uploaded users")
+    void replaceWhitelist_shouldReturnDelta() throws Exception {
+        // Given
+        when(importService.replaceUsers(eq("TEST_FEATURE"), eq(ListType.WHITELIST), eq(UserListImportService.Format.NDJSON),
+                any(), eq("admin"))).thenReturn(UserListReplaceResponse.builder()
+                .featureName("TEST_FEATURE").listType(ListType.WHITELIST).received(2).added(1).removed(3).build());
+
+        // When/Then
+        mockMvc.perform(put("/api/v1/toggles/TEST_FEATURE/whitelist")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header("X-Actor", "admin")
+                        .content("\"user1\"\n\"user2\"\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.added").value(1))
+                .andExpect(jsonPath("$.removed").value(3));
+    }
+
     @Test
     @DisplayName("POST /api/v1/toggles/{name}/blacklist should add users")
     void addToBlacklist_shouldAddUsers() throws Exception {
@@ -370,6 +596,40 @@ class FeatureToggleControllerTest {
                 .andExpect(jsonPath("$.scheduledStatus").doesNotExist());
     }
 
+    @Test
+    @DisplayName("GET /api/v1/toggles/{name}/schedules should list pending schedule entries")
+    void getSchedules_shouldReturnEntries() throws Exception {
+        // Given
+        when(toggleService.getSchedules("TEST_FEATURE")).thenReturn(List.of(
+                ToggleScheduleDto.builder().id(5L).scheduledStatus(ToggleStatus.DISABLED)
+                        .scheduledAt(Instant.parse("2030-01-01T00:00:00Z")).build(),
+                ToggleScheduleDto.builder().id(6L).scheduledStatus(ToggleStatus.ENABLED)
+                        .scheduledAt(Instant.parse("2030-01-02T00:00:00Z")).build()));
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/toggles/TEST_FEATURE/schedules"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(5))
+                .andExpect(jsonPath("$[1].scheduledStatus").value("ENABLED"));
+    }
+
+    @Test
+    @DisplayName("DELETE /api/v1/toggles/{name}/schedules/{id} should cancel one schedule entry")
+    void cancelScheduleEntry_shouldCancelEntry() throws Exception {
+        // Given
+        FeatureToggleDto toggle = FeatureToggleDto.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.ENABLED)
+                .build();
+        when(toggleService.cancelScheduleEntry("TEST_FEATURE", 5L, "admin")).thenReturn(toggle);
+
+        // When/Then
+        mockMvc.perform(delete("/api/v1/toggles/TEST_FEATURE/schedules/5").header("X-Actor", "admin"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.featureName").value("TEST_FEATURE"));
+    }
+
     @Test
     @DisplayName("POST /api/v1/toggles with X-Actor header should pass actor to service")
     void createToggle_withActorHeader_shouldPassActorToService() throws Exception {
@@ -0,0 +1,78 @@
+package io.raspiska.featuretoggle.controller;
+
+import io.raspiska.featuretoggle.dto.ListPurgeDto;
+import io.raspiska.featuretoggle.entity.ListPurge.Status;
+import io.raspiska.featuretoggle.service.ListPurgeService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ListPurgeController.class)
+class ListPurgeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ListPurgeService purgeService;
+
+    @Test
+    @DisplayName("GET /api/v1/purges/{id} should return purge progress")
+    void getPurge_shouldReturnProgress() throws Exception {
+        // Given
+        when(purgeService.getPurge(3L)).thenReturn(ListPurgeDto.builder()
+                .id(3L)
+                .featureName("TEST_FEATURE")
+                .status(Status.RUNNING)
+                .totalRows(1_000_000)
+                .purgedRows(250_000)
+                .build());
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/purges/3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.totalRows").value(1_000_000))
+                .andExpect(jsonPath("$.purgedRows").value(250_000));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/purges/{id} should return 404 for an unknown purge")
+    void getPurge_shouldReturn404_whenMissing() throws Exception {
+        // Given
+        when(purgeService.getPurge(9L)).thenThrow(new EntityNotFoundException("List purge not found: 9"));
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/purges/9"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/purges should filter by feature name")
+    void getPurges_shouldFilterByFeatureName() throws Exception {
+        // Given
+        ListPurgeDto purge = ListPurgeDto.builder().id(3L).featureName("TEST_FEATURE").status(Status.COMPLETED).build();
+        when(purgeService.getPurges(eq("TEST_FEATURE"), any()))
+                .thenReturn(new PageImpl<>(List.of(purge), PageRequest.of(0, 20), 1));
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/purges").param("featureName", "TEST_FEATURE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(3))
+                .andExpect(jsonPath("$.content[0].status").value("COMPLETED"));
+    }
+}
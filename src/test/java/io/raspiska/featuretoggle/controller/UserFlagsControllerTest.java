@@ -0,0 +1,62 @@
+package io.raspiska.featuretoggle.controller;
+
+import io.raspiska.featuretoggle.service.FeatureToggleCacheService.UserFlags;
+import io.raspiska.featuretoggle.service.FeatureToggleService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UserFlagsController.class)
+class UserFlagsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private FeatureToggleService toggleService;
+
+    @Test
+    @DisplayName("GET /api/v1/users/{userId}/flags should return evaluated flags with an ETag")
+    void getUserFlags_shouldReturnFlagsWithETag() throws Exception {
+        // Given
+        when(toggleService.getUserFlags("user1"))
+                .thenReturn(new UserFlags("abc123", () -> Map.of("FEATURE_A", true, "FEATURE_B", false)));
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/users/user1/flags"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc123\""))
+                .andExpect(jsonPath("$.userId").value("user1"))
+                .andExpect(jsonPath("$.flags.FEATURE_A").value(true))
+                .andExpect(jsonPath("$.flags.FEATURE_B").value(false));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/users/{userId}/flags with a matching If-None-Match should return 304 without evaluating")
+    void getUserFlags_withMatchingETag_shouldReturnNotModified() throws Exception {
+        // Given
+        AtomicInteger evaluations = new AtomicInteger();
+        when(toggleService.getUserFlags("user1")).thenReturn(new UserFlags("abc123", () -> {
+            evaluations.incrementAndGet();
+            return Map.of("FEATURE_A", true);
+        }));
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/users/user1/flags").header("If-None-Match", "\"abc123\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"abc123\""))
+                .andExpect(content().string(""));
+        assertThat(evaluations.get()).isZero();
+    }
+}
@@ -0,0 +1,126 @@
+package io.raspiska.featuretoggle.performance;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.entity.FeatureToggle;
+import io.raspiska.featuretoggle.entity.ToggleStatus;
+import io.raspiska.featuretoggle.repository.FeatureToggleRepository;
+import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository;
+import io.raspiska.featuretoggle.service.FeatureToggleCacheService;
+import io.raspiska.featuretoggle.service.MetricsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Tag("performance")
+class CacheCoalescingLoadTest {
+
+    private static final int CONCURRENT_CHECKERS = 200;
+    private static final int ROUNDS = 10;
+    private static final long DB_LATENCY_MS = 20;
+
+    @Test
+    @DisplayName("Load Test: DB queries for an expired hot toggle under 200 concurrent checkers")
+    void loadTest_coalescedMissesUnderConcurrentCheckers() throws Exception {
+        FeatureToggleRepository toggleRepository = mock(FeatureToggleRepository.class);
+        FeatureToggleUserRepository userRepository = mock(FeatureToggleUserRepository.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AtomicInteger dbQueries = new AtomicInteger();
+
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("HOT_FEATURE")
+                .status(ToggleStatus.ENABLED)
+                .build();
+        when(toggleRepository.findByFeatureName("HOT_FEATURE")).thenAnswer(inv -> {
+            dbQueries.incrementAndGet();
+            Thread.sleep(DB_LATENCY_MS);
+            return Optional.of(toggle);
+        });
+
+        FeatureToggleCacheService cacheService = new FeatureToggleCacheService(
+                null, null, toggleRepository, userRepository,
+                new ApplicationProperties(), new MetricsService(meterRegistry));
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_CHECKERS);
+        AtomicInteger enabledCount = new AtomicInteger();
+        long start = System.nanoTime();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            // Simulates the local entry expiring for every checker at the same moment
+            cacheService.evictFromLocalCache("HOT_FEATURE");
+
+            CountDownLatch startGate = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_CHECKERS; i++) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    if (cacheService.checkFeature("HOT_FEATURE", null).isEnabled()) {
+                        enabledCount.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            startGate.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+        executor.shutdown();
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int totalChecks = CONCURRENT_CHECKERS * ROUNDS;
+        double coalesced = meterRegistry.counter("feature_toggle_coalesced_loads", "type", "toggle").count();
+        double reduction = 100.0 * (totalChecks - dbQueries.get()) / totalChecks;
+
+        System.out.println("\n=== CACHE MISS COALESCING ===");
+        System.out.printf("Checks: %d, DB queries: %d (uncoalesced would be %d), coalesced loads: %.0f, reduction: %.2f%%, duration: %d ms%n",
+                totalChecks, dbQueries.get(), totalChecks, coalesced, reduction, durationMs);
+        writeReport(totalChecks, dbQueries.get(), coalesced, reduction, durationMs);
+
+        assertThat(enabledCount.get()).isEqualTo(totalChecks);
+        assertThat(dbQueries.get()).isLessThan(totalChecks / 10);
+    }
+
+    private void writeReport(int totalChecks, int dbQueries, double coalesced, double reduction, long durationMs)
+            throws IOException {
+        String reportPath = "build/reports/performance/cache-coalescing-report.md";
+        new java.io.File("build/reports/performance").mkdirs();
+
+        try (PrintWriter writer = new PrintWriter(new FileWriter(reportPath))) {
+            writer.println("# Feature Toggle Service - Cache Miss Coalescing Report");
+            writer.println();
+            writer.println("Generated: " + Instant.now());
+            writer.println();
+            writer.println("| Parameter | Value |");
+            writer.println("|-----------|-------|");
+            writer.println("| Concurrent Checkers | " + CONCURRENT_CHECKERS + " |");
+            writer.println("| Rounds | " + ROUNDS + " |");
+            writer.println("| Simulated DB Latency (ms) | " + DB_LATENCY_MS + " |");
+            writer.println("| Checks | " + totalChecks + " |");
+            writer.println("| DB Queries (without coalescing) | " + totalChecks + " |");
+            writer.println("| DB Queries (with coalescing) | " + dbQueries + " |");
+            writer.printf("| Coalesced Loads | %.0f |%n", coalesced);
+            writer.printf("| DB Traffic Reduction | %.2f%% |%n", reduction);
+            writer.println("| Duration (ms) | " + durationMs + " |");
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.raspiska.featuretoggle.performance;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Instant;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("performance")
+class FeatureCheckAllocationTest {
+
+    // Leaves room for amortized allocations inside the meter registry
+    private static final double MAX_BYTES_PER_CHECK = 1.0;
+
+    @Test
+    @DisplayName("Benchmark: global toggle checks should not allocate")
+    void benchmark_globalToggleChecksDoNotAllocate() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(FeatureCheckBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        System.out.println("\n=== CHECK ALLOCATION ===");
+        for (RunResult result : results) {
+            System.out.printf("%s %s: %.1f ns/op, %.3f B/op%n", benchmarkName(result),
+                    result.getParams().getParam("snapshotEnabled"),
+                    result.getPrimaryResult().getScore(), allocationPerCheck(result));
+        }
+        writeReport(results);
+
+        for (RunResult result : results) {
+            assertThat(allocationPerCheck(result))
+                    .as("bytes allocated per check in %s", benchmarkName(result))
+                    .isLessThan(MAX_BYTES_PER_CHECK);
+        }
+    }
+
+    private double allocationPerCheck(RunResult result) {
+        Result<?> allocation = result.getSecondaryResults().get("gc.alloc.rate.norm");
+        if (allocation == null) {
+            // Label used by JMH versions before 1.36
+            allocation = result.getSecondaryResults().get("·gc.alloc.rate.norm");
+        }
+        assertThat(allocation).as("GC profiler allocation result").isNotNull();
+        return allocation.getScore();
+    }
+
+    private String benchmarkName(RunResult result) {
+        String benchmark = result.getParams().getBenchmark();
+        return benchmark.substring(benchmark.lastIndexOf('.') + 1);
+    }
+
+    private void writeReport(Collection<RunResult> results) throws IOException {
+        String reportPath = "build/reports/performance/check-allocation-report.md";
+        new java.io.File("build/reports/performance").mkdirs();
+
+        try (PrintWriter writer = new PrintWriter(new FileWriter(reportPath))) {
+            writer.println("# Feature Toggle Service - Check Allocation Report");
+            writer.println();
+            writer.println("Generated: " + Instant.now());
+            writer.println();
+            writer.println("| Benchmark | Snapshot | Time (ns/op) | Allocation (B/op) |");
+            writer.println("|-----------|----------|--------------|-------------------|");
+            for (RunResult result : results) {
+                writer.printf("| %s | %s | %.1f | %.3f |%n", benchmarkName(result),
+                        result.getParams().getParam("snapshotEnabled"),
+                        result.getPrimaryResult().getScore(), allocationPerCheck(result));
+            }
+        }
+    }
+}
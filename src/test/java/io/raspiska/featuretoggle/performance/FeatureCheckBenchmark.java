@@ -0,0 +1,78 @@
+package io.raspiska.featuretoggle.performance;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.dto.FeatureCheckResponse;
+import io.raspiska.featuretoggle.entity.FeatureToggle;
+import io.raspiska.featuretoggle.entity.ToggleStatus;
+import io.raspiska.featuretoggle.repository.FeatureToggleRepository;
+import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository;
+import io.raspiska.featuretoggle.service.FeatureToggleCacheService;
+import io.raspiska.featuretoggle.service.MetricsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks of globally enabled/disabled toggles served from the local cache or the snapshot.
+ * Run with the GC profiler to see the allocation rate per check, see {@link FeatureCheckAllocationTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeatureCheckBenchmark {
+
+    @Param({"false", "true"})
+    public boolean snapshotEnabled;
+
+    private FeatureToggleCacheService cacheService;
+
+    @Setup
+    public void setUp() {
+        FeatureToggle enabled = FeatureToggle.builder().id(1L).featureName("ENABLED_FEATURE").status(ToggleStatus.ENABLED).build();
+        FeatureToggle disabled = FeatureToggle.builder().id(2L).featureName("DISABLED_FEATURE").status(ToggleStatus.DISABLED).build();
+        FeatureToggleRepository toggleRepository = mock(FeatureToggleRepository.class);
+        when(toggleRepository.findByFeatureName("ENABLED_FEATURE")).thenReturn(Optional.of(enabled));
+        when(toggleRepository.findByFeatureName("DISABLED_FEATURE")).thenReturn(Optional.of(disabled));
+        when(toggleRepository.findAll()).thenReturn(List.of(enabled, disabled));
+
+        ApplicationProperties properties = new ApplicationProperties();
+        // Keeps entries from expiring during the measurement
+        properties.getCache().setTtlSeconds(3600);
+        properties.getCache().getSnapshot().setEnabled(snapshotEnabled);
+
+        cacheService = new FeatureToggleCacheService(null, null, toggleRepository,
+                mock(FeatureToggleUserRepository.class), properties, new MetricsService(new SimpleMeterRegistry()));
+        cacheService.reloadSnapshot();
+        cacheService.checkFeature("ENABLED_FEATURE", null);
+        cacheService.checkFeature("DISABLED_FEATURE", null);
+    }
+
+    @Benchmark
+    public FeatureCheckResponse checkEnabled() {
+        return cacheService.checkFeature("ENABLED_FEATURE", "user1");
+    }
+
+    @Benchmark
+    public FeatureCheckResponse checkDisabled() {
+        return cacheService.checkFeature("DISABLED_FEATURE", "user1");
+    }
+}
@@ -0,0 +1,202 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.dto.AuditLogDto;
+import io.raspiska.featuretoggle.entity.AuditLog;
+import io.raspiska.featuretoggle.entity.AuditLog.AuditAction;
+import io.raspiska.featuretoggle.repository.AuditLogRepository;
+import io.raspiska.featuretoggle.repository.AuditRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditArchiveServiceTest {
+
+    private static final Instant CUTOFF = Instant.parse("2026-03-03T00:00:00Z");
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private AuditRollupRepository rollupRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @TempDir
+    private Path archiveDir;
+
+    private AuditArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getAudit().setArchiveDir(archiveDir.toString());
+        properties.getAudit().setArchiveChunkSize(3);
+        archiveService = new AuditArchiveService(auditLogRepository, rollupRepository, transactionTemplate,
+                properties, Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    @Test
+    @DisplayName("archiveBefore should write day parts, then delete each chunk and add its rollups")
+    void archiveBefore_shouldArchiveRollUpAndDeleteInChunks() throws IOException {
+        // Given
+        stubTransactions();
+        AuditLog first = entry(1L, "FEATURE_A", AuditAction.CREATE, "2026-03-01T10:00:00Z");
+        AuditLog second = entry(2L, "FEATURE_A", AuditAction.UPDATE, "2026-03-01T11:00:00Z");
+        AuditLog third = entry(3L, "FEATURE_A", AuditAction.UPDATE, "2026-03-02T09:00:00Z");
+        AuditLog fourth = entry(4L, "FEATURE_B", AuditAction.UPDATE, "2026-03-02T10:00:00Z");
+        when(auditLogRepository.findOldestBefore(CUTOFF, Limit.of(3)))
+                .thenReturn(List.of(first, second, third))
+                .thenReturn(List.of(fourth));
+        when(auditLogRepository.deleteUpTo(third.getTimestamp(), 3L)).thenReturn(3);
+        when(auditLogRepository.deleteUpTo(fourth.getTimestamp(), 4L)).thenReturn(1);
+
+        // When
+        long archived = archiveService.archiveBefore(CUTOFF);
+
+        // Then
+        assertThat(archived).isEqualTo(4);
+        assertThat(archiveDir.resolve("2026-03-01/audit-1.ndjson.gz")).exists();
+        assertThat(archiveDir.resolve("2026-03-02/audit-3.ndjson.gz")).exists();
+        assertThat(archiveDir.resolve("2026-03-02/audit-4.ndjson.gz")).exists();
+
+        InOrder inOrder = inOrder(rollupRepository, auditLogRepository);
+        inOrder.verify(auditLogRepository).deleteUpTo(third.getTimestamp(), 3L);
+        inOrder.verify(rollupRepository).increment(LocalDate.parse("2026-03-01"), "FEATURE_A", "CREATE", 1);
+        inOrder.verify(rollupRepository).increment(LocalDate.parse("2026-03-01"), "FEATURE_A", "UPDATE", 1);
+        inOrder.verify(rollupRepository).increment(LocalDate.parse("2026-03-02"), "FEATURE_A", "UPDATE", 1);
+        inOrder.verify(auditLogRepository).deleteUpTo(fourth.getTimestamp(), 4L);
+        inOrder.verify(rollupRepository).increment(LocalDate.parse("2026-03-02"), "FEATURE_B", "UPDATE", 1);
+    }
+
+    @Test
+    @DisplayName("archiveBefore should not count a chunk that another instance deleted first")
+    void archiveBefore_shouldSkipRollups_whenChunkDeletedConcurrently() throws IOException {
+        // Given
+        stubTransactions();
+        AuditLog first = entry(1L, "FEATURE_A", AuditAction.CREATE, "2026-03-01T10:00:00Z");
+        AuditLog second = entry(2L, "FEATURE_A", AuditAction.UPDATE, "2026-03-01T11:00:00Z");
+        AuditLog third = entry(3L, "FEATURE_A", AuditAction.UPDATE, "2026-03-02T09:00:00Z");
+        when(auditLogRepository.findOldestBefore(CUTOFF, Limit.of(3))).thenReturn(List.of(first, second, third));
+        when(auditLogRepository.deleteUpTo(third.getTimestamp(), 3L)).thenReturn(0);
+
+        // When
+        long archived = archiveService.archiveBefore(CUTOFF);
+
+        // Then
+        assertThat(archived).isZero();
+        verifyNoInteractions(rollupRepository);
+        verify(auditLogRepository, times(1)).findOldestBefore(any(), any());
+    }
+
+    @Test
+    @DisplayName("archiveBefore should not delete a chunk whose archive could not be written")
+    void archiveBefore_shouldKeepRows_whenArchiveWriteFails() throws IOException {
+        // Given
+        Files.writeString(archiveDir.resolve("2026-03-01"), "not a directory");
+        when(auditLogRepository.findOldestBefore(CUTOFF, Limit.of(3)))
+                .thenReturn(List.of(entry(1L, "FEATURE_A", AuditAction.CREATE, "2026-03-01T10:00:00Z")));
+
+        // When
+        try {
+            archiveService.archiveBefore(CUTOFF);
+        } catch (IOException expected) {
+            // Retried on the next run
+        }
+
+        // Then
+        verifyNoInteractions(transactionTemplate, rollupRepository);
+        verify(auditLogRepository, never()).deleteUpTo(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("streamArchived should read archived entries back within the requested range and filters")
+    void streamArchived_shouldReadFilteredRange() throws IOException {
+        // Given
+        stubTransactions();
+        when(auditLogRepository.findOldestBefore(CUTOFF, Limit.of(3))).thenReturn(List.of(
+                entry(1L, "FEATURE_A", AuditAction.CREATE, "2026-03-01T10:00:00Z"),
+                entry(2L, "FEATURE_B", AuditAction.CREATE, "2026-03-01T11:00:00Z"),
+                entry(3L, "FEATURE_A", AuditAction.UPDATE, "2026-03-02T09:00:00Z")))
+                .thenReturn(List.of());
+        when(auditLogRepository.deleteUpTo(any(), eq(3L))).thenReturn(3);
+        archiveService.archiveBefore(CUTOFF);
+        List<AuditLogDto> entries = new ArrayList<>();
+
+        // When
+        archiveService.streamArchived("FEATURE_A", null, Instant.parse("2026-03-01T00:00:00Z"),
+                Instant.parse("2026-03-02T00:00:00Z"), entries::add);
+
+        // Then
+        assertThat(entries).extracting(AuditLogDto::getId).containsExactly(1L);
+        assertThat(entries.getFirst().getTimestamp()).isEqualTo(Instant.parse("2026-03-01T10:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("archiveBefore should replace the part of a chunk archived by an interrupted run")
+    void archiveBefore_shouldReplacePart_whenChunkArchivedAgain() throws IOException {
+        // Given
+        AuditLog entry = entry(1L, "FEATURE_A", AuditAction.CREATE, "2026-03-01T10:00:00Z");
+        when(auditLogRepository.findOldestBefore(CUTOFF, Limit.of(3))).thenReturn(List.of(entry));
+        when(auditLogRepository.deleteUpTo(entry.getTimestamp(), 1L)).thenReturn(1);
+        when(transactionTemplate.execute(any()))
+                .thenThrow(new IllegalStateException("database is locked"))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0)
+                        .doInTransaction(new SimpleTransactionStatus()));
+        try {
+            archiveService.archiveBefore(CUTOFF);
+        } catch (IllegalStateException expected) {
+            // First run fails after writing the part
+        }
+
+        // When
+        archiveService.archiveBefore(CUTOFF);
+
+        // Then
+        List<AuditLogDto> entries = new ArrayList<>();
+        archiveService.streamArchived(null, null, null, null, entries::add);
+        assertThat(entries).hasSize(1);
+        try (var parts = Files.list(archiveDir.resolve("2026-03-01"))) {
+            assertThat(parts).hasSize(1);
+        }
+    }
+
+    private void stubTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+    }
+
+    private static AuditLog entry(long id, String featureName, AuditAction action, String timestamp) {
+        return AuditLog.builder()
+                .id(id)
+                .featureName(featureName)
+                .action(action)
+                .actor("admin")
+                .timestamp(Instant.parse(timestamp))
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.dto.AuditLogSlice;
+import io.raspiska.featuretoggle.entity.AuditLog;
+import io.raspiska.featuretoggle.entity.AuditLog.AuditAction;
+import io.raspiska.featuretoggle.repository.AuditLogRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogServiceTest {
+
+    private static final Instant FROM = Instant.parse("2026-03-01T00:00:00Z");
+    private static final Instant TO = Instant.parse("2026-03-02T00:00:00Z");
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private AuditLogWriter auditLogWriter;
+
+    @InjectMocks
+    private AuditLogService auditLogService;
+
+    @Test
+    @DisplayName("log should hand a timestamped entry to the writer")
+    void log_shouldQueueEntry() {
+        // When
+        auditLogService.log("FEATURE", AuditAction.CREATE, "admin", "Created");
+
+        // Then
+        verify(auditLogWriter).write(argThat(entry -> entry.getFeatureName().equals("FEATURE")
+                && entry.getAction() == AuditAction.CREATE && entry.getTimestamp() != null));
+        verifyNoInteractions(auditLogRepository);
+    }
+
+    @Test
+    @DisplayName("scanAuditLogs should start strictly before `to` and return a cursor when more rows exist")
+    void scanAuditLogs_shouldReturnFirstSliceWithCursor() {
+        // Given
+        AuditLog newest = entry(3L, "2026-03-01T12:00:00Z");
+        AuditLog middle = entry(2L, "2026-03-01T11:00:00Z");
+        AuditLog oldest = entry(1L, "2026-03-01T10:00:00Z");
+        when(auditLogRepository.findByFeatureNameBefore("FEATURE", FROM, TO, 0L, Limit.of(3)))
+                .thenReturn(List.of(newest, middle, oldest));
+
+        // When
+        AuditLogSlice slice = auditLogService.scanAuditLogs("FEATURE", null, FROM, TO, null, 2);
+
+        // Then
+        assertThat(slice.getEntries()).extracting("id").containsExactly(3L, 2L);
+        assertThat(slice.getNextCursor()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("scanAuditLogs should continue from the position encoded in the cursor")
+    void scanAuditLogs_shouldContinueFromCursor() {
+        // Given
+        AuditLog middle = entry(2L, "2026-03-01T11:00:00.123456Z");
+        AuditLog oldest = entry(1L, "2026-03-01T10:00:00Z");
+        when(auditLogRepository.findByActorBefore(eq("admin"), eq(Instant.EPOCH), any(), anyLong(), eq(Limit.of(2))))
+                .thenReturn(List.of(middle, oldest));
+        String cursor = auditLogService.scanAuditLogs(null, "admin", null, null, null, 1).getNextCursor();
+
+        // When
+        auditLogService.scanAuditLogs(null, "admin", null, null, cursor, 1);
+
+        // Then
+        verify(auditLogRepository).findByActorBefore("admin", Instant.EPOCH,
+                Instant.parse("2026-03-01T11:00:00.123456Z"), 2L, Limit.of(2));
+    }
+
+    @Test
+    @DisplayName("scanAuditLogs should return no cursor on the last slice")
+    void scanAuditLogs_shouldReturnNullCursor_whenExhausted() {
+        // Given
+        when(auditLogRepository.findBefore(any(), any(), anyLong(), any()))
+                .thenReturn(List.of(entry(1L, "2026-03-01T10:00:00Z")));
+
+        // When
+        AuditLogSlice slice = auditLogService.scanAuditLogs(null, null, null, null, null, 20);
+
+        // Then
+        assertThat(slice.getEntries()).hasSize(1);
+        assertThat(slice.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("scanAuditLogs should reject a malformed cursor")
+    void scanAuditLogs_shouldRejectInvalidCursor() {
+        assertThatThrownBy(() -> auditLogService.scanAuditLogs(null, null, null, null, "not-a-cursor", 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+
+    private static AuditLog entry(long id, String timestamp) {
+        return AuditLog.builder()
+                .id(id)
+                .featureName("FEATURE")
+                .action(AuditAction.UPDATE)
+                .actor("admin")
+                .timestamp(Instant.parse(timestamp))
+                .build();
+    }
+}
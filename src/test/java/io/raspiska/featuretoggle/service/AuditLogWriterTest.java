@@ -0,0 +1,165 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.entity.AuditLog;
+import io.raspiska.featuretoggle.entity.AuditLog.AuditAction;
+import io.raspiska.featuretoggle.repository.AuditLogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogWriterTest {
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private AuditLogWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("write should insert a full batch in a single transaction")
+    void write_shouldFlushFullBatchInOneTransaction() {
+        // Given
+        stubTransactions();
+        writer = newWriter(100, 3, 10_000, 50);
+
+        // When
+        writer.write(entry("FEATURE_1"));
+        writer.write(entry("FEATURE_2"));
+        writer.write(entry("FEATURE_3"));
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AuditLog>> captor = ArgumentCaptor.forClass(List.class);
+        verify(auditLogRepository, timeout(2000)).insertAll(captor.capture());
+        assertThat(captor.getValue()).extracting(AuditLog::getFeatureName)
+                .containsExactly("FEATURE_1", "FEATURE_2", "FEATURE_3");
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+        verify(metricsService, timeout(2000)).recordAuditFlush(eq(3), anyLong());
+    }
+
+    @Test
+    @DisplayName("write should flush a partial batch once the flush interval has passed")
+    void write_shouldFlushPartialBatchAfterInterval() {
+        // Given
+        stubTransactions();
+        writer = newWriter(100, 100, 20, 50);
+
+        // When
+        writer.write(entry("FEATURE_1"));
+
+        // Then
+        verify(auditLogRepository, timeout(2000)).insertAll(argThat(batch -> batch.size() == 1));
+    }
+
+    @Test
+    @DisplayName("shutdown should write queued entries before returning")
+    void shutdown_shouldFlushQueuedEntries() {
+        // Given
+        stubTransactions();
+        writer = newWriter(100, 100, 200, 50);
+        writer.write(entry("FEATURE_1"));
+        writer.write(entry("FEATURE_2"));
+
+        // When
+        writer.shutdown();
+
+        // Then
+        verify(auditLogRepository, atLeastOnce()).insertAll(anyList());
+        assertThat(writer.queueSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("write should drop and count entries when the queue stays full")
+    void write_shouldDropEntries_whenQueueFull() throws InterruptedException {
+        // Given
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            flushing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        writer = newWriter(1, 1, 1, 0);
+        writer.write(entry("FEATURE_1"));
+        assertThat(flushing.await(2, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        writer.write(entry("FEATURE_2"));
+        writer.write(entry("FEATURE_3"));
+
+        // Then
+        verify(metricsService).recordAuditDropped(1);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("flush failures should be counted as dropped entries")
+    void flush_shouldCountFailedBatchAsDropped() {
+        // Given
+        doThrow(new IllegalStateException("database is locked")).when(transactionTemplate).executeWithoutResult(any());
+        writer = newWriter(100, 2, 10_000, 50);
+
+        // When
+        writer.write(entry("FEATURE_1"));
+        writer.write(entry("FEATURE_2"));
+
+        // Then
+        verify(metricsService, timeout(2000)).recordAuditDropped(2);
+        verify(metricsService, never()).recordAuditFlush(anyInt(), anyLong());
+    }
+
+    private AuditLogWriter newWriter(int queueCapacity, int batchSize, long flushIntervalMs, long enqueueTimeoutMs) {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getAudit().setQueueCapacity(queueCapacity);
+        properties.getAudit().setBatchSize(batchSize);
+        properties.getAudit().setFlushIntervalMs(flushIntervalMs);
+        properties.getAudit().setEnqueueTimeoutMs(enqueueTimeoutMs);
+        return new AuditLogWriter(auditLogRepository, transactionTemplate, properties, metricsService);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubTransactions() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static AuditLog entry(String featureName) {
+        return AuditLog.builder()
+                .featureName(featureName)
+                .action(AuditAction.UPDATE)
+                .actor("admin")
+                .timestamp(Instant.now())
+                .build();
+    }
+}
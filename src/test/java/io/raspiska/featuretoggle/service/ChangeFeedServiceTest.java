@@ -0,0 +1,161 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.dto.ChangeFeedResponse;
+import io.raspiska.featuretoggle.entity.FeatureToggle;
+import io.raspiska.featuretoggle.entity.FeatureToggleChange;
+import io.raspiska.featuretoggle.entity.FeatureToggleChange.ChangeType;
+import io.raspiska.featuretoggle.entity.ToggleStatus;
+import io.raspiska.featuretoggle.repository.FeatureToggleChangeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeFeedServiceTest {
+
+    @Mock
+    private FeatureToggleChangeRepository changeRepository;
+
+    @Mock
+    private FeatureToggleCacheService cacheService;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private ChangeFeedService changeFeedService;
+    private ToggleChangeListener changeListener;
+
+    @BeforeEach
+    void setUp() {
+        changeFeedService = new ChangeFeedService(changeRepository, cacheService, new ApplicationProperties(), metricsService);
+        ArgumentCaptor<ToggleChangeListener> captor = ArgumentCaptor.forClass(ToggleChangeListener.class);
+        verify(cacheService).addChangeListener(captor.capture());
+        changeListener = captor.getValue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        changeFeedService.shutdown();
+    }
+
+    @Test
+    @DisplayName("record should store the toggle state with the change type")
+    void record_shouldStoreChange() {
+        // Given
+        FeatureToggle toggle = FeatureToggle.builder().id(1L).featureName("TEST_FEATURE").status(ToggleStatus.ENABLED).version(7).build();
+
+        // When
+        changeFeedService.record(toggle, ChangeType.DELETED);
+
+        // Then
+        ArgumentCaptor<FeatureToggleChange> captor = ArgumentCaptor.forClass(FeatureToggleChange.class);
+        verify(changeRepository).flush();
+        verify(changeRepository).save(captor.capture());
+        assertThat(captor.getValue().getFeatureName()).isEqualTo("TEST_FEATURE");
+        assertThat(captor.getValue().getChangeType()).isEqualTo(ChangeType.DELETED);
+        assertThat(captor.getValue().getStatus()).isNull();
+        assertThat(captor.getValue().getToggleVersion()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("getChanges should return pending deltas immediately")
+    void getChanges_shouldReturnDeltasImmediately() {
+        // Given
+        when(changeRepository.findByIdGreaterThanOrderByIdAsc(5L, Limit.of(3)))
+                .thenReturn(List.of(change(6), change(7), change(8)));
+
+        // When
+        DeferredResult<ChangeFeedResponse> result = changeFeedService.getChanges(5, Duration.ofSeconds(30), 2);
+
+        // Then
+        ChangeFeedResponse response = (ChangeFeedResponse) result.getResult();
+        assertThat(response.getChanges()).extracting("version").containsExactly(6L, 7L);
+        assertThat(response.getVersion()).isEqualTo(7);
+        assertThat(response.isHasMore()).isTrue();
+    }
+
+    @Test
+    @DisplayName("getChanges should return an empty result right away without wait")
+    void getChanges_withoutWait_shouldReturnEmptyResult() {
+        // Given
+        when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(8L), any(Limit.class))).thenReturn(List.of());
+
+        // When
+        DeferredResult<ChangeFeedResponse> result = changeFeedService.getChanges(8, Duration.ZERO, 100);
+
+        // Then
+        ChangeFeedResponse response = (ChangeFeedResponse) result.getResult();
+        assertThat(response.getChanges()).isEmpty();
+        assertThat(response.getVersion()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("getChanges should park the request until a change is announced")
+    void getChanges_shouldCompleteWaiterOnChange() throws Exception {
+        // Given
+        when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(8L), any(Limit.class)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(change(9)));
+        when(changeRepository.findLatestVersion()).thenReturn(8L);
+        DeferredResult<ChangeFeedResponse> result = changeFeedService.getChanges(8, Duration.ofSeconds(30), 100);
+        assertThat(result.hasResult()).isFalse();
+
+        // When
+        changeListener.onToggleChanged("TEST_FEATURE", 42);
+
+        // Then
+        for (int i = 0; i < 100 && !result.hasResult(); i++) {
+            Thread.sleep(50);
+        }
+        ChangeFeedResponse response = (ChangeFeedResponse) result.getResult();
+        assertThat(response.getChanges()).extracting("featureName").containsExactly("TEST_FEATURE");
+        assertThat(response.getVersion()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("pollForChanges should wake waiters for changes made by other instances")
+    void pollForChanges_shouldCompleteWaiter_whenLogAdvanced() throws Exception {
+        // Given
+        when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(8L), any(Limit.class)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(change(9)));
+        when(changeRepository.findLatestVersion()).thenReturn(8L, 9L);
+        DeferredResult<ChangeFeedResponse> result = changeFeedService.getChanges(8, Duration.ofSeconds(30), 100);
+
+        // When
+        changeFeedService.pollForChanges();
+
+        // Then
+        for (int i = 0; i < 100 && !result.hasResult(); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(((ChangeFeedResponse) result.getResult()).getVersion()).isEqualTo(9);
+    }
+
+    private static FeatureToggleChange change(long id) {
+        return FeatureToggleChange.builder()
+                .id(id)
+                .featureName("TEST_FEATURE")
+                .changeType(ChangeType.UPDATED)
+                .status(ToggleStatus.ENABLED)
+                .toggleVersion(id)
+                .changedAt(Instant.now())
+                .build();
+    }
+}
@@ -7,21 +7,36 @@ import io.raspiska.featuretoggle.entity.FeatureToggleUser.ListType;
 import io.raspiska.featuretoggle.entity.ToggleStatus;
 import io.raspiska.featuretoggle.repository.FeatureToggleRepository;
 import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository;
+import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository.UserIdRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.RedisSystemException;
 import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.data.redis.listener.ChannelTopic;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
@@ -48,6 +63,9 @@ class FeatureToggleCacheServiceTest {
     @Mock
     private SetOperations<String, Object> setOperations;
 
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
     @Mock
     private MetricsService metricsService;
 
@@ -62,12 +80,11 @@ class FeatureToggleCacheServiceTest {
         properties.setRedis(new ApplicationProperties.Redis());
         properties.getRedis().setChannel("test-channel");
 
-        lenient().when(metricsService.timeFeatureCheck(any())).thenAnswer(inv -> {
-            java.util.function.Supplier<?> supplier = inv.getArgument(0);
-            return supplier.get();
-        });
+        cacheService = newCacheService();
+    }
 
-        cacheService = new FeatureToggleCacheService(
+    private FeatureToggleCacheService newCacheService() {
+        return new FeatureToggleCacheService(
                 redisTemplate,
                 featureToggleTopic,
                 toggleRepository,
@@ -77,6 +94,23 @@ class FeatureToggleCacheServiceTest {
         );
     }
 
+    private void runPipelinedCallbacks() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            SessionCallback<?> callback = invocation.getArgument(0);
+            callback.execute(redisTemplate);
+            return List.of();
+        });
+    }
+
+    private void stubListWrites() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        runPipelinedCallbacks();
+    }
+
+    private static List<String> listScriptKeys(String featureName) {
+        return List.of("feature:toggle:" + featureName, "feature:blacklist:" + featureName, "feature:whitelist:" + featureName);
+    }
+
     @Test
     @DisplayName("checkFeature should return not found when feature doesn't exist")
     void checkFeature_shouldReturnNotFound_whenFeatureDoesNotExist() {
@@ -93,6 +127,121 @@ class FeatureToggleCacheServiceTest {
         assertThat(result.getReason()).isEqualTo("Feature not found");
     }
 
+    @Test
+    @DisplayName("checkFeature should answer repeated unknown features from the negative cache")
+    void checkFeature_shouldUseNegativeCache_forRepeatedUnknownFeature() {
+        // Given
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
+        when(toggleRepository.findByFeatureName("UNKNOWN")).thenReturn(Optional.empty());
+
+        // When
+        cacheService.checkFeature("UNKNOWN", "user1");
+        FeatureCheckResponse result = cacheService.checkFeature("UNKNOWN", "user1");
+
+        // Then
+        assertThat(result.getReason()).isEqualTo("Feature not found");
+        verify(toggleRepository, times(1)).findByFeatureName("UNKNOWN");
+        verify(metricsService).recordNegativeCacheMiss();
+        verify(metricsService).recordNegativeCacheHit();
+    }
+
+    @Test
+    @DisplayName("evictFromLocalCache should clear the negative cache entry for a created feature")
+    void evictFromLocalCache_shouldClearNegativeCacheEntry() {
+        // Given
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("NEW_FEATURE")
+                .status(ToggleStatus.ENABLED)
+                .build();
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
+        when(toggleRepository.findByFeatureName("NEW_FEATURE"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(toggle));
+        cacheService.checkFeature("NEW_FEATURE", "user1");
+
+        // When
+        cacheService.evictFromLocalCache("NEW_FEATURE");
+        FeatureCheckResponse result = cacheService.checkFeature("NEW_FEATURE", "user1");
+
+        // Then
+        assertThat(result.isEnabled()).isTrue();
+        verify(toggleRepository, times(2)).findByFeatureName("NEW_FEATURE");
+    }
+
+    @Test
+    @DisplayName("checkFeature should coalesce concurrent loads of the same feature")
+    void checkFeature_shouldCoalesceConcurrentLoads() throws Exception {
+        // Given
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.ENABLED)
+                .build();
+        CountDownLatch loaderEntered = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenAnswer(inv -> {
+            loaderEntered.countDown();
+            releaseLoader.await(5, TimeUnit.SECONDS);
+            return Optional.of(toggle);
+        });
+
+        // When
+        CompletableFuture<FeatureCheckResponse> leader = CompletableFuture.supplyAsync(
+                () -> cacheService.checkFeature("TEST_FEATURE", "user1"));
+        assertThat(loaderEntered.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<FeatureCheckResponse> follower = CompletableFuture.supplyAsync(
+                () -> cacheService.checkFeature("TEST_FEATURE", "user2"));
+        verify(metricsService, timeout(5000)).recordCoalescedLoad("toggle");
+        releaseLoader.countDown();
+
+        // Then
+        assertThat(leader.get(5, TimeUnit.SECONDS).isEnabled()).isTrue();
+        assertThat(follower.get(5, TimeUnit.SECONDS).isEnabled()).isTrue();
+        verify(toggleRepository, times(1)).findByFeatureName("TEST_FEATURE");
+    }
+
+    @Test
+    @DisplayName("checkFeature with refresh-ahead should serve the cached value and refresh in background")
+    void checkFeature_withRefreshAhead_shouldServeCachedValueAndRefreshInBackground() throws Exception {
+        // Given
+        properties.getCache().getRefreshAhead().setEnabled(true);
+        properties.getCache().getRefreshAhead().setFraction(0.0);
+        properties.getCache().getRefreshAhead().setMaxStaleSeconds(60);
+        cacheService = newCacheService();
+        FeatureToggle enabled = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.ENABLED)
+                .build();
+        FeatureToggle disabled = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.DISABLED)
+                .build();
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
+        when(toggleRepository.findByFeatureName("TEST_FEATURE"))
+                .thenReturn(Optional.of(enabled))
+                .thenReturn(Optional.of(disabled));
+        cacheService.checkFeature("TEST_FEATURE", "user1");
+        Thread.sleep(5);
+
+        // When
+        FeatureCheckResponse stale = cacheService.checkFeature("TEST_FEATURE", "user1");
+
+        // Then
+        assertThat(stale.isEnabled()).isTrue();
+        verify(toggleRepository, timeout(5000).times(2)).findByFeatureName("TEST_FEATURE");
+        Thread.sleep(50);
+        assertThat(cacheService.checkFeature("TEST_FEATURE", "user1").isEnabled()).isFalse();
+        cacheService.shutdown();
+    }
+
     @Test
     @DisplayName("checkFeature should return enabled for ENABLED status")
     void checkFeature_shouldReturnEnabled_forEnabledStatus() {
@@ -139,6 +288,30 @@ class FeatureToggleCacheServiceTest {
         assertThat(result.getReason()).isEqualTo("Feature is disabled globally");
     }
 
+    @Test
+    @DisplayName("checkFeature should return the pre-built response instance for repeated global checks")
+    void checkFeature_shouldReuseResponse_forGlobalToggle() {
+        // Given
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.ENABLED)
+                .build();
+
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
+
+        // When
+        FeatureCheckResponse first = cacheService.checkFeature("TEST_FEATURE", null);
+        FeatureCheckResponse second = cacheService.checkFeature("TEST_FEATURE", null);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        verify(metricsService, times(2)).recordFeatureCheck("TEST_FEATURE", true);
+        verify(metricsService, times(2)).recordFeatureCheckDuration(anyLong());
+    }
+
     @Test
     @DisplayName("checkFeature should require userId for LIST_MODE")
     void checkFeature_shouldRequireUserId_forListMode() {
@@ -162,9 +335,11 @@ class FeatureToggleCacheServiceTest {
     }
 
     @Test
-    @DisplayName("checkFeature should return enabled for whitelisted user")
+    @DisplayName("checkFeature should return enabled for whitelisted user without membership index")
     void checkFeature_shouldReturnEnabled_forWhitelistedUser() {
         // Given
+        properties.getCache().getMembershipIndex().setEnabled(false);
+        cacheService = newCacheService();
         FeatureToggle toggle = FeatureToggle.builder()
                 .id(1L)
                 .featureName("TEST_FEATURE")
@@ -175,10 +350,10 @@ class FeatureToggleCacheServiceTest {
         when(redisTemplate.opsForSet()).thenReturn(setOperations);
         when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
         when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
-        when(setOperations.isMember(contains("blacklist"), eq("user1"))).thenReturn(false);
-        when(setOperations.isMember(contains("whitelist"), eq("user1"))).thenReturn(false);
-        when(userRepository.existsByFeatureNameAndUserIdAndListType("TEST_FEATURE", "user1", ListType.BLACKLIST)).thenReturn(false);
-        when(userRepository.existsByFeatureNameAndUserIdAndListType("TEST_FEATURE", "user1", ListType.WHITELIST)).thenReturn(true);
+        when(setOperations.isMember(eq("feature:blacklist:TEST_FEATURE"), any(Object[].class)))
+                .thenReturn(Map.of("user1", false, FeatureToggleCacheService.LIST_LOADED_MARKER, true));
+        when(setOperations.isMember(eq("feature:whitelist:TEST_FEATURE"), any(Object[].class)))
+                .thenReturn(Map.of("user1", true, FeatureToggleCacheService.LIST_LOADED_MARKER, true));
 
         // When
         FeatureCheckResponse result = cacheService.checkFeature("TEST_FEATURE", "user1");
@@ -186,13 +361,16 @@ class FeatureToggleCacheServiceTest {
         // Then
         assertThat(result.isEnabled()).isTrue();
         assertThat(result.getReason()).isEqualTo("User is whitelisted");
+        verify(userRepository, never()).existsByFeatureNameAndUserIdAndListType(anyString(), anyString(), any());
     }
 
 
     @Test
-    @DisplayName("checkFeature should return disabled for user not in whitelist")
+    @DisplayName("checkFeature should return disabled for user not in whitelist without membership index")
     void checkFeature_shouldReturnDisabled_forUserNotInWhitelist() {
         // Given
+        properties.getCache().getMembershipIndex().setEnabled(false);
+        cacheService = newCacheService();
         FeatureToggle toggle = FeatureToggle.builder()
                 .id(1L)
                 .featureName("TEST_FEATURE")
@@ -203,9 +381,8 @@ class FeatureToggleCacheServiceTest {
         when(redisTemplate.opsForSet()).thenReturn(setOperations);
         when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
         when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
-        when(setOperations.isMember(anyString(), eq("user1"))).thenReturn(false);
-        when(userRepository.existsByFeatureNameAndUserIdAndListType("TEST_FEATURE", "user1", ListType.BLACKLIST)).thenReturn(false);
-        when(userRepository.existsByFeatureNameAndUserIdAndListType("TEST_FEATURE", "user1", ListType.WHITELIST)).thenReturn(false);
+        when(setOperations.isMember(anyString(), any(Object[].class)))
+                .thenReturn(Map.of("user1", false, FeatureToggleCacheService.LIST_LOADED_MARKER, true));
 
         // When
         FeatureCheckResponse result = cacheService.checkFeature("TEST_FEATURE", "user1");
@@ -213,6 +390,263 @@ class FeatureToggleCacheServiceTest {
         // Then
         assertThat(result.isEnabled()).isFalse();
         assertThat(result.getReason()).isEqualTo("User not in whitelist");
+        verify(userRepository, never()).existsByFeatureNameAndUserIdAndListType(anyString(), anyString(), any());
+        verify(userRepository, never()).findUserIdsByFeatureNameAndListType(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("checkFeature should load an unpopulated Redis list set once and mark it as loaded")
+    void checkFeature_shouldPopulateRedisListSet_whenNotLoaded() {
+        // Given
+        properties.getCache().getMembershipIndex().setEnabled(false);
+        cacheService = newCacheService();
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.LIST_MODE)
+                .build();
+
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
+        when(setOperations.isMember(anyString(), any(Object[].class))).thenReturn(Map.of("user1", false));
+        when(userRepository.findUserIdsByFeatureNameAndListType("TEST_FEATURE", ListType.BLACKLIST)).thenReturn(Set.of());
+        when(userRepository.findUserIdsByFeatureNameAndListType("TEST_FEATURE", ListType.WHITELIST)).thenReturn(Set.of("user1"));
+        stubListWrites();
+        when(valueOperations.get("{feature:whitelist:TEST_FEATURE}:version")).thenReturn(7);
+
+        // When
+        FeatureCheckResponse result = cacheService.checkFeature("TEST_FEATURE", "user1");
+
+        // Then
+        assertThat(result.getReason()).isEqualTo("User is whitelisted");
+        verify(setOperations).add(startsWith("{feature:whitelist:TEST_FEATURE}:staging:"),
+                eq("user1"), eq(FeatureToggleCacheService.LIST_LOADED_MARKER));
+        verify(setOperations).add(startsWith("{feature:blacklist:TEST_FEATURE}:staging:"),
+                eq(FeatureToggleCacheService.LIST_LOADED_MARKER));
+        verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(),
+                argThat((List<String> keys) -> keys.get(0).equals("feature:whitelist:TEST_FEATURE")), eq(7L), eq(0L));
+        verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(),
+                argThat((List<String> keys) -> keys.get(0).equals("feature:blacklist:TEST_FEATURE")), eq(0L), eq(0L));
+        verify(userRepository, never()).existsByFeatureNameAndUserIdAndListType(anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("checkFeature should read the list version before loading the list from the database")
+    void checkFeature_shouldReadListVersion_beforeLoadingList() {
+        // Given
+        properties.getCache().getMembershipIndex().setEnabled(false);
+        cacheService = newCacheService();
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.LIST_MODE)
+                .build();
+
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
+        when(setOperations.isMember(anyString(), any(Object[].class))).thenReturn(Map.of("user1", false));
+        when(userRepository.findUserIdsByFeatureNameAndListType(eq("TEST_FEATURE"), any())).thenReturn(Set.of());
+        stubListWrites();
+
+        // When
+        cacheService.checkFeature("TEST_FEATURE", "user1");
+
+        // Then
+        InOrder inOrder = inOrder(valueOperations, userRepository);
+        inOrder.verify(valueOperations).get("{feature:blacklist:TEST_FEATURE}:version");
+        inOrder.verify(userRepository).findUserIdsByFeatureNameAndListType("TEST_FEATURE", ListType.BLACKLIST);
+    }
+
+    @Test
+    @DisplayName("checkFeature should evaluate list mode with a single Redis script call on a local miss")
+    void checkFeature_shouldUseListModeScript_onLocalMiss() {
+        // Given
+        when(redisTemplate.execute(ArgumentMatchers.<RedisScript<List<Object>>>any(), eq(listScriptKeys("TEST_FEATURE")), any(Object[].class)))
+                .thenReturn(List.of((long) ListModeScript.Decision.WHITELISTED.ordinal(), 5L));
+
+        // When
+        FeatureCheckResponse result = cacheService.checkFeature("TEST_FEATURE", "user1");
+
+        // Then
+        assertThat(result.isEnabled()).isTrue();
+        assertThat(result.getStatus()).isEqualTo(ToggleStatus.LIST_MODE);
+        assertThat(result.getReason()).isEqualTo("User is whitelisted");
+        verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<List<Object>>>any(),
+                eq(listScriptKeys("TEST_FEATURE")), any(Object[].class));
+        verify(redisTemplate, never()).opsForHash();
+        verify(toggleRepository, never()).findByFeatureName(anyString());
+    }
+
+    @Test
+    @DisplayName("checkFeature should fall back to the regular lookup when the script finds no cached toggle")
+    void checkFeature_shouldFallBack_whenListModeScriptFindsNothing() {
+        // Given
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.ENABLED)
+                .build();
+        when(redisTemplate.execute(ArgumentMatchers.<RedisScript<List<Object>>>any(), anyList(), any(Object[].class)))
+                .thenReturn(List.of((long) ListModeScript.Decision.NOT_CACHED.ordinal()));
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
+
+        // When
+        FeatureCheckResponse first = cacheService.checkFeature("TEST_FEATURE", "user1");
+        FeatureCheckResponse second = cacheService.checkFeature("TEST_FEATURE", "user2");
+
+        // Then
+        assertThat(first.isEnabled()).isTrue();
+        assertThat(second.isEnabled()).isTrue();
+        verify(redisTemplate, times(1)).execute(ArgumentMatchers.<RedisScript<List<Object>>>any(),
+                eq(listScriptKeys("TEST_FEATURE")), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("checkFeature should stop using the list mode script after a CROSSSLOT error")
+    void checkFeature_shouldDisableListModeScript_onCrossSlotError() {
+        // Given
+        when(redisTemplate.execute(ArgumentMatchers.<RedisScript<List<Object>>>any(), anyList(), any(Object[].class)))
+                .thenThrow(new RuntimeException("CROSSSLOT Keys in request don't hash to the same slot"));
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
+
+        // When
+        cacheService.checkFeature("TEST_FEATURE", "user1");
+        cacheService.checkFeature("OTHER_FEATURE", "user1");
+
+        // Then
+        verify(redisTemplate, times(1)).execute(ArgumentMatchers.<RedisScript<List<Object>>>any(), anyList(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("checkFeature should evaluate list mode from the in-memory membership index")
+    void checkFeature_shouldUseMembershipIndex_forListMode() {
+        // Given
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.LIST_MODE)
+                .build();
+
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(userRepository.findUserIdsByFeatureIdAndListType(1L, ListType.WHITELIST)).thenReturn(Set.of("user1", "user2"));
+        when(userRepository.findUserIdsByFeatureIdAndListType(1L, ListType.BLACKLIST)).thenReturn(Set.of("user2"));
+        stubListWrites();
+
+        // When
+        FeatureCheckResponse whitelisted = cacheService.checkFeature("TEST_FEATURE", "user1");
+        FeatureCheckResponse blacklisted = cacheService.checkFeature("TEST_FEATURE", "user2");
+        FeatureCheckResponse unlisted = cacheService.checkFeature("TEST_FEATURE", "user3");
+
+        // Then
+        assertThat(whitelisted.getReason()).isEqualTo("User is whitelisted");
+        assertThat(blacklisted.getReason()).isEqualTo("User is blacklisted");
+        assertThat(unlisted.getReason()).isEqualTo("User not in whitelist");
+        verify(userRepository, times(1)).findUserIdsByFeatureIdAndListType(1L, ListType.WHITELIST);
+        verify(userRepository, never()).existsByFeatureNameAndUserIdAndListType(anyString(), anyString(), any());
+        verify(setOperations, never()).isMember(anyString(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("onUsersAdded and onUsersRemoved should patch the membership index without reloading")
+    void onUsersAddedAndRemoved_shouldPatchMembershipIndex() {
+        // Given
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.LIST_MODE)
+                .build();
+
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
+        when(featureToggleTopic.getTopic()).thenReturn("test-channel");
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(userRepository.findUserIdsByFeatureIdAndListType(1L, ListType.WHITELIST)).thenReturn(Set.of("user1"));
+        when(userRepository.findUserIdsByFeatureIdAndListType(1L, ListType.BLACKLIST)).thenReturn(Set.of());
+        stubListWrites();
+        cacheService.checkFeature("TEST_FEATURE", "user1");
+
+        // When
+        cacheService.onUsersAdded("TEST_FEATURE", ListType.WHITELIST, List.of("user2"));
+        cacheService.onUsersRemoved("TEST_FEATURE", ListType.WHITELIST, List.of("user1"));
+
+        // Then
+        assertThat(cacheService.checkFeature("TEST_FEATURE", "user2").isEnabled()).isTrue();
+        assertThat(cacheService.checkFeature("TEST_FEATURE", "user1").isEnabled()).isFalse();
+        verify(userRepository, times(1)).findUserIdsByFeatureIdAndListType(1L, ListType.WHITELIST);
+    }
+
+    @Test
+    @DisplayName("onUsersAdded should drop the membership index entry instead of patching a large delta")
+    void onUsersAdded_shouldEvictMembershipIndex_whenDeltaIsLarge() {
+        // Given
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.LIST_MODE)
+                .build();
+
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
+        when(featureToggleTopic.getTopic()).thenReturn("test-channel");
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(userRepository.findUserIdsByFeatureIdAndListType(1L, ListType.WHITELIST)).thenReturn(Set.of("user1"));
+        when(userRepository.findUserIdsByFeatureIdAndListType(1L, ListType.BLACKLIST)).thenReturn(Set.of());
+        stubListWrites();
+        cacheService.checkFeature("TEST_FEATURE", "user1");
+        List<String> imported = new ArrayList<>();
+        for (int i = 0; i <= MembershipIndex.MAX_PATCH_SIZE; i++) {
+            imported.add("imported" + i);
+        }
+
+        // When
+        cacheService.onUsersAdded("TEST_FEATURE", ListType.WHITELIST, imported);
+        cacheService.checkFeature("TEST_FEATURE", "user1");
+
+        // Then
+        verify(userRepository, times(2)).findUserIdsByFeatureIdAndListType(1L, ListType.WHITELIST);
+    }
+
+    @Test
+    @DisplayName("a list change on one feature should not discard an in-flight membership load of another")
+    void membershipIndex_shouldKeepLoad_whenOtherFeatureChanges() {
+        // Given
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.LIST_MODE)
+                .build();
+
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
+        when(featureToggleTopic.getTopic()).thenReturn("test-channel");
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(userRepository.findUserIdsByFeatureIdAndListType(1L, ListType.WHITELIST)).thenAnswer(invocation -> {
+            cacheService.onUsersAdded("OTHER_FEATURE", ListType.WHITELIST, List.of("user9"));
+            return Set.of("user1");
+        });
+        when(userRepository.findUserIdsByFeatureIdAndListType(1L, ListType.BLACKLIST)).thenReturn(Set.of());
+        stubListWrites();
+
+        // When
+        cacheService.checkFeature("TEST_FEATURE", "user1");
+        FeatureCheckResponse result = cacheService.checkFeature("TEST_FEATURE", "user1");
+
+        // Then
+        assertThat(result.isEnabled()).isTrue();
+        verify(userRepository, times(1)).findUserIdsByFeatureIdAndListType(1L, ListType.WHITELIST);
     }
 
     @Test
@@ -234,10 +668,11 @@ class FeatureToggleCacheServiceTest {
     }
 
     @Test
-    @DisplayName("invalidateCache should evict from local and Redis cache")
+    @DisplayName("invalidateCache should evict a deleted toggle from local and Redis cache")
     void invalidateCache_shouldEvictFromBothCaches() {
         // Given
         when(featureToggleTopic.getTopic()).thenReturn("test-channel");
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.empty());
 
         // When
         cacheService.invalidateCache("TEST_FEATURE");
@@ -246,7 +681,241 @@ class FeatureToggleCacheServiceTest {
         verify(redisTemplate).delete("feature:toggle:TEST_FEATURE");
         verify(redisTemplate).delete("feature:whitelist:TEST_FEATURE");
         verify(redisTemplate).delete("feature:blacklist:TEST_FEATURE");
-        verify(redisTemplate).convertAndSend("test-channel", "TEST_FEATURE");
+        verify(redisTemplate).convertAndSend(eq("test-channel"), startsWith("TEST_FEATURE:"));
+    }
+
+    @Test
+    @DisplayName("invalidateCache should write the committed toggle through to Redis and publish its version")
+    void invalidateCache_shouldWriteThroughAndPublishVersion() {
+        // Given
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.ENABLED)
+                .version(42L)
+                .build();
+        when(featureToggleTopic.getTopic()).thenReturn("test-channel");
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
+
+        // When
+        cacheService.invalidateCache("TEST_FEATURE");
+
+        // Then
+        verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(),
+                eq(List.of("feature:toggle:TEST_FEATURE")), eq(42L), eq("ENABLED"), eq(1L), anyLong());
+        verify(redisTemplate, never()).delete("feature:toggle:TEST_FEATURE");
+        verify(redisTemplate, never()).delete("feature:whitelist:TEST_FEATURE");
+        verify(redisTemplate, never()).delete("feature:blacklist:TEST_FEATURE");
+        verify(redisTemplate).convertAndSend("test-channel", "TEST_FEATURE:42@" + cacheService.getInstanceId());
+    }
+
+    @Test
+    @DisplayName("checkFeature should skip Redis values older than the last invalidation")
+    void checkFeature_shouldSkipStaleRedisValue_afterVersionedInvalidation() {
+        // Given
+        Map<Object, Object> staleRedisData = new HashMap<>();
+        staleRedisData.put("status", "ENABLED");
+        staleRedisData.put("version", 1L);
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.DISABLED)
+                .version(2L)
+                .build();
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("feature:toggle:TEST_FEATURE")).thenReturn(staleRedisData);
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
+
+        // When
+        cacheService.evictFromLocalCache("TEST_FEATURE", 2L);
+        FeatureCheckResponse result = cacheService.checkFeature("TEST_FEATURE", null);
+
+        // Then
+        assertThat(result.isEnabled()).isFalse();
+        verify(toggleRepository).findByFeatureName("TEST_FEATURE");
+    }
+
+    @Test
+    @DisplayName("checkFeature should not cache a value loaded before a newer invalidation arrived")
+    void checkFeature_shouldNotCacheValue_loadedBeforeNewerInvalidation() {
+        // Given
+        FeatureToggle stale = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.ENABLED)
+                .version(1L)
+                .build();
+        FeatureToggle current = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.DISABLED)
+                .version(2L)
+                .build();
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
+        when(toggleRepository.findByFeatureName("TEST_FEATURE"))
+                .thenAnswer(inv -> {
+                    // The invalidation for version 2 arrives while version 1 is being read
+                    cacheService.evictFromLocalCache("TEST_FEATURE", 2L);
+                    return Optional.of(stale);
+                })
+                .thenReturn(Optional.of(current));
+
+        // When
+        FeatureCheckResponse first = cacheService.checkFeature("TEST_FEATURE", null);
+        FeatureCheckResponse second = cacheService.checkFeature("TEST_FEATURE", null);
+
+        // Then
+        assertThat(first.isEnabled()).isTrue();
+        assertThat(second.isEnabled()).isFalse();
+        verify(toggleRepository, times(2)).findByFeatureName("TEST_FEATURE");
+    }
+
+    @Test
+    @DisplayName("evictFromLocalCache with version 0 should keep the cached toggle")
+    void evictFromLocalCache_withVersionZero_shouldKeepToggle() {
+        // Given
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.ENABLED)
+                .version(5L)
+                .build();
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(new HashMap<>());
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
+        cacheService.checkFeature("TEST_FEATURE", null);
+
+        // When
+        cacheService.evictFromLocalCache("TEST_FEATURE", 0);
+        cacheService.checkFeature("TEST_FEATURE", null);
+
+        // Then
+        verify(toggleRepository, times(1)).findByFeatureName("TEST_FEATURE");
+    }
+
+    @Test
+    @DisplayName("onUsersAdded should add users to a loaded Redis set instead of reloading the list")
+    void onUsersAdded_shouldAddToLoadedRedisSet() {
+        // Given
+        when(featureToggleTopic.getTopic()).thenReturn("test-channel");
+        stubListWrites();
+
+        // When
+        cacheService.onUsersAdded("TEST_FEATURE", ListType.WHITELIST, List.of("user1", "user2"));
+
+        // Then
+        verify(valueOperations).increment("{feature:whitelist:TEST_FEATURE}:version");
+        verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(List.of("feature:whitelist:TEST_FEATURE")),
+                eq(FeatureToggleCacheService.LIST_LOADED_MARKER), eq("user1"), eq("user2"));
+        verify(userRepository, never()).findUserIdsByFeatureNameAndListType(anyString(), any());
+        verify(redisTemplate, never()).delete(anyString());
+        verify(redisTemplate).convertAndSend("test-channel", "TEST_FEATURE:0@" + cacheService.getInstanceId());
+    }
+
+    @Test
+    @DisplayName("onUsersAdded should load the scripts again and retry when Redis answers NOSCRIPT")
+    void onUsersAdded_shouldReloadScriptsAndRetry_whenNoScript() {
+        // Given
+        when(featureToggleTopic.getTopic()).thenReturn("test-channel");
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenThrow(new RedisSystemException("NOSCRIPT No matching script", null))
+                .thenAnswer(invocation -> {
+                    invocation.<SessionCallback<?>>getArgument(0).execute(redisTemplate);
+                    return List.of();
+                });
+
+        // When
+        cacheService.onUsersAdded("TEST_FEATURE", ListType.WHITELIST, List.of("user1"));
+
+        // Then
+        verify(redisTemplate, times(2)).execute(any(RedisCallback.class));
+        verify(redisTemplate, times(2)).executePipelined(any(SessionCallback.class));
+        verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(List.of("feature:whitelist:TEST_FEATURE")),
+                eq(FeatureToggleCacheService.LIST_LOADED_MARKER), eq("user1"));
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    @DisplayName("onUsersRemoved should remove users from the Redis set instead of reloading the list")
+    void onUsersRemoved_shouldRemoveFromRedisSet() {
+        // Given
+        when(featureToggleTopic.getTopic()).thenReturn("test-channel");
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        stubListWrites();
+
+        // When
+        cacheService.onUsersRemoved("TEST_FEATURE", ListType.BLACKLIST, List.of("user1", "user2"));
+
+        // Then
+        InOrder inOrder = inOrder(valueOperations, setOperations);
+        inOrder.verify(valueOperations).increment("{feature:blacklist:TEST_FEATURE}:version");
+        inOrder.verify(setOperations).remove("feature:blacklist:TEST_FEATURE", "user1", "user2");
+        verify(setOperations).remove("feature:blacklist:TEST_FEATURE", "user1", "user2");
+        verify(userRepository, never()).findUserIdsByFeatureNameAndListType(anyString(), any());
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    @DisplayName("onUsersRemoved should drop the Redis set when the delta cannot be applied")
+    void onUsersRemoved_shouldEvictRedisSet_whenDeltaFails() {
+        // Given
+        when(featureToggleTopic.getTopic()).thenReturn("test-channel");
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenThrow(new IllegalStateException("connection lost"));
+
+        // When
+        cacheService.onUsersRemoved("TEST_FEATURE", ListType.WHITELIST, List.of("user1"));
+
+        // Then
+        verify(redisTemplate).delete("feature:whitelist:TEST_FEATURE");
+    }
+
+    @Test
+    @DisplayName("onUserListReplaced should stream the list into a staging set and commit it at the bumped version")
+    void onUserListReplaced_shouldStageListAndCommitAtBumpedVersion() {
+        // Given
+        FeatureToggle toggle = FeatureToggle.builder().id(1L).featureName("TEST_FEATURE").status(ToggleStatus.LIST_MODE).build();
+        when(featureToggleTopic.getTopic()).thenReturn("test-channel");
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        stubListWrites();
+        when(valueOperations.increment("{feature:whitelist:TEST_FEATURE}:version")).thenReturn(5L);
+        when(userRepository.findUserIdsAfter(toggle, ListType.WHITELIST, 0L, Limit.of(1000)))
+                .thenReturn(List.of(userIdRow(11, "user1"), userIdRow(12, "user2")));
+        when(redisTemplate.execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(), any(Object[].class))).thenReturn(1L);
+
+        // When
+        cacheService.onUserListReplaced("TEST_FEATURE", ListType.WHITELIST);
+
+        // Then
+        verify(setOperations).add(startsWith("{feature:whitelist:TEST_FEATURE}:staging:"),
+                eq("user1"), eq("user2"), eq(FeatureToggleCacheService.LIST_LOADED_MARKER));
+        verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(),
+                argThat((List<String> keys) -> keys.get(0).equals("feature:whitelist:TEST_FEATURE")
+                        && keys.get(1).startsWith("{feature:whitelist:TEST_FEATURE}:staging:")), eq(5L), eq(1L));
+        verify(userRepository, never()).findUserIdsByFeatureNameAndListType(anyString(), any());
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    @DisplayName("onUserListReplaced should drop the Redis set when the list changed again during the reload")
+    void onUserListReplaced_shouldEvictRedisSet_whenCommitIsRejected() {
+        // Given
+        FeatureToggle toggle = FeatureToggle.builder().id(1L).featureName("TEST_FEATURE").status(ToggleStatus.LIST_MODE).build();
+        when(featureToggleTopic.getTopic()).thenReturn("test-channel");
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        stubListWrites();
+        when(valueOperations.increment("{feature:blacklist:TEST_FEATURE}:version")).thenReturn(5L);
+        when(userRepository.findUserIdsAfter(toggle, ListType.BLACKLIST, 0L, Limit.of(1000))).thenReturn(List.of());
+        when(redisTemplate.execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(), any(Object[].class))).thenReturn(0L);
+
+        // When
+        cacheService.onUserListReplaced("TEST_FEATURE", ListType.BLACKLIST);
+
+        // Then
+        verify(redisTemplate).delete("feature:blacklist:TEST_FEATURE");
     }
 
     @Test
@@ -254,28 +923,81 @@ class FeatureToggleCacheServiceTest {
     void invalidateUserList_shouldDeleteRedisSetAndPublish() {
         // Given
         when(featureToggleTopic.getTopic()).thenReturn("test-channel");
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
 
         // When
         cacheService.invalidateUserList("TEST_FEATURE", ListType.WHITELIST);
 
         // Then
-        verify(redisTemplate).delete("feature:whitelist:TEST_FEATURE");
-        verify(redisTemplate).convertAndSend("test-channel", "TEST_FEATURE");
+        InOrder inOrder = inOrder(valueOperations, redisTemplate);
+        inOrder.verify(valueOperations).increment("{feature:whitelist:TEST_FEATURE}:version");
+        inOrder.verify(redisTemplate).delete("feature:whitelist:TEST_FEATURE");
+        verify(redisTemplate).convertAndSend("test-channel", "TEST_FEATURE:0@" + cacheService.getInstanceId());
     }
 
     @Test
-    @DisplayName("cacheUserList should add users to Redis set")
-    void cacheUserList_shouldAddUsersToRedisSet() {
+    @DisplayName("warmUp should load all toggles into the local cache and pipeline them to Redis")
+    void warmUp_shouldLoadTogglesIntoLocalCacheAndRedis() {
         // Given
-        when(redisTemplate.opsForSet()).thenReturn(setOperations);
-        Set<String> userIds = Set.of("user1", "user2");
+        FeatureToggle enabled = FeatureToggle.builder().id(1L).featureName("FEATURE_A").status(ToggleStatus.ENABLED).build();
+        FeatureToggle disabled = FeatureToggle.builder().id(2L).featureName("FEATURE_B").status(ToggleStatus.DISABLED).build();
+        FeatureToggle listMode = FeatureToggle.builder().id(3L).featureName("FEATURE_C").status(ToggleStatus.LIST_MODE).build();
+        when(toggleRepository.findAll()).thenReturn(List.of(enabled, disabled, listMode));
+
+        // When
+        FeatureToggleCacheService.WarmUpResult result = cacheService.warmUp(false, 2);
+
+        // Then
+        assertThat(result.toggles()).isEqualTo(3);
+        assertThat(result.listEntries()).isZero();
+        assertThat(cacheService.checkFeature("FEATURE_A", null).isEnabled()).isTrue();
+        assertThat(cacheService.checkFeature("FEATURE_B", null).isEnabled()).isFalse();
+        verify(redisTemplate, times(2)).executePipelined(any(SessionCallback.class));
+        verify(toggleRepository, never()).findByFeatureName(anyString());
+        verify(userRepository, never()).findUserIdsByFeatureIdAndListType(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("warmUp should preload the scripts and keep writing batches after one fails")
+    void warmUp_shouldContinueWithNextBatch_whenBatchFails() {
+        // Given
+        FeatureToggle first = FeatureToggle.builder().id(1L).featureName("FEATURE_A").status(ToggleStatus.ENABLED).build();
+        FeatureToggle second = FeatureToggle.builder().id(2L).featureName("FEATURE_B").status(ToggleStatus.DISABLED).build();
+        when(toggleRepository.findAll()).thenReturn(List.of(first, second));
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenThrow(new IllegalStateException("connection reset"))
+                .thenReturn(List.of());
 
         // When
-        cacheService.cacheUserList("TEST_FEATURE", userIds, ListType.WHITELIST);
+        FeatureToggleCacheService.WarmUpResult result = cacheService.warmUp(false, 1);
 
         // Then
-        verify(setOperations).add(eq("feature:whitelist:TEST_FEATURE"), any(Object[].class));
-        verify(redisTemplate).expire(eq("feature:whitelist:TEST_FEATURE"), anyLong(), any());
+        assertThat(result.toggles()).isEqualTo(2);
+        InOrder inOrder = inOrder(redisTemplate);
+        inOrder.verify(redisTemplate).execute(any(RedisCallback.class));
+        inOrder.verify(redisTemplate, times(2)).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    @DisplayName("warmUp with lists should load LIST_MODE memberships into the membership index")
+    void warmUp_shouldLoadListsIntoMembershipIndex() {
+        // Given
+        FeatureToggle listMode = FeatureToggle.builder().id(3L).featureName("FEATURE_C").status(ToggleStatus.LIST_MODE).build();
+        when(toggleRepository.findAll()).thenReturn(List.of(listMode));
+        when(userRepository.findUserIdsByFeatureIdAndListType(3L, ListType.WHITELIST)).thenReturn(Set.of("user1", "user2"));
+        when(userRepository.findUserIdsByFeatureIdAndListType(3L, ListType.BLACKLIST)).thenReturn(Set.of("user2"));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        // When
+        FeatureToggleCacheService.WarmUpResult result = cacheService.warmUp(true, 500);
+
+        // Then
+        assertThat(result.listEntries()).isEqualTo(3);
+        assertThat(cacheService.checkFeature("FEATURE_C", "user1").getReason()).isEqualTo("User is whitelisted");
+        assertThat(cacheService.checkFeature("FEATURE_C", "user2").getReason()).isEqualTo("User is blacklisted");
+        verify(userRepository, times(1)).findUserIdsByFeatureIdAndListType(3L, ListType.WHITELIST);
+        // One pipeline for the toggle, one per list
+        verify(redisTemplate, times(3)).executePipelined(any(SessionCallback.class));
     }
 
     @Test
@@ -318,4 +1040,230 @@ class FeatureToggleCacheServiceTest {
         assertThat(result.isEnabled()).isFalse();
         assertThat(result.getReason()).isEqualTo("User ID required for list mode");
     }
+
+    @Test
+    @DisplayName("checkFeature in snapshot mode should be served without Redis or per-key DB lookups")
+    void checkFeature_inSnapshotMode_shouldNotHitRedisOrDatabase() {
+        // Given
+        properties.getCache().getSnapshot().setEnabled(true);
+        cacheService = newCacheService();
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.ENABLED)
+                .build();
+        when(toggleRepository.findAll()).thenReturn(List.of(toggle));
+        cacheService.reloadSnapshot();
+
+        // When
+        FeatureCheckResponse enabled = cacheService.checkFeature("TEST_FEATURE", "user1");
+        FeatureCheckResponse unknown = cacheService.checkFeature("UNKNOWN", "user1");
+
+        // Then
+        assertThat(enabled.isEnabled()).isTrue();
+        assertThat(unknown.getReason()).isEqualTo("Feature not found");
+        verify(redisTemplate, never()).opsForHash();
+        verify(toggleRepository, never()).findByFeatureName(anyString());
+    }
+
+    @Test
+    @DisplayName("evictFromLocalCache in snapshot mode should refresh the single snapshot entry")
+    void evictFromLocalCache_inSnapshotMode_shouldRefreshEntry() {
+        // Given
+        properties.getCache().getSnapshot().setEnabled(true);
+        cacheService = newCacheService();
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.ENABLED)
+                .build();
+        FeatureToggle updated = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.DISABLED)
+                .build();
+        when(toggleRepository.findAll()).thenReturn(List.of(toggle));
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(updated));
+        cacheService.reloadSnapshot();
+
+        // When
+        cacheService.evictFromLocalCache("TEST_FEATURE");
+
+        // Then
+        assertThat(cacheService.checkFeature("TEST_FEATURE", "user1").isEnabled()).isFalse();
+        verify(toggleRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("evictFromLocalCache in snapshot mode should drop deleted toggles")
+    void evictFromLocalCache_inSnapshotMode_shouldDropDeletedToggle() {
+        // Given
+        properties.getCache().getSnapshot().setEnabled(true);
+        cacheService = newCacheService();
+        FeatureToggle toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.ENABLED)
+                .build();
+        when(toggleRepository.findAll()).thenReturn(List.of(toggle));
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.empty());
+        cacheService.reloadSnapshot();
+
+        // When
+        cacheService.evictFromLocalCache("TEST_FEATURE");
+
+        // Then
+        assertThat(cacheService.checkFeature("TEST_FEATURE", "user1").getReason()).isEqualTo("Feature not found");
+    }
+
+    @Test
+    @DisplayName("checkFeatures should serve local hits and load misses with one pipeline and one query")
+    void checkFeatures_shouldBatchRedisAndDatabaseLookups() {
+        // Given
+        FeatureToggle cached = FeatureToggle.builder().id(1L).featureName("FEATURE_A").status(ToggleStatus.ENABLED).build();
+        when(toggleRepository.findAll()).thenReturn(List.of(cached));
+        cacheService.warmUp(false, 500);
+        clearInvocations(redisTemplate);
+
+        FeatureToggle fromDb = FeatureToggle.builder().id(3L).featureName("FEATURE_C").status(ToggleStatus.DISABLED).build();
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(Map.of("status", "ENABLED", "id", 2, "version", 1), Map.of(), Map.of()))
+                .thenReturn(List.of());
+        when(toggleRepository.findByFeatureNameIn(List.of("FEATURE_C", "UNKNOWN"))).thenReturn(List.of(fromDb));
+
+        // When
+        Map<String, FeatureCheckResponse> results = cacheService.checkFeatures(
+                List.of("FEATURE_A", "FEATURE_B", "FEATURE_C", "UNKNOWN"), "user1");
+
+        // Then
+        assertThat(results).containsOnlyKeys("FEATURE_A", "FEATURE_B", "FEATURE_C", "UNKNOWN");
+        assertThat(results.get("FEATURE_A").isEnabled()).isTrue();
+        assertThat(results.get("FEATURE_B").isEnabled()).isTrue();
+        assertThat(results.get("FEATURE_C").isEnabled()).isFalse();
+        assertThat(results.get("UNKNOWN").getReason()).isEqualTo("Feature not found");
+        // One pipelined read for the misses, one pipelined write-back of the DB result
+        verify(redisTemplate, times(2)).executePipelined(any(SessionCallback.class));
+        verify(toggleRepository, never()).findByFeatureName(anyString());
+        verify(metricsService).recordBatchCheckDuration(anyLong());
+        verify(metricsService, never()).recordFeatureCheckDuration(anyLong());
+    }
+
+    @Test
+    @DisplayName("checkFeatures should answer repeated batches from the local tiers")
+    void checkFeatures_shouldServeRepeatedBatchLocally() {
+        // Given
+        FeatureToggle toggle = FeatureToggle.builder().id(1L).featureName("FEATURE_A").status(ToggleStatus.ENABLED).build();
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of());
+        when(toggleRepository.findByFeatureNameIn(List.of("FEATURE_A", "UNKNOWN"))).thenReturn(List.of(toggle));
+        cacheService.checkFeatures(List.of("FEATURE_A", "UNKNOWN"), null);
+
+        // When
+        Map<String, FeatureCheckResponse> results = cacheService.checkFeatures(List.of("FEATURE_A", "UNKNOWN", "FEATURE_A"), null);
+
+        // Then
+        assertThat(results).hasSize(2);
+        assertThat(results.get("FEATURE_A").isEnabled()).isTrue();
+        assertThat(results.get("UNKNOWN").getReason()).isEqualTo("Feature not found");
+        verify(toggleRepository, times(1)).findByFeatureNameIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("getUserFlags should evaluate all toggles and return a stable ETag")
+    void getUserFlags_shouldEvaluateAllTogglesWithStableETag() {
+        // Given
+        cacheService = new FeatureToggleCacheService(null, null, toggleRepository, userRepository, properties, metricsService);
+        FeatureToggle enabled = FeatureToggle.builder().id(1L).featureName("FEATURE_A").status(ToggleStatus.ENABLED).version(1).build();
+        FeatureToggle listMode = FeatureToggle.builder().id(2L).featureName("FEATURE_B").status(ToggleStatus.LIST_MODE).version(1).build();
+        when(toggleRepository.findAll()).thenReturn(List.of(enabled, listMode));
+        when(userRepository.findUserIdsByFeatureIdAndListType(2L, ListType.WHITELIST)).thenReturn(Set.of("user1"));
+        when(userRepository.findUserIdsByFeatureIdAndListType(2L, ListType.BLACKLIST)).thenReturn(Set.of());
+
+        // When
+        FeatureToggleCacheService.UserFlags user1 = cacheService.getUserFlags("user1");
+        FeatureToggleCacheService.UserFlags user1Again = cacheService.getUserFlags("user1");
+        FeatureToggleCacheService.UserFlags user2 = cacheService.getUserFlags("user2");
+
+        // Then
+        assertThat(user1.flags()).containsExactly(Map.entry("FEATURE_A", true), Map.entry("FEATURE_B", true));
+        assertThat(user2.flags()).containsExactly(Map.entry("FEATURE_A", true), Map.entry("FEATURE_B", false));
+        assertThat(user1Again.etag()).isEqualTo(user1.etag());
+        assertThat(user2.etag()).isNotEqualTo(user1.etag());
+        verify(toggleRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("getUserFlags ETag should change when a toggle or the user's list membership changes")
+    void getUserFlags_etagShouldChangeOnToggleOrMembershipChange() {
+        // Given
+        cacheService = new FeatureToggleCacheService(null, null, toggleRepository, userRepository, properties, metricsService);
+        FeatureToggle listMode = FeatureToggle.builder().id(2L).featureName("FEATURE_B").status(ToggleStatus.LIST_MODE).version(1).build();
+        FeatureToggle disabled = FeatureToggle.builder().id(2L).featureName("FEATURE_B").status(ToggleStatus.DISABLED).version(2).build();
+        when(toggleRepository.findAll()).thenReturn(List.of(listMode));
+        when(toggleRepository.findByFeatureName("FEATURE_B")).thenReturn(Optional.of(disabled));
+        when(userRepository.findUserIdsByFeatureIdAndListType(eq(2L), any())).thenReturn(Set.of());
+        String initial = cacheService.getUserFlags("user1").etag();
+
+        // When
+        cacheService.onUsersAdded("FEATURE_B", ListType.WHITELIST, List.of("user1"));
+        String afterMembership = cacheService.getUserFlags("user1").etag();
+        cacheService.evictFromLocalCache("FEATURE_B", 2);
+        FeatureToggleCacheService.UserFlags afterUpdate = cacheService.getUserFlags("user1");
+
+        // Then
+        assertThat(afterMembership).isNotEqualTo(initial);
+        assertThat(afterUpdate.etag()).isNotEqualTo(afterMembership).isNotEqualTo(initial);
+        assertThat(afterUpdate.flags()).containsExactly(Map.entry("FEATURE_B", false));
+    }
+
+    @Test
+    @DisplayName("getUserFlags with Redis should build the ETag from list versions without evaluating lists")
+    void getUserFlags_withRedis_shouldBuildETagFromListVersions() {
+        // Given
+        FeatureToggle listMode = FeatureToggle.builder().id(2L).featureName("FEATURE_B").status(ToggleStatus.LIST_MODE).version(1).build();
+        when(toggleRepository.findAll()).thenReturn(List.of(listMode));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        List<String> versionKeys = List.of("{feature:whitelist:FEATURE_B}:version", "{feature:blacklist:FEATURE_B}:version");
+        when(valueOperations.multiGet(versionKeys)).thenReturn(
+                Arrays.<Object>asList(3, null), Arrays.<Object>asList(3, null), Arrays.<Object>asList(4, null));
+
+        // When
+        String initial = cacheService.getUserFlags("user1").etag();
+        String unchanged = cacheService.getUserFlags("user1").etag();
+        String afterListChange = cacheService.getUserFlags("user1").etag();
+
+        // Then
+        assertThat(unchanged).isEqualTo(initial);
+        assertThat(afterListChange).isNotEqualTo(initial);
+        verifyNoInteractions(setOperations);
+        verify(userRepository, never()).findUserIdsByFeatureIdAndListType(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("evictFromLocalCache should notify change listeners for toggle versions only")
+    void evictFromLocalCache_shouldNotifyChangeListeners() {
+        // Given
+        List<String> changes = new ArrayList<>();
+        cacheService.addChangeListener((featureName, version) -> changes.add(featureName + ":" + version));
+
+        // When
+        cacheService.evictFromLocalCache("TEST_FEATURE", 42);
+        cacheService.evictFromLocalCache("TEST_FEATURE", 0);
+
+        // Then
+        assertThat(changes).containsExactly("TEST_FEATURE:42");
+    }
+
+    private static UserIdRow userIdRow(long id, String userId) {
+        return new UserIdRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getUserId() {
+                return userId;
+            }
+        };
+    }
 }
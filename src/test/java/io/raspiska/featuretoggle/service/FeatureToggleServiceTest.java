@@ -2,26 +2,34 @@ package io.raspiska.featuretoggle.service;
 
 import io.raspiska.featuretoggle.dto.*;
 import io.raspiska.featuretoggle.entity.FeatureToggle;
+import io.raspiska.featuretoggle.entity.FeatureToggleChange.ChangeType;
 import io.raspiska.featuretoggle.entity.FeatureToggleUser;
 import io.raspiska.featuretoggle.entity.FeatureToggleUser.ListType;
+import io.raspiska.featuretoggle.entity.ListPurge;
+import io.raspiska.featuretoggle.entity.ToggleSchedule;
 import io.raspiska.featuretoggle.entity.ToggleStatus;
 import io.raspiska.featuretoggle.repository.FeatureToggleRepository;
 import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository;
+import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository.ListCount;
+import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository.UserIdRow;
+import io.raspiska.featuretoggle.repository.ToggleScheduleRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -45,6 +53,18 @@ class FeatureToggleServiceTest {
     @Mock
     private AuditLogService auditLogService;
 
+    @Mock
+    private ChangeFeedService changeFeedService;
+
+    @Mock
+    private ListPurgeService listPurgeService;
+
+    @Mock
+    private ToggleScheduleRepository scheduleRepository;
+
+    @Mock
+    private ScheduledToggleService scheduledToggleService;
+
     @InjectMocks
     private FeatureToggleService service;
 
@@ -72,8 +92,8 @@ class FeatureToggleServiceTest {
                 .status(ToggleStatus.DISABLED)
                 .build();
         when(toggleRepository.findAll()).thenReturn(List.of(testToggle, toggle2));
-        when(userRepository.countByFeatureAndListType(any(), eq(ListType.WHITELIST))).thenReturn(0L);
-        when(userRepository.countByFeatureAndListType(any(), eq(ListType.BLACKLIST))).thenReturn(0L);
+        when(userRepository.countAllByFeatureAndListType()).thenReturn(List.of(
+                listCount(1L, ListType.WHITELIST, 5), listCount(1L, ListType.BLACKLIST, 2)));
 
         // When
         List<FeatureToggleDto> result = service.getAllToggles();
@@ -81,7 +101,64 @@ class FeatureToggleServiceTest {
         // Then
         assertThat(result).hasSize(2);
         assertThat(result.get(0).getFeatureName()).isEqualTo("TEST_FEATURE");
+        assertThat(result.get(0).getWhitelistCount()).isEqualTo(5);
+        assertThat(result.get(0).getBlacklistCount()).isEqualTo(2);
         assertThat(result.get(1).getFeatureName()).isEqualTo("FEATURE_2");
+        assertThat(result.get(1).getWhitelistCount()).isZero();
+        verify(userRepository, never()).countByFeatureAndListType(any(), any());
+    }
+
+    @Test
+    @DisplayName("getTogglesByGroup should count list members with one grouped query")
+    void getTogglesByGroup_shouldCountListsInOneQuery() {
+        // Given
+        when(toggleRepository.findByGroupName("payment")).thenReturn(List.of(testToggle));
+        when(userRepository.countByFeatureIdInAndListType(List.of(1L))).thenReturn(List.of(listCount(1L, ListType.BLACKLIST, 3)));
+
+        // When
+        List<FeatureToggleDto> result = service.getTogglesByGroup("payment");
+
+        // Then
+        assertThat(result).singleElement().satisfies(dto -> {
+            assertThat(dto.getWhitelistCount()).isZero();
+            assertThat(dto.getBlacklistCount()).isEqualTo(3);
+        });
+        verify(userRepository, never()).countByFeatureAndListType(any(), any());
+    }
+
+    @Test
+    @DisplayName("streamToggles should read toggles in id-ordered chunks")
+    void streamToggles_shouldReadInChunks() {
+        // Given
+        FeatureToggle toggle2 = FeatureToggle.builder().id(2L).featureName("FEATURE_2").status(ToggleStatus.DISABLED).build();
+        when(toggleRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(testToggle, toggle2));
+        when(userRepository.countByFeatureIdInAndListType(List.of(1L, 2L))).thenReturn(List.of());
+        List<String> streamed = new ArrayList<>();
+
+        // When
+        service.streamToggles(null, dto -> streamed.add(dto.getFeatureName()));
+
+        // Then
+        assertThat(streamed).containsExactly("TEST_FEATURE", "FEATURE_2");
+        // A short chunk is the last one
+        verify(toggleRepository, times(1)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("streamToggles with a group should read only that group's toggles")
+    void streamToggles_withGroup_shouldReadGroup() {
+        // Given
+        when(toggleRepository.findByGroupNameAndIdGreaterThanOrderByIdAsc(eq("checkout"), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(testToggle));
+        when(userRepository.countByFeatureIdInAndListType(List.of(1L))).thenReturn(List.of());
+        List<String> streamed = new ArrayList<>();
+
+        // When
+        service.streamToggles("checkout", dto -> streamed.add(dto.getFeatureName()));
+
+        // Then
+        assertThat(streamed).containsExactly("TEST_FEATURE");
+        verify(toggleRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
     }
 
     @Test
@@ -138,6 +215,7 @@ class FeatureToggleServiceTest {
         assertThat(result.getFeatureName()).isEqualTo("NEW_FEATURE");
         assertThat(result.getStatus()).isEqualTo(ToggleStatus.ENABLED);
         verify(cacheService).invalidateCache("NEW_FEATURE");
+        verify(changeFeedService).record(any(FeatureToggle.class), eq(ChangeType.CREATED));
     }
 
     @Test
@@ -175,6 +253,7 @@ class FeatureToggleServiceTest {
         assertThat(testToggle.getStatus()).isEqualTo(ToggleStatus.DISABLED);
         assertThat(testToggle.getDescription()).isEqualTo("Updated description");
         verify(cacheService).invalidateCache("TEST_FEATURE");
+        verify(changeFeedService).record(testToggle, ChangeType.UPDATED);
     }
 
     @Test
@@ -198,38 +277,113 @@ class FeatureToggleServiceTest {
     }
 
     @Test
-    @DisplayName("deleteToggle should delete toggle and users")
-    void deleteToggle_shouldDeleteToggleAndUsers() {
+    @DisplayName("deleteToggle should tombstone the toggle and leave its users to the purge")
+    void deleteToggle_shouldTombstoneToggle() {
         // Given
         when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(testToggle));
+        when(listPurgeService.tombstone(testToggle)).thenReturn(ListPurge.builder().id(7L).totalRows(3).build());
 
         // When
         service.deleteToggle("TEST_FEATURE", "test-actor");
 
         // Then
-        verify(userRepository).deleteByFeature(testToggle);
-        verify(toggleRepository).delete(testToggle);
+        InOrder inOrder = inOrder(changeFeedService, listPurgeService, cacheService);
+        inOrder.verify(changeFeedService).record(testToggle, ChangeType.DELETED);
+        inOrder.verify(listPurgeService).tombstone(testToggle);
+        inOrder.verify(cacheService).invalidateCache("TEST_FEATURE");
+        verify(scheduleRepository).deleteByFeatureId(1L);
+        verify(toggleRepository, never()).delete(any());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("scheduleToggle should add an entry and show the earliest one on the toggle")
+    void scheduleToggle_shouldAddEntryAndMirrorEarliest() {
+        // Given
+        Instant at = Instant.parse("2030-01-01T00:00:00Z");
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(testToggle));
+        when(toggleRepository.save(testToggle)).thenReturn(testToggle);
+        doAnswer(invocation -> {
+            FeatureToggle toggle = invocation.getArgument(0);
+            toggle.setScheduledStatus(ToggleStatus.DISABLED);
+            toggle.setScheduledAt(at);
+            return null;
+        }).when(scheduledToggleService).refreshNextSchedule(testToggle);
+
+        // When
+        FeatureToggleDto result = service.scheduleToggle("TEST_FEATURE", ToggleStatus.DISABLED, at, "test-actor");
+
+        // Then
+        verify(scheduleRepository).save(argThat(entry -> entry.getFeatureId() == 1L
+                && entry.getScheduledStatus() == ToggleStatus.DISABLED && entry.getScheduledAt().equals(at)));
+        assertThat(result.getScheduledStatus()).isEqualTo(ToggleStatus.DISABLED);
+        assertThat(result.getScheduledAt()).isEqualTo(at);
+        verify(changeFeedService).record(testToggle, ChangeType.UPDATED);
+        verify(cacheService).invalidateCache("TEST_FEATURE");
+    }
+
+    @Test
+    @DisplayName("scheduleToggle should not record a change when a later entry leaves the earliest one as is")
+    void scheduleToggle_shouldNotRecordChange_whenEarliestUnchanged() {
+        // Given
+        testToggle.setScheduledStatus(ToggleStatus.DISABLED);
+        testToggle.setScheduledAt(Instant.parse("2030-01-01T00:00:00Z"));
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(testToggle));
+        when(toggleRepository.save(testToggle)).thenReturn(testToggle);
+
+        // When
+        service.scheduleToggle("TEST_FEATURE", ToggleStatus.ENABLED, Instant.parse("2030-02-01T00:00:00Z"), "test-actor");
+
+        // Then
+        verify(changeFeedService, never()).record(any(), any());
         verify(cacheService).invalidateCache("TEST_FEATURE");
     }
 
+    @Test
+    @DisplayName("getSchedules should list pending entries in firing order")
+    void getSchedules_shouldListEntries() {
+        // Given
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(testToggle));
+        when(scheduleRepository.findByFeatureIdOrderByScheduledAtAscIdAsc(1L)).thenReturn(List.of(
+                ToggleSchedule.builder().id(5L).featureId(1L).scheduledStatus(ToggleStatus.DISABLED)
+                        .scheduledAt(Instant.parse("2030-01-01T00:00:00Z")).build(),
+                ToggleSchedule.builder().id(6L).featureId(1L).scheduledStatus(ToggleStatus.ENABLED)
+                        .scheduledAt(Instant.parse("2030-01-02T00:00:00Z")).build()));
+
+        // When
+        List<ToggleScheduleDto> result = service.getSchedules("TEST_FEATURE");
+
+        // Then
+        assertThat(result).extracting(ToggleScheduleDto::getId).containsExactly(5L, 6L);
+    }
+
+    @Test
+    @DisplayName("cancelScheduleEntry should throw when the entry does not belong to the toggle")
+    void cancelScheduleEntry_shouldThrow_whenNotFound() {
+        // Given
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(testToggle));
+        when(scheduleRepository.deleteEntry(1L, 99L)).thenReturn(0);
+
+        // When/Then
+        assertThatThrownBy(() -> service.cancelScheduleEntry("TEST_FEATURE", 99L, "test-actor"))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("99");
+        verify(cacheService, never()).invalidateCache(any());
+    }
+
     @Test
     @DisplayName("addUsersToWhitelist should add new users only")
     void addUsersToWhitelist_shouldAddNewUsersOnly() {
         // Given
         when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(testToggle));
-        when(userRepository.existsByFeatureAndUserIdAndListType(testToggle, "user1", ListType.WHITELIST)).thenReturn(false);
-        when(userRepository.existsByFeatureAndUserIdAndListType(testToggle, "user2", ListType.WHITELIST)).thenReturn(true);
+        when(userRepository.insertMissing(1L, ListType.WHITELIST, List.of("user1", "user2"))).thenReturn(List.of("user1"));
 
         // When
         service.addUsersToWhitelist("TEST_FEATURE", List.of("user1", "user2"), "test-actor");
 
         // Then
-        @SuppressWarnings("unchecked")
-        ArgumentCaptor<List<FeatureToggleUser>> captor = ArgumentCaptor.forClass(List.class);
-        verify(userRepository).saveAll(captor.capture());
-        assertThat(captor.getValue()).hasSize(1);
-        assertThat(captor.getValue().get(0).getUserId()).isEqualTo("user1");
-        verify(cacheService).invalidateUserList("TEST_FEATURE", ListType.WHITELIST);
+        verify(userRepository, never()).existsByFeatureAndUserIdAndListType(any(), anyString(), any());
+        verify(cacheService).onUsersAdded("TEST_FEATURE", ListType.WHITELIST, List.of("user1"));
     }
 
     @Test
@@ -237,21 +391,17 @@ class FeatureToggleServiceTest {
     void addUsersToBlacklist_shouldAddUsersToBlacklist() {
         // Given
         when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(testToggle));
-        when(userRepository.existsByFeatureAndUserIdAndListType(any(), anyString(), eq(ListType.BLACKLIST))).thenReturn(false);
+        when(userRepository.insertMissing(1L, ListType.BLACKLIST, List.of("user1"))).thenReturn(List.of("user1"));
 
         // When
         service.addUsersToBlacklist("TEST_FEATURE", List.of("user1"), "test-actor");
 
         // Then
-        @SuppressWarnings("unchecked")
-        ArgumentCaptor<List<FeatureToggleUser>> captor = ArgumentCaptor.forClass(List.class);
-        verify(userRepository).saveAll(captor.capture());
-        assertThat(captor.getValue().get(0).getListType()).isEqualTo(ListType.BLACKLIST);
-        verify(cacheService).invalidateUserList("TEST_FEATURE", ListType.BLACKLIST);
+        verify(cacheService).onUsersAdded("TEST_FEATURE", ListType.BLACKLIST, List.of("user1"));
     }
 
     @Test
-    @DisplayName("removeUsersFromWhitelist should remove users and invalidate cache")
+    @DisplayName("removeUsersFromWhitelist should remove users and update cache")
     void removeUsersFromWhitelist_shouldRemoveUsers() {
         // Given
         when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(testToggle));
@@ -262,7 +412,7 @@ class FeatureToggleServiceTest {
 
         // Then
         verify(userRepository).deleteByFeatureAndUserIdInAndListType(testToggle, List.of("user1"), ListType.WHITELIST);
-        verify(cacheService).invalidateUserList("TEST_FEATURE", ListType.WHITELIST);
+        verify(cacheService).onUsersRemoved("TEST_FEATURE", ListType.WHITELIST, List.of("user1"));
     }
 
     @Test
@@ -277,7 +427,7 @@ class FeatureToggleServiceTest {
 
         // Then
         verify(userRepository).deleteByFeatureAndUserIdInAndListType(testToggle, List.of("user1"), ListType.BLACKLIST);
-        verify(cacheService).invalidateUserList("TEST_FEATURE", ListType.BLACKLIST);
+        verify(cacheService).onUsersRemoved("TEST_FEATURE", ListType.BLACKLIST, List.of("user1"));
     }
 
     @Test
@@ -304,6 +454,41 @@ class FeatureToggleServiceTest {
         assertThat(result.getTotalElements()).isEqualTo(1);
     }
 
+    @Test
+    @DisplayName("scanWhitelistedUsers should return a slice with a cursor for the next one")
+    void scanWhitelistedUsers_shouldReturnSliceWithCursor() {
+        // Given
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(testToggle));
+        when(userRepository.findUserIdsAfter(testToggle, ListType.WHITELIST, 0L, Limit.of(3)))
+                .thenReturn(List.of(userIdRow(4, "user1"), userIdRow(7, "user2"), userIdRow(9, "user3")));
+        when(userRepository.findUserIdsAfter(testToggle, ListType.WHITELIST, 7L, Limit.of(3)))
+                .thenReturn(List.of(userIdRow(9, "user3")));
+
+        // When
+        UserListSlice first = service.scanWhitelistedUsers("TEST_FEATURE", null, 2);
+        UserListSlice second = service.scanWhitelistedUsers("TEST_FEATURE", first.getNextCursor(), 2);
+
+        // Then
+        assertThat(first.getUserIds()).containsExactly("user1", "user2");
+        assertThat(first.getNextCursor()).isNotNull();
+        assertThat(second.getUserIds()).containsExactly("user3");
+        assertThat(second.getNextCursor()).isNull();
+        verify(userRepository, never()).countByFeatureAndListType(any(), any());
+    }
+
+    @Test
+    @DisplayName("scanBlacklistedUsers should reject a malformed cursor")
+    void scanBlacklistedUsers_shouldRejectMalformedCursor() {
+        // Given
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(testToggle));
+
+        // When/Then
+        assertThatThrownBy(() -> service.scanBlacklistedUsers("TEST_FEATURE", "not a cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+        verify(userRepository, never()).findUserIdsAfter(any(), any(), anyLong(), any());
+    }
+
     @Test
     @DisplayName("getBlacklistedUsers should return paginated users")
     void getBlacklistedUsers_shouldReturnPaginatedUsers() {
@@ -352,14 +537,46 @@ class FeatureToggleServiceTest {
     void addUsersToWhitelist_shouldNotSave_whenAllUsersExist() {
         // Given
         when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(testToggle));
-        when(userRepository.existsByFeatureAndUserIdAndListType(testToggle, "user1", ListType.WHITELIST)).thenReturn(true);
-        when(userRepository.existsByFeatureAndUserIdAndListType(testToggle, "user2", ListType.WHITELIST)).thenReturn(true);
+        when(userRepository.insertMissing(1L, ListType.WHITELIST, List.of("user1", "user2"))).thenReturn(List.of());
 
         // When
         service.addUsersToWhitelist("TEST_FEATURE", List.of("user1", "user2"), "test-actor");
 
         // Then
-        verify(userRepository, never()).saveAll(anyList());
-        verify(cacheService).invalidateUserList("TEST_FEATURE", ListType.WHITELIST);
+        verify(auditLogService, never()).log(anyString(), any(), anyString(), anyString());
+        verify(cacheService, never()).onUsersAdded(anyString(), any(), anyCollection());
+    }
+
+    private static UserIdRow userIdRow(long id, String userId) {
+        return new UserIdRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getUserId() {
+                return userId;
+            }
+        };
+    }
+
+    private static ListCount listCount(long featureId, ListType listType, long count) {
+        return new ListCount() {
+            @Override
+            public Long getFeatureId() {
+                return featureId;
+            }
+
+            @Override
+            public ListType getListType() {
+                return listType;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
     }
 }
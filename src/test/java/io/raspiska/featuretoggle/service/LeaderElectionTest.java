@@ -0,0 +1,164 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.repository.LeaderLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderElectionTest {
+
+    @Mock
+    private LeaderLeaseRepository leaseRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private LeaderElection election;
+    private final List<Boolean> changes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getLeader().setNodeId("node-a");
+        election = new LeaderElection(null, leaseRepository, transactionTemplate, properties, metricsService);
+        election.addListener(changes::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        election.shutdown();
+    }
+
+    @Test
+    @DisplayName("should take the lease when it is free and notify listeners")
+    void tick_shouldAcquire_whenLeaseFree() {
+        // Given
+        stubTransactions();
+        when(leaseRepository.acquire(eq(LeaderElection.LEASE_NAME), eq("node-a"), anyLong(), anyLong())).thenReturn(1);
+
+        // When
+        election.tick();
+
+        // Then
+        assertThat(election.isLeader()).isTrue();
+        assertThat(changes).containsExactly(true);
+        verify(metricsService).recordLeadershipAcquired();
+    }
+
+    @Test
+    @DisplayName("should stay a follower while another node holds the lease")
+    void tick_shouldStayFollower_whenLeaseHeld() {
+        // Given
+        stubTransactions();
+        when(leaseRepository.acquire(eq(LeaderElection.LEASE_NAME), eq("node-a"), anyLong(), anyLong())).thenReturn(0);
+
+        // When
+        election.tick();
+
+        // Then
+        assertThat(election.isLeader()).isFalse();
+        assertThat(changes).isEmpty();
+        verify(metricsService, never()).recordLeadershipAcquired();
+    }
+
+    @Test
+    @DisplayName("a leader should renew its lease instead of acquiring it again")
+    void tick_shouldRenew_whenLeader() {
+        // Given
+        stubTransactions();
+        when(leaseRepository.acquire(eq(LeaderElection.LEASE_NAME), eq("node-a"), anyLong(), anyLong())).thenReturn(1);
+        when(leaseRepository.renew(eq(LeaderElection.LEASE_NAME), eq("node-a"), anyLong())).thenReturn(1);
+        election.tick();
+
+        // When
+        election.tick();
+
+        // Then
+        assertThat(election.isLeader()).isTrue();
+        assertThat(changes).containsExactly(true);
+        verify(leaseRepository, times(1)).acquire(anyString(), anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("a leader should step down when its lease was taken over")
+    void tick_shouldStepDown_whenRenewFails() {
+        // Given
+        stubTransactions();
+        when(leaseRepository.acquire(eq(LeaderElection.LEASE_NAME), eq("node-a"), anyLong(), anyLong())).thenReturn(1);
+        when(leaseRepository.renew(eq(LeaderElection.LEASE_NAME), eq("node-a"), anyLong())).thenReturn(0);
+        election.tick();
+
+        // When
+        election.tick();
+
+        // Then
+        assertThat(election.isLeader()).isFalse();
+        assertThat(changes).containsExactly(true, false);
+        verify(metricsService).recordLeadershipLost();
+    }
+
+    @Test
+    @DisplayName("a leader should keep leading through a store error while its lease is still valid")
+    void tick_shouldKeepLeading_whenStoreFailsWithinLease() {
+        // Given
+        stubTransactions();
+        when(leaseRepository.acquire(eq(LeaderElection.LEASE_NAME), eq("node-a"), anyLong(), anyLong())).thenReturn(1);
+        when(leaseRepository.renew(eq(LeaderElection.LEASE_NAME), eq("node-a"), anyLong()))
+                .thenThrow(new IllegalStateException("database is locked"));
+        election.tick();
+
+        // When
+        election.tick();
+
+        // Then
+        assertThat(election.isLeader()).isTrue();
+        assertThat(changes).containsExactly(true);
+    }
+
+    @Test
+    @DisplayName("shutdown should release a held lease without notifying listeners or counting a loss")
+    void shutdown_shouldReleaseLease_whenLeader() {
+        // Given
+        stubTransactions();
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(leaseRepository.acquire(eq(LeaderElection.LEASE_NAME), eq("node-a"), anyLong(), anyLong())).thenReturn(1);
+        election.tick();
+
+        // When
+        election.shutdown();
+
+        // Then
+        verify(leaseRepository).release(LeaderElection.LEASE_NAME, "node-a");
+        verify(metricsService).recordLeadershipReleased();
+        verify(metricsService, never()).recordLeadershipLost();
+        assertThat(election.isLeader()).isFalse();
+        assertThat(changes).containsExactly(true);
+    }
+
+    private void stubTransactions() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+}
@@ -0,0 +1,154 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.entity.FeatureToggle;
+import io.raspiska.featuretoggle.entity.ListPurge;
+import io.raspiska.featuretoggle.entity.ListPurge.Status;
+import io.raspiska.featuretoggle.entity.ToggleStatus;
+import io.raspiska.featuretoggle.repository.FeatureToggleRepository;
+import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository;
+import io.raspiska.featuretoggle.repository.ListPurgeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ListPurgeServiceTest {
+
+    @Mock
+    private FeatureToggleRepository toggleRepository;
+
+    @Mock
+    private FeatureToggleUserRepository userRepository;
+
+    @Mock
+    private ListPurgeRepository purgeRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private LeaderElection leaderElection;
+
+    private ListPurgeService purgeService;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getPurge().setChunkSize(100);
+        purgeService = new ListPurgeService(toggleRepository, userRepository, purgeRepository, transactionTemplate, properties,
+                leaderElection);
+    }
+
+    @Test
+    @DisplayName("tombstone should hide the toggle, free its name and record a pending purge")
+    void tombstone_shouldHideToggleAndRecordPurge() {
+        // Given
+        FeatureToggle toggle = FeatureToggle.builder().id(5L).featureName("TEST_FEATURE").status(ToggleStatus.LIST_MODE).build();
+        when(userRepository.countByFeature(toggle)).thenReturn(250L);
+        when(purgeRepository.save(any(ListPurge.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ListPurge purge = purgeService.tombstone(toggle);
+
+        // Then
+        assertThat(toggle.getDeletedAt()).isNotNull();
+        assertThat(toggle.getFeatureName()).isEqualTo("TEST_FEATURE#5");
+        verify(toggleRepository).save(toggle);
+        assertThat(purge.getFeatureId()).isEqualTo(5L);
+        assertThat(purge.getFeatureName()).isEqualTo("TEST_FEATURE");
+        assertThat(purge.getTotalRows()).isEqualTo(250);
+        assertThat(purge.getStatus()).isEqualTo(Status.PENDING);
+    }
+
+    @Test
+    @DisplayName("purgePending should delete list entries in chunks and then drop the tombstone")
+    void purgePending_shouldDeleteInChunks() {
+        // Given
+        stubTransactions();
+        ListPurge purge = ListPurge.builder().id(1L).featureId(5L).featureName("TEST_FEATURE")
+                .status(Status.PENDING).totalRows(250).build();
+        when(purgeRepository.findByStatusNotOrderByIdAsc(Status.COMPLETED)).thenReturn(List.of(purge));
+        when(userRepository.deleteChunkByFeatureId(5L, 100)).thenReturn(100, 100, 50);
+
+        // When
+        purgeService.purgePending();
+
+        // Then
+        InOrder inOrder = inOrder(userRepository, toggleRepository);
+        inOrder.verify(userRepository, times(3)).deleteChunkByFeatureId(5L, 100);
+        inOrder.verify(toggleRepository).deleteTombstone(5L);
+        verify(purgeRepository, times(2)).addPurgedRows(1L, 100, Status.RUNNING, Status.COMPLETED);
+        verify(purgeRepository).addPurgedRows(1L, 50, Status.RUNNING, Status.COMPLETED);
+        verify(purgeRepository).complete(eq(1L), eq(Status.COMPLETED), any());
+        verify(purgeRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("purgePending should keep a failed purge for the next run")
+    void purgePending_shouldKeepFailedPurge() {
+        // Given
+        stubTransactions();
+        ListPurge purge = ListPurge.builder().id(1L).featureId(5L).featureName("TEST_FEATURE").status(Status.PENDING).build();
+        when(purgeRepository.findByStatusNotOrderByIdAsc(Status.COMPLETED)).thenReturn(List.of(purge));
+        when(userRepository.deleteChunkByFeatureId(5L, 100)).thenThrow(new IllegalStateException("database is locked"));
+
+        // When
+        purgeService.purgePending();
+
+        // Then
+        verify(purgeRepository, never()).addPurgedRows(anyLong(), anyLong(), any(), any());
+        verify(purgeRepository, never()).complete(anyLong(), any(), any());
+        verify(toggleRepository, never()).deleteTombstone(anyLong());
+    }
+
+    @Test
+    @DisplayName("purgeOnLeader should leave pending purges to the leader")
+    void purgeOnLeader_whenNotLeader_shouldSkip() {
+        // Given
+        when(leaderElection.isLeader()).thenReturn(false);
+
+        // When
+        purgeService.purgeOnLeader();
+
+        // Then
+        verifyNoInteractions(purgeRepository, userRepository, toggleRepository);
+    }
+
+    @Test
+    @DisplayName("purgeOnLeader should run pending purges on the leader")
+    void purgeOnLeader_whenLeader_shouldPurge() {
+        // Given
+        when(leaderElection.isLeader()).thenReturn(true);
+        when(purgeRepository.findByStatusNotOrderByIdAsc(Status.COMPLETED)).thenReturn(List.of());
+
+        // When
+        purgeService.purgeOnLeader();
+
+        // Then
+        verify(purgeRepository).findByStatusNotOrderByIdAsc(Status.COMPLETED);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubTransactions() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+}
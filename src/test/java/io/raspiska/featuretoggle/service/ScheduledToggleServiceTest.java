@@ -0,0 +1,306 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.entity.AuditLog.AuditAction;
+import io.raspiska.featuretoggle.entity.FeatureToggle;
+import io.raspiska.featuretoggle.entity.FeatureToggleChange.ChangeType;
+import io.raspiska.featuretoggle.entity.ToggleSchedule;
+import io.raspiska.featuretoggle.entity.ToggleStatus;
+import io.raspiska.featuretoggle.repository.FeatureToggleRepository;
+import io.raspiska.featuretoggle.repository.ToggleScheduleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduledToggleServiceTest {
+
+    @Mock
+    private FeatureToggleRepository toggleRepository;
+
+    @Mock
+    private ToggleScheduleRepository scheduleRepository;
+
+    @Mock
+    private FeatureToggleCacheService cacheService;
+
+    @Mock
+    private AuditLogService auditLogService;
+
+    @Mock
+    private ChangeFeedService changeFeedService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private LeaderElection leaderElection;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private ScheduledToggleService service;
+    private FeatureToggle toggle;
+
+    @BeforeEach
+    void setUp() {
+        service = new ScheduledToggleService(toggleRepository, scheduleRepository, cacheService,
+                auditLogService, changeFeedService, transactionTemplate, leaderElection, new ApplicationProperties(),
+                metricsService);
+        toggle = FeatureToggle.builder()
+                .id(1L)
+                .featureName("TEST_FEATURE")
+                .status(ToggleStatus.ENABLED)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("apply should claim the entry, change the status and publish the change")
+    void apply_shouldApplyClaimedEntry() {
+        // Given
+        stubTransactions();
+        ToggleSchedule entry = entry(5L, ToggleStatus.DISABLED, Instant.now());
+        when(scheduleRepository.deleteEntry(5L)).thenReturn(1);
+        when(toggleRepository.findById(1L)).thenReturn(Optional.of(toggle));
+        when(scheduleRepository.findFirstByFeatureIdOrderByScheduledAtAscIdAsc(1L)).thenReturn(Optional.empty());
+
+        // When
+        service.apply(entry);
+
+        // Then
+        assertThat(toggle.getStatus()).isEqualTo(ToggleStatus.DISABLED);
+        assertThat(toggle.getScheduledAt()).isNull();
+        verify(toggleRepository).save(toggle);
+        verify(changeFeedService).record(toggle, ChangeType.UPDATED);
+        verify(cacheService).invalidateCache("TEST_FEATURE");
+        verify(auditLogService).log(eq("TEST_FEATURE"), eq(AuditAction.SCHEDULE_APPLIED), eq("SYSTEM"), anyString());
+    }
+
+    @Test
+    @DisplayName("apply should skip an entry that was cancelled or applied by another instance")
+    void apply_shouldSkip_whenEntryAlreadyClaimed() {
+        // Given
+        stubTransactions();
+        when(scheduleRepository.deleteEntry(5L)).thenReturn(0);
+
+        // When
+        service.apply(entry(5L, ToggleStatus.DISABLED, Instant.now()));
+
+        // Then
+        verify(toggleRepository, never()).findById(any());
+        verify(toggleRepository, never()).save(any());
+        verifyNoInteractions(changeFeedService);
+    }
+
+    @Test
+    @DisplayName("a wildcard change should reload all entries, fire due ones right away and keep future ones pending")
+    void onToggleChanged_shouldReloadAll_whenWildcard() {
+        // Given
+        stubTransactions();
+        when(leaderElection.isLeader()).thenReturn(true);
+        when(scheduleRepository.findAllByOrderByScheduledAtAscIdAsc()).thenReturn(List.of(
+                entry(5L, ToggleStatus.DISABLED, Instant.now().minusSeconds(1)),
+                entry(6L, ToggleStatus.ENABLED, Instant.now().plusSeconds(3600))));
+        when(scheduleRepository.deleteEntry(5L)).thenReturn(1);
+        when(toggleRepository.findById(1L)).thenReturn(Optional.of(toggle));
+
+        // When
+        service.onToggleChanged(InvalidationMessage.WILDCARD, InvalidationMessage.UNVERSIONED);
+
+        // Then
+        verify(cacheService, timeout(2000)).invalidateCache("TEST_FEATURE");
+        verify(scheduleRepository, never()).deleteEntry(6L);
+        assertThat(service.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("entries should fire within milliseconds of their scheduled time")
+    void reloadAll_shouldFireAtScheduledTime() {
+        // Given
+        stubTransactions();
+        when(leaderElection.isLeader()).thenReturn(true);
+        Instant scheduledAt = Instant.now().plusMillis(200);
+        when(scheduleRepository.findAllByOrderByScheduledAtAscIdAsc())
+                .thenReturn(List.of(entry(5L, ToggleStatus.DISABLED, scheduledAt)));
+        AtomicReference<Instant> firedAt = new AtomicReference<>();
+        when(scheduleRepository.deleteEntry(5L)).thenAnswer(invocation -> {
+            firedAt.set(Instant.now());
+            return 0;
+        });
+
+        // When
+        service.reloadAll();
+
+        // Then
+        verify(scheduleRepository, timeout(2000)).deleteEntry(5L);
+        assertThat(firedAt.get()).isAfterOrEqualTo(scheduledAt).isBefore(scheduledAt.plusMillis(500));
+    }
+
+    @Test
+    @DisplayName("reload should cancel timers of entries no longer stored for the feature")
+    void reload_shouldCancelRemovedEntries() {
+        // Given
+        ToggleSchedule kept = entry(5L, ToggleStatus.DISABLED, Instant.now().plusSeconds(3600));
+        ToggleSchedule cancelled = entry(6L, ToggleStatus.ENABLED, Instant.now().plusSeconds(7200));
+        ToggleSchedule added = entry(7L, ToggleStatus.ENABLED, Instant.now().plusSeconds(9000));
+        when(scheduleRepository.findAllByOrderByScheduledAtAscIdAsc()).thenReturn(List.of(kept, cancelled));
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
+        when(scheduleRepository.findByFeatureIdOrderByScheduledAtAscIdAsc(1L)).thenReturn(List.of(kept, added));
+        service.reloadAll();
+
+        // When
+        service.reload("TEST_FEATURE");
+
+        // Then
+        assertThat(service.pendingCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("a change announced for a feature should re-read its entries on the scheduler thread")
+    void onToggleChanged_shouldReloadFeature() {
+        // Given
+        when(leaderElection.isLeader()).thenReturn(true);
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
+        when(scheduleRepository.findByFeatureIdOrderByScheduledAtAscIdAsc(1L))
+                .thenReturn(List.of(entry(5L, ToggleStatus.DISABLED, Instant.now().plusSeconds(3600))));
+
+        // When
+        service.onToggleChanged("TEST_FEATURE", 42L);
+
+        // Then
+        verify(scheduleRepository, timeout(2000)).findByFeatureIdOrderByScheduledAtAscIdAsc(1L);
+    }
+
+    @Test
+    @DisplayName("a failed apply should be retried instead of dropping the timer")
+    void fire_shouldRearm_whenApplyFails() {
+        // Given
+        doThrow(new IllegalStateException("database is locked")).when(transactionTemplate).executeWithoutResult(any());
+        when(leaderElection.isLeader()).thenReturn(true);
+        when(scheduleRepository.findAllByOrderByScheduledAtAscIdAsc())
+                .thenReturn(List.of(entry(5L, ToggleStatus.DISABLED, Instant.now())));
+
+        // When
+        service.onToggleChanged(InvalidationMessage.WILDCARD, InvalidationMessage.UNVERSIONED);
+
+        // Then
+        verify(transactionTemplate, timeout(2000)).executeWithoutResult(any());
+        verify(transactionTemplate, after(200).times(1)).executeWithoutResult(any());
+        assertThat(service.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("gaining leadership should migrate legacy schedules and arm timers for all entries")
+    void onLeadershipChanged_shouldLoadEntries_whenGained() {
+        // Given
+        stubTransactions();
+        when(toggleRepository.findByScheduledAtNotNull()).thenReturn(List.of());
+        when(scheduleRepository.findAllByOrderByScheduledAtAscIdAsc())
+                .thenReturn(List.of(entry(5L, ToggleStatus.DISABLED, Instant.now().plusSeconds(3600))));
+
+        // When
+        service.onLeadershipChanged(true);
+
+        // Then
+        verify(scheduleRepository, timeout(2000)).findAllByOrderByScheduledAtAscIdAsc();
+        verify(toggleRepository).findByScheduledAtNotNull();
+    }
+
+    @Test
+    @DisplayName("losing leadership should drop every pending timer")
+    void onLeadershipChanged_shouldCancelTimers_whenLost() {
+        // Given
+        when(scheduleRepository.findAllByOrderByScheduledAtAscIdAsc())
+                .thenReturn(List.of(entry(5L, ToggleStatus.DISABLED, Instant.now().plusSeconds(3600))));
+        service.reloadAll();
+
+        when(leaderElection.isLeader()).thenReturn(false);
+
+        // When
+        service.onLeadershipChanged(false);
+        service.onToggleChanged("TEST_FEATURE", 42L);
+
+        // Then
+        // The scheduler thread runs tasks in order, so the leader check comes after the cancel
+        verify(leaderElection, timeout(2000)).isLeader();
+        assertThat(service.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("a follower should neither load entries on changes nor apply due timers")
+    void onToggleChanged_shouldBeIgnored_whenNotLeader() {
+        // Given
+        stubTransactions();
+        when(leaderElection.isLeader()).thenReturn(false);
+        when(toggleRepository.findByScheduledAtNotNull()).thenReturn(List.of());
+        when(scheduleRepository.findAllByOrderByScheduledAtAscIdAsc())
+                .thenReturn(List.of(entry(5L, ToggleStatus.DISABLED, Instant.now())));
+        service.onLeadershipChanged(true);
+
+        // When
+        service.onToggleChanged("TEST_FEATURE", 42L);
+
+        // Then
+        verify(leaderElection, timeout(2000).times(2)).isLeader();
+        verify(toggleRepository, never()).findByFeatureName(any());
+        verify(scheduleRepository, never()).deleteEntry(anyLong());
+        assertThat(service.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("reconcile should arm entries due soon that have no timer, e.g. after a lost announcement")
+    void reconcile_shouldArmMissingEntries() {
+        // Given
+        ToggleSchedule armed = entry(5L, ToggleStatus.DISABLED, Instant.now().plusSeconds(30));
+        ToggleSchedule missed = entry(6L, ToggleStatus.ENABLED, Instant.now().plusSeconds(60));
+        when(scheduleRepository.findAllByOrderByScheduledAtAscIdAsc()).thenReturn(List.of(armed));
+        service.reloadAll();
+        when(leaderElection.isLeader()).thenReturn(true);
+        when(scheduleRepository.findByScheduledAtBeforeOrderByScheduledAtAscIdAsc(any())).thenReturn(List.of(armed, missed));
+
+        // When
+        service.reconcile();
+
+        // Then
+        verify(scheduleRepository, timeout(2000)).findByScheduledAtBeforeOrderByScheduledAtAscIdAsc(
+                argThat(before -> before.isAfter(Instant.now().plusSeconds(60))));
+        verify(leaderElection, after(100).times(1)).isLeader();
+        assertThat(service.pendingCount()).isEqualTo(2);
+    }
+
+    private void stubTransactions() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static ToggleSchedule entry(long id, ToggleStatus status, Instant scheduledAt) {
+        return ToggleSchedule.builder()
+                .id(id)
+                .featureId(1L)
+                .scheduledStatus(status)
+                .scheduledAt(scheduledAt)
+                .build();
+    }
+}
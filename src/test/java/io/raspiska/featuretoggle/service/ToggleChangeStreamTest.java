@@ -0,0 +1,221 @@
+package io.raspiska.featuretoggle.service;
+
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.dto.ToggleChangeEvent;
+import io.raspiska.featuretoggle.entity.FeatureToggleChange;
+import io.raspiska.featuretoggle.entity.FeatureToggleChange.ChangeType;
+import io.raspiska.featuretoggle.entity.ToggleStatus;
+import io.raspiska.featuretoggle.repository.FeatureToggleChangeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ToggleChangeStreamTest {
+
+    @Mock
+    private FeatureToggleCacheService cacheService;
+
+    @Mock
+    private FeatureToggleChangeRepository changeRepository;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private ToggleChangeStream changeStream;
+
+    @BeforeEach
+    void setUp() {
+        changeStream = new ToggleChangeStream(cacheService, changeRepository, new ApplicationProperties(), metricsService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        changeStream.shutdown();
+    }
+
+    @Test
+    @DisplayName("constructor should register for toggle changes")
+    void constructor_shouldRegisterChangeListener() {
+        verify(cacheService).addChangeListener(any());
+    }
+
+    @Test
+    @DisplayName("onToggleChanged should push every logged change once, with the log id as event ID")
+    void onToggleChanged_shouldPushLoggedChangeOnce() throws Exception {
+        // Given
+        when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(change(1, "TEST_FEATURE", ChangeType.UPDATED, 7)));
+        RecordingEmitter emitter = new RecordingEmitter();
+        changeStream.subscribe(emitter, null);
+
+        // When
+        changeStream.onToggleChanged("TEST_FEATURE", 7);
+        String first = emitter.next();
+        // The instance that committed the change also receives it back through Redis
+        changeStream.onToggleChanged("TEST_FEATURE", 7);
+        verify(changeRepository, timeout(5000)).findByIdGreaterThanOrderByIdAsc(eq(1L), any(Limit.class));
+
+        // Then
+        assertThat(first).contains("id:1", "event:toggle-change", "\"status\":\"ENABLED\"", "\"version\":7");
+        assertThat(emitter.events.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    @DisplayName("onToggleChanged should publish changes in log order, whatever order they are announced in")
+    void onToggleChanged_shouldPublishInLogOrder() throws Exception {
+        // Given
+        when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(
+                change(1, "FEATURE_A", ChangeType.UPDATED, 3),
+                change(2, "FEATURE_B", ChangeType.CREATED, 1)));
+        RecordingEmitter emitter = new RecordingEmitter();
+        changeStream.subscribe(emitter, null);
+
+        // When
+        changeStream.onToggleChanged("FEATURE_B", 1);
+
+        // Then
+        assertThat(emitter.next()).contains("id:1", "FEATURE_A");
+        assertThat(emitter.next()).contains("id:2", "FEATURE_B");
+    }
+
+    @Test
+    @DisplayName("sendHeartbeats should write a comment to every subscriber")
+    void sendHeartbeats_shouldWriteComment() throws Exception {
+        // Given
+        RecordingEmitter emitter = new RecordingEmitter();
+        changeStream.subscribe(emitter, null);
+
+        // When
+        changeStream.sendHeartbeats();
+
+        // Then
+        assertThat(emitter.next()).contains(":heartbeat");
+        assertThat(changeStream.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("subscribe should replay events newer than Last-Event-ID")
+    void subscribe_shouldReplayEventsAfterLastEventId() throws Exception {
+        // Given
+        when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(
+                change(1, "FEATURE_A", ChangeType.UPDATED, 3),
+                change(2, "FEATURE_B", ChangeType.UPDATED, 5)));
+        RecordingEmitter live = new RecordingEmitter();
+        changeStream.subscribe(live, null);
+        changeStream.onToggleChanged("FEATURE_B", 5);
+        live.next();
+        live.next();
+        when(changeRepository.findLatestVersion()).thenReturn(2L);
+
+        // When
+        RecordingEmitter resumed = new RecordingEmitter();
+        changeStream.subscribe(resumed, 1L);
+
+        // Then
+        assertThat(resumed.next()).contains("id:2", "FEATURE_B");
+        assertThat(resumed.events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    @DisplayName("subscribe should ask for a resync when Last-Event-ID is older than the replay buffer")
+    void subscribe_shouldSendReset_whenLastEventIdIsTooOld() throws Exception {
+        // Given
+        when(changeRepository.findLatestVersion()).thenReturn(5L);
+        changeStream.shutdown();
+        changeStream = new ToggleChangeStream(cacheService, changeRepository, new ApplicationProperties(), metricsService);
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        // When
+        changeStream.subscribe(emitter, 1L);
+
+        // Then
+        assertThat(emitter.next()).contains("event:reset");
+    }
+
+    @Test
+    @DisplayName("subscribe should ask for a resync when Last-Event-ID is beyond the change log")
+    void subscribe_shouldSendReset_whenLastEventIdIsUnknown() throws Exception {
+        // Given
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        // When
+        changeStream.subscribe(emitter, 1_700_000_000_000L);
+
+        // Then
+        assertThat(emitter.next()).contains("event:reset");
+    }
+
+    @Test
+    @DisplayName("onToggleChanged should push a deleted event for a logged deletion")
+    void onToggleChanged_shouldPushDeletedEvent() throws Exception {
+        // Given
+        when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(change(9, "TEST_FEATURE", ChangeType.DELETED, 4)));
+        RecordingEmitter emitter = new RecordingEmitter();
+        changeStream.subscribe(emitter, null);
+
+        // When
+        changeStream.onToggleChanged("TEST_FEATURE", 99);
+
+        // Then
+        assertThat(emitter.next()).contains("id:9", "\"deleted\":true");
+    }
+
+    private static FeatureToggleChange change(long id, String featureName, ChangeType changeType, long toggleVersion) {
+        return FeatureToggleChange.builder()
+                .id(id)
+                .featureName(featureName)
+                .changeType(changeType)
+                .status(changeType == ChangeType.DELETED ? null : ToggleStatus.ENABLED)
+                .toggleVersion(toggleVersion)
+                .build();
+    }
+
+    /**
+     * Captures the serialized form of every event instead of writing to a response.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder event = new StringBuilder();
+            for (var part : builder.build()) {
+                event.append(part.getData() instanceof ToggleChangeEvent change ? toJson(change) : part.getData());
+            }
+            events.add(event.toString());
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertThat(event).as("event delivered").isNotNull();
+            return event;
+        }
+
+        private static String toJson(ToggleChangeEvent event) {
+            try {
+                return Jackson2ObjectMapperBuilder.json().build().writeValueAsString(event);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package io.raspiska.featuretoggle.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.raspiska.featuretoggle.ApplicationProperties;
+import io.raspiska.featuretoggle.dto.UserListImportProgress;
+import io.raspiska.featuretoggle.dto.UserListReplaceResponse;
+import io.raspiska.featuretoggle.entity.AuditLog.AuditAction;
+import io.raspiska.featuretoggle.entity.FeatureToggle;
+import io.raspiska.featuretoggle.entity.FeatureToggleUser.ListType;
+import io.raspiska.featuretoggle.repository.FeatureToggleRepository;
+import io.raspiska.featuretoggle.repository.FeatureToggleUserRepository;
+import io.raspiska.featuretoggle.repository.FeatureToggleUserRepositoryCustom.ListDelta;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserListImportServiceTest {
+
+    @Mock
+    private FeatureToggleRepository toggleRepository;
+
+    @Mock
+    private FeatureToggleUserRepository userRepository;
+
+    @Mock
+    private FeatureToggleCacheService cacheService;
+
+    @Mock
+    private AuditLogService auditLogService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private UserListImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getListImport().setChunkSize(2);
+        importService = new UserListImportService(toggleRepository, userRepository, cacheService, auditLogService,
+                transactionTemplate, new ObjectMapper(), properties);
+        FeatureToggle toggle = FeatureToggle.builder().id(1L).featureName("TEST_FEATURE").build();
+        when(toggleRepository.findByFeatureName("TEST_FEATURE")).thenReturn(Optional.of(toggle));
+    }
+
+    @Test
+    @DisplayName("importUsers should insert NDJSON input in chunks and report progress per chunk")
+    void importUsers_shouldInsertNdjsonInChunks() throws Exception {
+        // Given
+        stubTransactions();
+        when(userRepository.insertMissing(1L, ListType.WHITELIST, List.of("user1", "user2"))).thenReturn(List.of("user1", "user2"));
+        when(userRepository.insertMissing(1L, ListType.WHITELIST, List.of("user3"))).thenReturn(List.of());
+        String input = "\"user1\"\n{\"userId\":\"user2\"}\n\n\"user3\"\n";
+        List<UserListImportProgress> progress = new ArrayList<>();
+
+        // When
+        UserListImportProgress result = importService.importUsers("TEST_FEATURE", ListType.WHITELIST,
+                UserListImportService.Format.NDJSON, new StringReader(input), "admin", progress::add);
+
+        // Then
+        assertThat(result.getReceived()).isEqualTo(3);
+        assertThat(result.getAdded()).isEqualTo(2);
+        assertThat(result.isDone()).isTrue();
+        assertThat(progress).hasSize(2);
+        assertThat(progress.get(0).getAdded()).isEqualTo(2);
+        assertThat(progress.get(0).isDone()).isFalse();
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(cacheService).onUsersAdded("TEST_FEATURE", ListType.WHITELIST, List.of("user1", "user2"));
+        verify(auditLogService).log("TEST_FEATURE", AuditAction.ADD_TO_WHITELIST, "admin", "Imported 2 users");
+    }
+
+    @Test
+    @DisplayName("importUsers should read the first CSV column and skip the header")
+    void importUsers_shouldReadFirstCsvColumn() throws Exception {
+        // Given
+        stubTransactions();
+        when(userRepository.insertMissing(eq(1L), eq(ListType.BLACKLIST), anyList())).thenAnswer(invocation -> invocation.getArgument(2));
+        String input = "user_id,note\nuser1,first\n\"user,2\",second\n";
+
+        // When
+        importService.importUsers("TEST_FEATURE", ListType.BLACKLIST, UserListImportService.Format.CSV,
+                new StringReader(input), "admin", progress -> { });
+
+        // Then
+        verify(userRepository).insertMissing(1L, ListType.BLACKLIST, List.of("user1", "user,2"));
+    }
+
+    @Test
+    @DisplayName("importUsers should reject a line that is not a user ID")
+    void importUsers_shouldRejectInvalidLine() {
+        // When/Then
+        assertThatThrownBy(() -> importService.importUsers("TEST_FEATURE", ListType.WHITELIST,
+                UserListImportService.Format.NDJSON, new StringReader("{\"id\":1}\n"), "admin", progress -> { }))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("line 1");
+        verifyNoInteractions(userRepository, auditLogService);
+    }
+
+    @Test
+    @DisplayName("replaceUsers should stage the upload in chunked transactions and apply the delta in one more")
+    void replaceUsers_shouldStageAndApplyDelta() {
+        // Given
+        stubTransactions();
+        stubTransactionsWithoutResult();
+        when(userRepository.replaceWithStaged(anyString(), eq(1L), eq(ListType.WHITELIST))).thenReturn(new ListDelta(1, 4));
+
+        // When
+        UserListReplaceResponse result = importService.replaceUsers("TEST_FEATURE", ListType.WHITELIST,
+                UserListImportService.Format.CSV, new StringReader("user1\nuser2\nuser3\n"), "admin");
+
+        // Then
+        ArgumentCaptor<String> uploadId = ArgumentCaptor.forClass(String.class);
+        InOrder inOrder = inOrder(userRepository, cacheService);
+        inOrder.verify(userRepository).stage(uploadId.capture(), eq(List.of("user1", "user2")));
+        inOrder.verify(userRepository).stage(uploadId.getValue(), List.of("user3"));
+        inOrder.verify(userRepository).replaceWithStaged(uploadId.getValue(), 1L, ListType.WHITELIST);
+        inOrder.verify(cacheService).onUserListReplaced("TEST_FEATURE", ListType.WHITELIST);
+        inOrder.verify(userRepository).clearStaged(uploadId.getValue());
+        verify(transactionTemplate, times(3)).executeWithoutResult(any());
+        verify(transactionTemplate).execute(any());
+        assertThat(result.getReceived()).isEqualTo(3);
+        assertThat(result.getAdded()).isEqualTo(1);
+        assertThat(result.getRemoved()).isEqualTo(4);
+        verify(auditLogService).log("TEST_FEATURE", AuditAction.REPLACE_WHITELIST, "admin", "Replaced list: added 1, removed 4 users");
+    }
+
+    @Test
+    @DisplayName("replaceUsers should leave caches alone when the list is unchanged")
+    void replaceUsers_shouldSkipCache_whenUnchanged() {
+        // Given
+        stubTransactions();
+        stubTransactionsWithoutResult();
+        when(userRepository.replaceWithStaged(anyString(), eq(1L), eq(ListType.BLACKLIST))).thenReturn(new ListDelta(0, 0));
+
+        // When
+        importService.replaceUsers("TEST_FEATURE", ListType.BLACKLIST, UserListImportService.Format.NDJSON,
+                new StringReader("\"user1\"\n"), "admin");
+
+        // Then
+        verify(cacheService, never()).onUserListReplaced(anyString(), any());
+        verifyNoInteractions(auditLogService);
+    }
+
+    @Test
+    @DisplayName("requireFeatureId should throw when the feature does not exist")
+    void requireFeatureId_shouldThrow_whenMissing() {
+        // Given
+        when(toggleRepository.findByFeatureName("MISSING")).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThat(importService.requireFeatureId("TEST_FEATURE")).isEqualTo(1L);
+        assertThatThrownBy(() -> importService.requireFeatureId("MISSING"))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("replaceUsers should drop the staged upload when the swap fails")
+    void replaceUsers_shouldClearStaged_whenSwapFails() {
+        // Given
+        stubTransactions();
+        stubTransactionsWithoutResult();
+        when(userRepository.replaceWithStaged(anyString(), eq(1L), eq(ListType.WHITELIST)))
+                .thenThrow(new IllegalStateException("database is locked"));
+
+        // When/Then
+        assertThatThrownBy(() -> importService.replaceUsers("TEST_FEATURE", ListType.WHITELIST,
+                UserListImportService.Format.CSV, new StringReader("user1\n"), "admin"))
+                .isInstanceOf(IllegalStateException.class);
+        verify(userRepository).clearStaged(anyString());
+        verify(cacheService, never()).onUserListReplaced(anyString(), any());
+        verifyNoInteractions(auditLogService);
+    }
+
+    private void stubTransactionsWithoutResult() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private void stubTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+}